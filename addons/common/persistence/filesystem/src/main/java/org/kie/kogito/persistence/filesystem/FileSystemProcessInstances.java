@@ -19,17 +19,24 @@
 package org.kie.kogito.persistence.filesystem;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -46,14 +53,26 @@ import org.kie.kogito.process.ProcessInstanceDuplicatedException;
 import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
 
+/**
+ * Every process instance is stored in its own file, named after its id, within a directory per process.
+ * The event types instances are waiting for are indexed with empty marker files, one directory per event type
+ * holding a file per waiting instance, so finding the waiting instances or updating the index of one instance does not
+ * depend on the number of stored instances. Files are written to a temporary location and moved into place,
+ * so a crash never leaves a partially written process instance behind.
+ */
 public class FileSystemProcessInstances<T extends Model> implements MutableProcessInstances<T> {
     private final String EVENT_SEPARATOR = "::";
     public static final String PI_DESCRIPTION = "ProcessInstanceDescription";
     public static final String PI_STATUS = "ProcessInstanceStatus";
 
+    private static final String LEGACY_EVENT_TYPES = "events.types";
+    private static final String EVENT_TYPES_DIRECTORY = ".events";
+    private static final String TEMP_DIRECTORY = ".tmp";
+
     private Process<?> process;
     private Path storage;
     private Path eventTypeStorage;
+    private Path tempStorage;
 
     private ProcessInstanceMarshallerService marshaller;
 
@@ -64,14 +83,14 @@ public class FileSystemProcessInstances<T extends Model> implements MutableProce
     public FileSystemProcessInstances(Process<?> process, Path storage, ProcessInstanceMarshallerService marshaller) {
         this.process = process;
         this.storage = Paths.get(storage.toString(), process.id());
-        this.eventTypeStorage = PathUtils.getSecuredPath(this.storage, "events.types");
+        this.eventTypeStorage = PathUtils.getSecuredPath(this.storage, EVENT_TYPES_DIRECTORY);
+        this.tempStorage = PathUtils.getSecuredPath(this.storage, TEMP_DIRECTORY);
         this.marshaller = marshaller;
 
         try {
-            Files.createDirectories(this.storage);
-            if (!Files.exists(eventTypeStorage)) {
-                Files.createFile(eventTypeStorage);
-            }
+            Files.createDirectories(eventTypeStorage);
+            Files.createDirectories(tempStorage);
+            migrateLegacyEventTypes(PathUtils.getSecuredPath(this.storage, LEGACY_EVENT_TYPES));
         } catch (IOException e) {
             throw new RuntimeException("Unable to create directories for file based storage of process instances", e);
         }
@@ -83,8 +102,10 @@ public class FileSystemProcessInstances<T extends Model> implements MutableProce
         if (Files.notExists(processInstanceStorage) || !Files.isRegularFile(processInstanceStorage)) {
             return Optional.empty();
         }
-        byte[] data = readBytesFromFile(processInstanceStorage);
-        AbstractProcessInstance<T> pi = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(data, process, mode);
+        AbstractProcessInstance<T> pi = unmarshallIfExists(processInstanceStorage, mode);
+        if (pi == null) {
+            return Optional.empty();
+        }
         connectInstance(processInstanceStorage, pi);
         return Optional.of(pi);
     }
@@ -92,13 +113,12 @@ public class FileSystemProcessInstances<T extends Model> implements MutableProce
     @Override
     public Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode) {
         try {
-            return Files.walk(storage)
-                    .filter(file -> !Files.isDirectory(file))
-                    .filter(file -> Files.exists(file))
-                    .filter(file -> !file.equals(eventTypeStorage))
-                    .map(this::readBytesFromFile)
-                    .map(data -> {
-                        ProcessInstance<T> pi = (ProcessInstance<T>) marshaller.unmarshallProcessInstance(data, process, mode);
+            // instance files are only ever replaced by a move, so a listed file is either complete or gone
+            return Files.list(storage)
+                    .filter(Files::isRegularFile)
+                    .map(file -> unmarshallIfExists(file, mode))
+                    .filter(Objects::nonNull)
+                    .<ProcessInstance<T>> map(pi -> {
                         Path processInstanceStorage = PathUtils.getSecuredPath(storage.toString(), pi.id());
                         connectInstance(processInstanceStorage, pi);
                         return pi;
@@ -151,36 +171,63 @@ public class FileSystemProcessInstances<T extends Model> implements MutableProce
         }
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        Path eventTypeDirectory = eventTypeDirectory(eventType);
+        if (!Files.isDirectory(eventTypeDirectory)) {
+            return false;
+        }
+        try (Stream<Path> markers = Files.list(eventTypeDirectory)) {
+            return markers.findAny().isPresent();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read process events with id " + eventType, e);
+        }
+    }
+
     @Override
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
-        try {
-            if (!Files.exists(eventTypeStorage)) {
-                return Collections.<ProcessInstance<T>> emptyList().stream();
-            }
-            List<String> processInstanceIds = Files.readAllLines(eventTypeStorage)
-                    .stream()
-                    .filter(line -> line.startsWith(eventType + ":"))
-                    .map(line -> line.substring(line.indexOf(EVENT_SEPARATOR) + EVENT_SEPARATOR.length())).toList();
-            List<ProcessInstance<T>> waitingInstances = new ArrayList<>();
-            for (String processInstanceId : processInstanceIds) {
-                Path processInstanceStorage = PathUtils.getSecuredPath(storage, processInstanceId);
-                byte[] data = readBytesFromFile(processInstanceStorage);
-                AbstractProcessInstance<T> pi = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(data, process, mode);
-                connectInstance(processInstanceStorage, pi);
-                waitingInstances.add(pi);
+        Path eventTypeDirectory = eventTypeDirectory(eventType);
+        if (!Files.isDirectory(eventTypeDirectory)) {
+            return Stream.empty();
+        }
+        List<ProcessInstance<T>> waitingInstances = new ArrayList<>();
+        try (Stream<Path> markers = Files.list(eventTypeDirectory)) {
+            for (Path marker : (Iterable<Path>) markers::iterator) {
+                Path processInstanceStorage = PathUtils.getSecuredPath(storage, marker.getFileName().toString());
+                AbstractProcessInstance<T> pi = unmarshallIfExists(processInstanceStorage, mode);
+                // an instance removed after its marker was listed is skipped
+                if (pi != null) {
+                    connectInstance(processInstanceStorage, pi);
+                    waitingInstances.add(pi);
+                }
             }
-            return waitingInstances.stream();
         } catch (IOException e) {
-            throw new RuntimeException("Unable to store process events with id " + eventType, e);
+            throw new RuntimeException("Unable to read process events with id " + eventType, e);
         }
+        return waitingInstances.stream();
     }
 
     protected void storeEventType(ProcessInstance<?> instance) {
         try {
-            cleanEventType(instance.id());
-            Set<String> eventTypes = Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes()).collect(Collectors.toSet());
+            Set<String> eventTypes = Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes())
+                    .map(FileSystemProcessInstances::encodeEventType)
+                    .collect(Collectors.toSet());
+            try (Stream<Path> eventTypeDirectories = Files.list(eventTypeStorage)) {
+                for (Path eventTypeDirectory : (Iterable<Path>) eventTypeDirectories::iterator) {
+                    if (!eventTypes.contains(eventTypeDirectory.getFileName().toString())) {
+                        Files.deleteIfExists(eventTypeDirectory.resolve(instance.id()));
+                    }
+                }
+            }
             for (String eventType : eventTypes) {
-                Files.write(eventTypeStorage, (eventType + EVENT_SEPARATOR + instance.id() + System.lineSeparator()).getBytes(), StandardOpenOption.APPEND);
+                Path marker = Files.createDirectories(eventTypeStorage.resolve(eventType)).resolve(instance.id());
+                if (Files.notExists(marker)) {
+                    try {
+                        Files.createFile(marker);
+                    } catch (FileAlreadyExistsException e) {
+                        // created concurrently by another update of the same instance
+                    }
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Unable to store process instance with id " + instance.id(), e);
@@ -188,32 +235,87 @@ public class FileSystemProcessInstances<T extends Model> implements MutableProce
     }
 
     protected void cleanEventType(String processInstanceId) {
-        try {
-            if (!Files.exists(eventTypeStorage)) {
-                return;
+        try (Stream<Path> eventTypeDirectories = Files.list(eventTypeStorage)) {
+            for (Path eventTypeDirectory : (Iterable<Path>) eventTypeDirectories::iterator) {
+                Files.deleteIfExists(eventTypeDirectory.resolve(processInstanceId));
             }
-            List<String> lines = Files.readAllLines(eventTypeStorage).stream()
-                    .filter(line -> !line.endsWith(EVENT_SEPARATOR + processInstanceId)).toList();
-            String fileContent = String.join(System.lineSeparator(), lines);
-
-            Files.write(eventTypeStorage, (fileContent + System.lineSeparator()).getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
         } catch (IOException e) {
             throw new RuntimeException("Unable to store process instance events with id " + processInstanceId, e);
         }
     }
 
+    private Path eventTypeDirectory(String eventType) {
+        return eventTypeStorage.resolve(encodeEventType(eventType));
+    }
+
+    /**
+     * Event types may contain characters not allowed in file names, hence the directory name is their url safe base64 encoding.
+     */
+    private static String encodeEventType(String eventType) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(eventType.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Earlier versions kept one <code>eventType::processInstanceId</code> line per waiting instance in a single file,
+     * move those entries to marker files and drop that file.
+     */
+    private void migrateLegacyEventTypes(Path legacyEventTypes) throws IOException {
+        if (!Files.isRegularFile(legacyEventTypes)) {
+            return;
+        }
+        for (String line : Files.readAllLines(legacyEventTypes)) {
+            int index = line.indexOf(EVENT_SEPARATOR);
+            if (index > 0) {
+                Path marker = Files.createDirectories(eventTypeDirectory(line.substring(0, index)))
+                        .resolve(line.substring(index + EVENT_SEPARATOR.length()));
+                if (Files.notExists(marker)) {
+                    Files.createFile(marker);
+                }
+            }
+        }
+        Files.delete(legacyEventTypes);
+    }
+
     protected void storeProcessInstance(Path processInstanceStorage, ProcessInstance<?> instance) {
         try {
-            byte[] data = marshaller.marshallProcessInstance(instance);
-            Files.write(processInstanceStorage, data);
-            setMetadata(processInstanceStorage, PI_DESCRIPTION, instance.description());
-            setMetadata(processInstanceStorage, PI_STATUS, String.valueOf(instance.status()));
+            Path tempFile = Files.createTempFile(tempStorage, instance.id(), null);
+            try {
+                try (OutputStream output = Files.newOutputStream(tempFile)) {
+                    marshaller.marshallProcessInstance(instance, output);
+                }
+                setMetadata(tempFile, PI_DESCRIPTION, instance.description());
+                setMetadata(tempFile, PI_STATUS, String.valueOf(instance.status()));
+                moveInPlace(tempFile, processInstanceStorage);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
 
         } catch (IOException e) {
             throw new RuntimeException("Unable to store process instance with id " + instance.id(), e);
         }
     }
 
+    private static void moveInPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Unmarshalls the instance reading straight from its file, returns <code>null</code> if the file is gone.
+     */
+    private AbstractProcessInstance<T> unmarshallIfExists(Path processInstanceStorage, ProcessInstanceReadMode mode) {
+        try (InputStream input = Files.newInputStream(processInstanceStorage)) {
+            return (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(input, process, mode);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read process instance from " + processInstanceStorage, e);
+        }
+    }
+
     protected byte[] readBytesFromFile(Path processInstanceStorage) {
         try {
             return Files.readAllBytes(processInstanceStorage);
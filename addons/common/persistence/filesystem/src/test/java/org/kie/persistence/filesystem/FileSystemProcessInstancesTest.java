@@ -302,6 +302,29 @@ class FileSystemProcessInstancesTest {
         assertThat(process.instances().stream().count()).isEqualTo(0);
     }
 
+    @Test
+    void testWaitingForEventType() {
+        BpmnProcess process = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        ProcessInstance<BpmnVariables> pi1 = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        ProcessInstance<BpmnVariables> pi2 = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig2")));
+        pi1.start();
+        pi2.start();
+        pi1.workItems().forEach(wi -> pi1.completeWorkItem(wi.getId(), Collections.emptyMap()));
+        pi2.workItems().forEach(wi -> pi2.completeWorkItem(wi.getId(), Collections.emptyMap()));
+
+        assertThat(process.instances().waitingForEventType("sig1").map(ProcessInstance::id)).containsExactly(pi1.id());
+        assertThat(process.instances().waitingForEventType("sig2").map(ProcessInstance::id)).containsExactly(pi2.id());
+        assertThat(process.instances().waitingForEventType("sig3")).isEmpty();
+
+        process.send(SignalFactory.of("sig1", "SomeValue"));
+        assertThat(process.instances().waitingForEventType("sig1")).isEmpty();
+        assertThat(process.instances().waitingForEventType("sig2").map(ProcessInstance::id)).containsExactly(pi2.id());
+
+        process.send(SignalFactory.of("sig2", "SomeValue"));
+        assertThat(process.instances().waitingForEventType("sig2")).isEmpty();
+        assertEmpty(process.instances());
+    }
+
     private static class FileSystemProcessInstancesFactory extends AbstractProcessInstancesFactory {
 
         public FileSystemProcessInstancesFactory() {
@@ -27,16 +27,22 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
     private final RemoteCacheManager cacheManager;
     private final Boolean lock;
     private final String template;
+    private final int nearCacheMaxEntries;
 
     public AbstractProcessInstancesFactory(RemoteCacheManager cacheManager, Boolean lock, String template) {
+        this(cacheManager, lock, template, 0);
+    }
+
+    public AbstractProcessInstancesFactory(RemoteCacheManager cacheManager, Boolean lock, String template, int nearCacheMaxEntries) {
         this.cacheManager = cacheManager;
         this.lock = lock;
         this.template = template;
+        this.nearCacheMaxEntries = nearCacheMaxEntries;
     }
 
     @Override
     public CacheProcessInstances createProcessInstances(Process<?> process) {
-        return new CacheProcessInstances(process, cacheManager, template, lock);
+        return new CacheProcessInstances(process, cacheManager, template, lock, nearCacheMaxEntries);
     }
 
 }
@@ -18,24 +18,33 @@
  */
 package org.kie.kogito.infinispan;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.infinispan.client.hotrod.DefaultTemplate;
+import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.MetadataValue;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
 import org.infinispan.commons.util.CloseableIterator;
 import org.jbpm.flow.serialization.ProcessInstanceMarshallerService;
 import org.kie.kogito.Model;
@@ -49,24 +58,53 @@ import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
 
 public class CacheProcessInstances<T extends Model> implements MutableProcessInstances<T> {
-    private final String EVENT_SEPARATOR = "::";
+    private static final String EVENT_SEPARATOR = "::";
+    private static final String EVENT_TYPE_KEY = "eventType" + EVENT_SEPARATOR;
+    private static final String INSTANCE_KEY = "instance" + EVENT_SEPARATOR;
+    private static final String ID_SEPARATOR = ",";
+    private static final int BATCH_SIZE = 1000;
     private final RemoteCache<String, byte[]> cache;
+    /**
+     * Index of the event types instances are waiting for. Every (event type, instance) pair has its own entry, holding
+     * the event type, and every instance has an entry holding its event types, so the index can be cleaned up. A write
+     * only touches the entries of its own instance, and the instance entry is only changed through versioned
+     * operations.
+     */
+    private final RemoteCache<String, byte[]> eventsCache;
     private final ProcessInstanceMarshallerService marshaller;
     private final org.kie.kogito.process.Process<?> process;
     private final boolean lock;
-    private String eventKey;
+    private final String legacyEventKey;
 
     public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, boolean lock) {
+        this(process, cacheManager, templateName, lock, 0);
+    }
+
+    /**
+     * @param nearCacheMaxEntries when greater than zero, instances are also kept in a Hot Rod near cache of that size,
+     *        invalidated by the server whenever an entry is modified, so repeated reads of an unchanged instance do not
+     *        go over the network. It only applies if the store cache has not been obtained from the manager yet.
+     */
+    public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, boolean lock, int nearCacheMaxEntries) {
         this.process = process;
         String cacheName = process.id() + "_store";
-        if (ConversionUtils.isEmpty(templateName)) {
-            this.cache = cacheManager.administration().getOrCreateCache(cacheName, DefaultTemplate.LOCAL);
-        } else {
-            this.cache = cacheManager.administration().getOrCreateCache(cacheName, templateName);
+        if (nearCacheMaxEntries > 0) {
+            cacheManager.getConfiguration().addRemoteCache(cacheName, builder -> builder.nearCacheMode(NearCacheMode.INVALIDATED).nearCacheMaxEntries(nearCacheMaxEntries));
         }
+        this.cache = getOrCreateCache(cacheManager, cacheName, templateName);
+        this.eventsCache = getOrCreateCache(cacheManager, process.id() + "_events", templateName);
         this.marshaller = ProcessInstanceMarshallerService.newBuilder().withDefaultObjectMarshallerStrategies().build();
         this.lock = lock;
-        this.eventKey = process.id() + "-" + process.version() + ".events";
+        this.legacyEventKey = process.id() + "-" + process.version() + ".events";
+        migrateEventTypes();
+    }
+
+    private static RemoteCache<String, byte[]> getOrCreateCache(RemoteCacheManager cacheManager, String cacheName, String templateName) {
+        if (ConversionUtils.isEmpty(templateName)) {
+            return cacheManager.administration().getOrCreateCache(cacheName, DefaultTemplate.LOCAL);
+        } else {
+            return cacheManager.administration().getOrCreateCache(cacheName, templateName);
+        }
     }
 
     @Override
@@ -85,20 +123,23 @@ public class CacheProcessInstances<T extends Model> implements MutableProcessIns
 
     private Set<String> getUniqueEvents(ProcessInstance<T> instance) {
         return Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes())
-                .map(e -> e + EVENT_SEPARATOR + instance.id())
                 .collect(Collectors.toCollection(HashSet::new));
     }
 
     @Override
     public Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode) {
         if (lock) {
-            CloseableIterator<Entry<Object, MetadataValue<Object>>> iterator = cache.retrieveEntriesWithMetadata(null, 1000);
+            CloseableIterator<Entry<Object, MetadataValue<Object>>> iterator = cache.retrieveEntriesWithMetadata(null, BATCH_SIZE);
             return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
-                    .filter(v -> !v.getKey().equals(this.eventKey))
+                    .filter(v -> !v.getKey().equals(this.legacyEventKey))
                     .map(v -> unmarshall((byte[]) v.getValue().getValue(), v.getValue().getVersion(), mode))
                     .onClose(iterator::close);
         } else {
-            return cache.entrySet().stream().filter(v -> !v.getKey().equals(this.eventKey)).map(data -> unmarshall(data.getValue(), null, mode));
+            CloseableIterator<Entry<Object, Object>> iterator = cache.retrieveEntries(null, BATCH_SIZE);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .filter(v -> !v.getKey().equals(this.legacyEventKey))
+                    .map(v -> unmarshall((byte[]) v.getValue(), null, mode))
+                    .onClose(iterator::close);
         }
     }
 
@@ -119,8 +160,7 @@ public class CacheProcessInstances<T extends Model> implements MutableProcessIns
     @Override
     public void remove(String processInstanceId) {
         cache.remove(processInstanceId);
-        List<String> events = clearEventTypes(cache.get(this.eventKey), processInstanceId);
-        cache.put(this.eventKey, toBytes(events));
+        updateEventTypes(processInstanceId, Collections.emptySet());
     }
 
     @Override
@@ -149,9 +189,7 @@ public class CacheProcessInstances<T extends Model> implements MutableProcessIns
                 }
             }
 
-            List<String> events = clearEventTypes(cache.get(this.eventKey), id);
-            events.addAll(getUniqueEvents(instance));
-            cache.put(this.eventKey, toBytes(events));
+            updateEventTypes(id, getUniqueEvents(instance));
 
             connectProcessInstance(id, instance);
         }
@@ -189,34 +227,112 @@ public class CacheProcessInstances<T extends Model> implements MutableProcessIns
         return this.lock;
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        try (Stream<String> ids = waitingIds(eventType)) {
+            return ids.findAny().isPresent();
+        }
+    }
+
     @Override
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
-        byte[] eventData = cache.get(this.eventKey);
-        if (eventData == null) {
-            return Collections.<ProcessInstance<T>> emptyList().stream();
+        List<String> processInstancesId;
+        try (Stream<String> ids = waitingIds(eventType)) {
+            processInstancesId = ids.toList();
         }
-        String list = new String(eventData);
-        List<String> processInstancesId = Stream.of(list.split(","))
-                .filter(e -> e.startsWith(eventType + EVENT_SEPARATOR))
-                .map(e -> e.substring(e.indexOf(EVENT_SEPARATOR) + EVENT_SEPARATOR.length()))
-                .toList();
-
-        List<ProcessInstance<T>> waitingInstances = new ArrayList<>();
-        for (String processInstanceId : processInstancesId) {
-            findById(processInstanceId).ifPresent(waitingInstances::add);
+        return IntStream.range(0, (processInstancesId.size() + BATCH_SIZE - 1) / BATCH_SIZE)
+                .mapToObj(batch -> processInstancesId.subList(batch * BATCH_SIZE, Math.min(processInstancesId.size(), (batch + 1) * BATCH_SIZE)))
+                .flatMap(ids -> lock ? findAllWithLock(ids, mode) : findAll(ids, mode));
+    }
+
+    private Stream<ProcessInstance<T>> findAll(List<String> ids, ProcessInstanceReadMode mode) {
+        return cache.getAll(new HashSet<>(ids)).values().stream().map(data -> unmarshall(data, null, mode));
+    }
+
+    private Stream<ProcessInstance<T>> findAllWithLock(List<String> ids, ProcessInstanceReadMode mode) {
+        // there is no bulk read returning versions, so pipeline the versioned reads of the batch
+        List<CompletableFuture<MetadataValue<byte[]>>> records = ids.stream().map(cache::getWithMetadataAsync).toList();
+        return records.stream().map(CompletableFuture::join).filter(Objects::nonNull)
+                .map(record -> unmarshall(record.getValue(), record.getVersion(), mode));
+    }
+
+    /**
+     * Ids of the instances waiting for the event type, fetched from the keys of the index. The value of an entry is
+     * checked too, since an event type may contain the separator.
+     */
+    private Stream<String> waitingIds(String eventType) {
+        String prefix = eventTypeKey(eventType, "");
+        byte[] value = eventType.getBytes(StandardCharsets.UTF_8);
+        CloseableIterator<Entry<Object, Object>> iterator = eventsCache.retrieveEntries(null, BATCH_SIZE);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .filter(e -> ((String) e.getKey()).startsWith(prefix) && Arrays.equals((byte[]) e.getValue(), value))
+                .map(e -> ((String) e.getKey()).substring(prefix.length()))
+                .onClose(iterator::close);
+    }
+
+    private static String eventTypeKey(String eventType, String id) {
+        return EVENT_TYPE_KEY + eventType + EVENT_SEPARATOR + id;
+    }
+
+    private void updateEventTypes(String id, Set<String> eventTypes) {
+        String instanceKey = INSTANCE_KEY + id;
+        Set<String> previous;
+        boolean done;
+        do {
+            MetadataValue<byte[]> current = eventsCache.getWithMetadata(instanceKey);
+            previous = fromBytes(current == null ? null : current.getValue());
+            if (previous.equals(eventTypes)) {
+                return;
+            }
+            if (current == null) {
+                done = eventsCache.withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsent(instanceKey, toBytes(eventTypes)) == null;
+            } else if (eventTypes.isEmpty()) {
+                done = eventsCache.removeWithVersion(instanceKey, current.getVersion());
+            } else {
+                done = eventsCache.replaceWithVersion(instanceKey, toBytes(eventTypes), current.getVersion());
+            }
+        } while (!done);
+        for (String eventType : previous) {
+            if (!eventTypes.contains(eventType)) {
+                eventsCache.remove(eventTypeKey(eventType, id));
+            }
+        }
+        for (String eventType : eventTypes) {
+            if (!previous.contains(eventType)) {
+                eventsCache.put(eventTypeKey(eventType, id), eventType.getBytes(StandardCharsets.UTF_8));
+            }
         }
-        return waitingInstances.stream();
     }
 
-    private byte[] toBytes(List<String> events) {
-        return String.join(",", events).getBytes();
+    /**
+     * Event types used to be kept as a single entry of the store cache. Move them to the events cache and drop that entry.
+     */
+    private void migrateEventTypes() {
+        byte[] legacy = cache.get(legacyEventKey);
+        if (legacy == null) {
+            return;
+        }
+        Map<String, Set<String>> eventTypesById = new HashMap<>();
+        for (String event : new String(legacy).split(",")) {
+            int index = event.indexOf(EVENT_SEPARATOR);
+            if (index > 0) {
+                eventTypesById.computeIfAbsent(event.substring(index + EVENT_SEPARATOR.length()), k -> new HashSet<>()).add(event.substring(0, index));
+            }
+        }
+        eventTypesById.forEach(this::updateEventTypes);
+        cache.remove(legacyEventKey);
+    }
+
+    private static byte[] toBytes(Set<String> values) {
+        return String.join(ID_SEPARATOR, values).getBytes(StandardCharsets.UTF_8);
     }
 
-    private List<String> clearEventTypes(byte[] eventData, String processInstanceId) {
-        String list = eventData != null ? new String(eventData) : new String();
-        return Stream.of(list.split(","))
-                .filter(e -> !e.endsWith(EVENT_SEPARATOR + processInstanceId))
-                .collect(Collectors.toCollection(ArrayList::new));
+    private static Set<String> fromBytes(byte[] data) {
+        Set<String> values = new LinkedHashSet<>();
+        if (data != null && data.length > 0) {
+            Collections.addAll(values, new String(data, StandardCharsets.UTF_8).split(ID_SEPARATOR));
+        }
+        return values;
     }
 
 }
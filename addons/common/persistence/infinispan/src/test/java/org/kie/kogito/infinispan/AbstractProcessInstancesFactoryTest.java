@@ -18,12 +18,16 @@
  */
 package org.kie.kogito.infinispan;
 
+import org.infinispan.client.hotrod.DefaultTemplate;
+import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.RemoteCacheManagerAdmin;
 import org.junit.jupiter.api.Test;
 import org.kie.kogito.process.Process;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -32,7 +36,9 @@ class AbstractProcessInstancesFactoryTest {
     @Test
     void testCreate() {
         RemoteCacheManager cacheManager = mock(RemoteCacheManager.class);
-        when(cacheManager.administration()).thenReturn(mock(RemoteCacheManagerAdmin.class));
+        RemoteCacheManagerAdmin admin = mock(RemoteCacheManagerAdmin.class);
+        when(admin.getOrCreateCache(anyString(), any(DefaultTemplate.class))).thenReturn(mock(RemoteCache.class));
+        when(cacheManager.administration()).thenReturn(admin);
         AbstractProcessInstancesFactory factory = new AbstractProcessInstancesFactory(cacheManager, false, null) {
         };
 
@@ -87,11 +87,15 @@ class CacheProcessInstancesIT {
     }
 
     private BpmnProcess createProcess(String fileName) {
+        return createProcess(fileName, 0);
+    }
+
+    private BpmnProcess createProcess(String fileName, int nearCacheMaxEntries) {
         StaticProcessConfig processConfig = StaticProcessConfig.newStaticProcessConfigBuilder()
                 .withWorkItemHandler("Human Task", new DefaultKogitoWorkItemHandler())
                 .build();
 
-        Application application = StaticApplicationAssembler.instance().newStaticApplication(new CacheProcessInstancesFactory(cacheManager), processConfig, fileName);
+        Application application = StaticApplicationAssembler.instance().newStaticApplication(new CacheProcessInstancesFactory(cacheManager, nearCacheMaxEntries), processConfig, fileName);
 
         org.kie.kogito.process.Processes container = application.get(org.kie.kogito.process.Processes.class);
         String processId = container.processIds().stream().findFirst().get();
@@ -203,10 +207,60 @@ class CacheProcessInstancesIT {
         assertThat(process.instances().stream().count()).isEqualTo(0);
     }
 
+    @Test
+    void testEventTypesIndex() {
+        BpmnProcess process = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        ProcessInstance<BpmnVariables> pi1 = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        ProcessInstance<BpmnVariables> pi2 = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig2")));
+        pi1.start();
+        pi2.start();
+        pi1.workItems().forEach(wi -> pi1.completeWorkItem(wi.getId(), Collections.emptyMap()));
+        pi2.workItems().forEach(wi -> pi2.completeWorkItem(wi.getId(), Collections.emptyMap()));
+
+        assertThat(process.instances().waitingForEventType("sig1", ProcessInstanceReadMode.READ_ONLY)).extracting(ProcessInstance::id).containsExactly(pi1.id());
+        assertThat(process.instances().waitingForEventType("sig2", ProcessInstanceReadMode.READ_ONLY)).extracting(ProcessInstance::id).containsExactly(pi2.id());
+        assertThat(process.instances().anyWaitingForEventType("sig1")).isTrue();
+        assertThat(cacheManager.<String, byte[]> getCache(process.id() + "_events").get("eventType::sig1::" + pi1.id())).isEqualTo("sig1".getBytes());
+
+        process.send(SignalFactory.of("sig1", "SomeValue"));
+        assertThat(process.instances().waitingForEventType("sig1", ProcessInstanceReadMode.READ_ONLY)).isEmpty();
+        assertThat(process.instances().anyWaitingForEventType("sig1")).isFalse();
+        assertThat(cacheManager.<String, byte[]> getCache(process.id() + "_events").get("eventType::sig1::" + pi1.id())).isNull();
+        assertThat(cacheManager.<String, byte[]> getCache(process.id() + "_events").get("instance::" + pi1.id())).isNull();
+        abort(process.instances());
+    }
+
+    @Test
+    void testLegacyEventTypesMigrated() {
+        BpmnProcess process = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        ProcessInstance<BpmnVariables> pi = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        pi.start();
+        cacheManager.<String, byte[]> getCache(process.id() + "_events").clear();
+        cacheManager.<String, byte[]> getCache(process.id() + "_store").put(process.id() + "-" + process.version() + ".events", ("legacy::" + pi.id()).getBytes());
+
+        CacheProcessInstances<BpmnVariables> migrated = new CacheProcessInstances<>(process, cacheManager, null, false);
+        assertThat(migrated.waitingForEventType("legacy", ProcessInstanceReadMode.READ_ONLY)).extracting(ProcessInstance::id).containsExactly(pi.id());
+        assertThat(migrated.stream()).hasSize(1);
+        abort(migrated);
+    }
+
+    @Test
+    void testNearCache() {
+        BpmnProcess process = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2", 100);
+        ProcessInstance<BpmnVariables> pi = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        pi.start();
+
+        assertThat(process.instances().findById(pi.id(), ProcessInstanceReadMode.READ_ONLY)).hasValueSatisfying(read -> assertThat(read.variables().get("name")).isEqualTo("sig1"));
+        pi.updateVariables(BpmnVariables.create(Collections.singletonMap("name", "updated")));
+        assertThat(process.instances().findById(pi.id(), ProcessInstanceReadMode.READ_ONLY)).hasValueSatisfying(read -> assertThat(read.variables().get("name")).isEqualTo("updated"));
+        assertThat(process.instances().stream()).hasSize(1);
+        abort(process.instances());
+    }
+
     private class CacheProcessInstancesFactory extends AbstractProcessInstancesFactory {
 
-        CacheProcessInstancesFactory(RemoteCacheManager cacheManager) {
-            super(cacheManager, false, null);
+        CacheProcessInstancesFactory(RemoteCacheManager cacheManager, int nearCacheMaxEntries) {
+            super(cacheManager, false, null, nearCacheMaxEntries);
         }
 
     }
@@ -21,6 +21,7 @@ package org.kie.kogito.persistence.jdbc;
 import javax.sql.DataSource;
 
 import org.kie.kogito.internal.process.runtime.HeadersPersistentConfig;
+import org.kie.kogito.persistence.jdbc.transaction.AbstractTransactionManager;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstancesFactory;
 
@@ -29,6 +30,9 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
     private final DataSource dataSource;
     private final Boolean lock;
     private final HeadersPersistentConfig headersConfig;
+    private final int fetchSize;
+    private final AbstractTransactionManager transactionManager;
+    private final boolean delta;
 
     protected AbstractProcessInstancesFactory() {
         this(null, false);
@@ -39,13 +43,29 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
     }
 
     public AbstractProcessInstancesFactory(DataSource dataSource, Boolean lock, HeadersPersistentConfig headersConfig) {
+        this(dataSource, lock, headersConfig, 0);
+    }
+
+    public AbstractProcessInstancesFactory(DataSource dataSource, Boolean lock, HeadersPersistentConfig headersConfig, int fetchSize) {
+        this(dataSource, lock, headersConfig, fetchSize, null);
+    }
+
+    public AbstractProcessInstancesFactory(DataSource dataSource, Boolean lock, HeadersPersistentConfig headersConfig, int fetchSize, AbstractTransactionManager transactionManager) {
+        this(dataSource, lock, headersConfig, fetchSize, transactionManager, false);
+    }
+
+    public AbstractProcessInstancesFactory(DataSource dataSource, Boolean lock, HeadersPersistentConfig headersConfig, int fetchSize, AbstractTransactionManager transactionManager,
+            boolean delta) {
         this.dataSource = dataSource;
         this.lock = lock;
         this.headersConfig = headersConfig;
+        this.fetchSize = fetchSize;
+        this.transactionManager = transactionManager;
+        this.delta = delta;
     }
 
     @Override
     public JDBCProcessInstances createProcessInstances(Process<?> process) {
-        return new JDBCProcessInstances(process, dataSource, lock, headersConfig);
+        return new JDBCProcessInstances(process, dataSource, lock, headersConfig, fetchSize, transactionManager, delta);
     }
 }
@@ -30,49 +30,63 @@ import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
+import org.kie.kogito.persistence.jdbc.transaction.AbstractTransactionManager;
+
 import static java.util.Arrays.stream;
 
 public class GenericRepository extends Repository {
 
     private static final String PAYLOAD = "payload";
+    private static final String PATCH = "patch";
     private static final String VERSION = "version";
 
     private final DataSource dataSource;
+    private final int fetchSize;
+    private final AbstractTransactionManager transactionManager;
 
     public GenericRepository(DataSource dataSource) {
+        this(dataSource, 0);
+    }
+
+    /**
+     * @param fetchSize hint for the number of rows fetched per round trip when streaming process instances, zero uses the driver default
+     */
+    public GenericRepository(DataSource dataSource, int fetchSize) {
+        this(dataSource, fetchSize, null);
+    }
+
+    /**
+     * @param transactionManager when enabled, provides the connection shared by all the operations of the current unit of work
+     */
+    public GenericRepository(DataSource dataSource, int fetchSize, AbstractTransactionManager transactionManager) {
         this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        this.transactionManager = transactionManager;
     }
 
     @Override
     void insertInternal(String processId, String processVersion, UUID id, byte[] payload, String businessKey, String[] eventTypes) {
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement statement = connection.prepareStatement(INSERT);
-                PreparedStatement eventStatement = connection.prepareStatement(DELETE_ALL_WAITING_FOR_EVENT_TYPE);
-                PreparedStatement insertEventStatement = connection.prepareStatement(INSERT_WAITING_FOR_EVENT_TYPE)) {
-
-            eventStatement.setString(1, id.toString());
-            eventStatement.executeUpdate();
-
-            for (String eventType : eventTypes) {
-                insertEventStatement.setString(1, id.toString());
-                insertEventStatement.setString(2, eventType);
-                insertEventStatement.executeUpdate();
-            }
-
-            String processInstanceId = id.toString();
-            statement.setString(1, processInstanceId);
-            statement.setBytes(2, payload);
-            statement.setString(3, processId);
-            statement.setString(4, processVersion);
-            statement.setLong(5, 0L);
-            statement.executeUpdate();
-            if (businessKey != null) {
-                try (PreparedStatement businessKeyStmt = connection.prepareStatement(INSERT_BUSINESS_KEY)) {
-                    businessKeyStmt.setString(1, businessKey);
-                    businessKeyStmt.setString(2, processInstanceId);
-                    businessKeyStmt.executeUpdate();
+        try (Connection connection = getConnection()) {
+            inTransaction(connection, () -> {
+                String processInstanceId = id.toString();
+                try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                    statement.setString(1, processInstanceId);
+                    statement.setBytes(2, payload);
+                    statement.setString(3, processId);
+                    statement.setString(4, processVersion);
+                    statement.setLong(5, 0L);
+                    statement.executeUpdate();
                 }
-            }
+                if (businessKey != null) {
+                    try (PreparedStatement businessKeyStmt = connection.prepareStatement(INSERT_BUSINESS_KEY)) {
+                        businessKeyStmt.setString(1, businessKey);
+                        businessKeyStmt.setString(2, processInstanceId);
+                        businessKeyStmt.executeUpdate();
+                    }
+                }
+                replaceEventTypes(connection, processInstanceId, eventTypes);
+                return true;
+            });
         } catch (Exception e) {
             throw uncheckedException(e, "Error inserting process instance id: %s, processId: %s processVersion: %s business key: %s", id, processId, processVersion, businessKey);
         }
@@ -80,27 +94,20 @@ public class GenericRepository extends Repository {
 
     @Override
     void updateInternal(String processId, String processVersion, UUID id, byte[] payload, String[] eventTypes) {
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(UPDATE, processVersion));
-                PreparedStatement eventStatement = connection.prepareStatement(DELETE_ALL_WAITING_FOR_EVENT_TYPE);
-                PreparedStatement insertEventStatement = connection.prepareStatement(INSERT_WAITING_FOR_EVENT_TYPE)) {
-
-            eventStatement.setString(1, id.toString());
-            eventStatement.executeUpdate();
-
-            for (String eventType : eventTypes) {
-                insertEventStatement.setString(1, id.toString());
-                insertEventStatement.setString(2, eventType);
-                insertEventStatement.executeUpdate();
-            }
-
-            statement.setBytes(1, payload);
-            statement.setString(2, processId);
-            statement.setString(3, id.toString());
-            if (processVersion != null) {
-                statement.setString(4, processVersion);
-            }
-            statement.executeUpdate();
+        try (Connection connection = getConnection()) {
+            inTransaction(connection, () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(UPDATE, processVersion))) {
+                    statement.setBytes(1, payload);
+                    statement.setString(2, processId);
+                    statement.setString(3, id.toString());
+                    if (processVersion != null) {
+                        statement.setString(4, processVersion);
+                    }
+                    statement.executeUpdate();
+                }
+                replaceEventTypes(connection, id.toString(), eventTypes);
+                return true;
+            });
         } catch (Exception e) {
             throw uncheckedException(e, "Error updating process instance %s", id);
         }
@@ -108,30 +115,34 @@ public class GenericRepository extends Repository {
 
     @Override
     boolean updateWithLock(String processId, String processVersion, UUID id, byte[] payload, long version, String[] eventTypes) {
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(UPDATE_WITH_LOCK, processVersion));
-                PreparedStatement eventStatement = connection.prepareStatement(DELETE_ALL_WAITING_FOR_EVENT_TYPE);
-                PreparedStatement insertEventStatement = connection.prepareStatement(INSERT_WAITING_FOR_EVENT_TYPE)) {
-
-            eventStatement.setString(1, id.toString());
-            eventStatement.executeUpdate();
+        return updateWithLock(UPDATE_WITH_LOCK, processId, processVersion, id, payload, version, eventTypes);
+    }
 
-            for (String eventType : eventTypes) {
-                insertEventStatement.setString(1, id.toString());
-                insertEventStatement.setString(2, eventType);
-                insertEventStatement.executeUpdate();
-            }
+    @Override
+    boolean updatePatchWithLock(String processId, String processVersion, UUID id, byte[] patch, long version, String[] eventTypes) {
+        return updateWithLock(UPDATE_PATCH_WITH_LOCK, processId, processVersion, id, patch, version, eventTypes);
+    }
 
-            statement.setBytes(1, payload);
-            statement.setLong(2, version + 1);
-            statement.setString(3, processId);
-            statement.setString(4, id.toString());
-            statement.setLong(5, version);
-            if (processVersion != null) {
-                statement.setString(6, processVersion);
-            }
-            int count = statement.executeUpdate();
-            return count == 1;
+    private boolean updateWithLock(String sql, String processId, String processVersion, UUID id, byte[] payload, long version, String[] eventTypes) {
+        try (Connection connection = getConnection()) {
+            return inTransaction(connection, () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(sql, processVersion))) {
+                    statement.setBytes(1, payload);
+                    statement.setLong(2, version + 1);
+                    statement.setString(3, processId);
+                    statement.setString(4, id.toString());
+                    statement.setLong(5, version);
+                    if (processVersion != null) {
+                        statement.setString(6, processVersion);
+                    }
+                    if (statement.executeUpdate() != 1) {
+                        // the instance was modified concurrently, leave its event types untouched
+                        return false;
+                    }
+                }
+                replaceEventTypes(connection, id.toString(), eventTypes);
+                return true;
+            });
         } catch (Exception e) {
             throw uncheckedException(e, "Error updating with lock process instance %s", id);
         }
@@ -139,32 +150,89 @@ public class GenericRepository extends Repository {
 
     @Override
     boolean deleteInternal(String processId, String processVersion, UUID id) {
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(DELETE, processVersion));
-                PreparedStatement eventStatement = connection.prepareStatement(DELETE_ALL_WAITING_FOR_EVENT_TYPE)) {
+        try (Connection connection = getConnection()) {
+            return inTransaction(connection, () -> {
+                try (PreparedStatement eventStatement = connection.prepareStatement(DELETE_ALL_WAITING_FOR_EVENT_TYPE);
+                        PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(DELETE, processVersion))) {
+                    eventStatement.setString(1, id.toString());
+                    eventStatement.executeUpdate();
+
+                    statement.setString(1, processId);
+                    statement.setString(2, id.toString());
+                    if (processVersion != null) {
+                        statement.setString(3, processVersion);
+                    }
+                    return statement.executeUpdate() == 1;
+                }
+            });
+        } catch (Exception e) {
+            throw uncheckedException(e, "Error deleting process instance %s", id);
+        }
+    }
 
-            eventStatement.setString(1, id.toString());
+    /**
+     * Replaces the event types the process instance is waiting for, the inserts are sent to the database as a single batch.
+     */
+    private void replaceEventTypes(Connection connection, String processInstanceId, String[] eventTypes) throws SQLException {
+        try (PreparedStatement eventStatement = connection.prepareStatement(DELETE_ALL_WAITING_FOR_EVENT_TYPE)) {
+            eventStatement.setString(1, processInstanceId);
             eventStatement.executeUpdate();
+        }
+        if (eventTypes.length == 0) {
+            return;
+        }
+        try (PreparedStatement insertEventStatement = connection.prepareStatement(INSERT_WAITING_FOR_EVENT_TYPE)) {
+            for (String eventType : eventTypes) {
+                insertEventStatement.setString(1, processInstanceId);
+                insertEventStatement.setString(2, eventType);
+                insertEventStatement.addBatch();
+            }
+            insertEventStatement.executeBatch();
+        }
+    }
 
-            statement.setString(1, processId);
-            statement.setString(2, id.toString());
-            if (processVersion != null) {
-                statement.setString(3, processVersion);
+    @FunctionalInterface
+    private interface TransactionalWork<R> {
+        R execute() throws SQLException;
+    }
+
+    /**
+     * Runs the given work as a single transaction. When the connection already takes part in a transaction
+     * (a unit of work, JTA or Spring managed one), committing or rolling back is left to its owner.
+     */
+    private static <R> R inTransaction(Connection connection, TransactionalWork<R> work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.execute();
+        }
+        connection.setAutoCommit(false);
+        try {
+            R result = work.execute();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                e.addSuppressed(ex);
             }
-            int count = statement.executeUpdate();
-            return count == 1;
-        } catch (Exception e) {
-            throw uncheckedException(e, "Error deleting process instance %s", id);
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
         }
     }
 
+    private Connection getConnection() throws SQLException {
+        Connection connection = transactionManager == null ? null : transactionManager.getConnection();
+        return connection == null ? dataSource.getConnection() : connection;
+    }
+
     private Record from(ResultSet rs) throws SQLException {
-        return new Record(rs.getBytes(PAYLOAD), rs.getLong(VERSION));
+        return new Record(rs.getBytes(PAYLOAD), rs.getBytes(PATCH), rs.getLong(VERSION));
     }
 
     @Override
     Optional<Record> findByIdInternal(String processId, String processVersion, UUID id) {
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = getConnection();
                 PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(FIND_BY_ID, processVersion))) {
             statement.setString(1, processId);
             statement.setString(2, id.toString());
@@ -182,31 +250,55 @@ public class GenericRepository extends Repository {
         return Optional.empty();
     }
 
+    @Override
+    boolean existsInternal(String processId, String processVersion, UUID id) {
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(EXISTS, processVersion))) {
+            statement.setString(1, processId);
+            statement.setString(2, id.toString());
+            if (processVersion != null) {
+                statement.setString(3, processVersion);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (Exception e) {
+            throw uncheckedException(e, "Error finding process instance %s", id);
+        }
+    }
+
     @Override
     Stream<Record> findAllInternalWaitingFor(String processId, String processVersion, String eventType) {
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(FIND_ALL_WAITING_FOR_EVENT_TYPE, processVersion));) {
+        return streamRecords(sqlIncludingVersion(FIND_ALL_WAITING_FOR_EVENT_TYPE, processVersion), statement -> {
             statement.setString(1, processId);
             statement.setString(2, eventType);
             if (processVersion != null) {
                 statement.setString(3, processVersion);
             }
+        }, "Error finding all process instances, for processId %s waiting for %s", processId, eventType);
+    }
 
-            List<Record> data = new ArrayList<>();
-            ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                data.add(from(resultSet));
+    @Override
+    boolean anyWaitingFor(String processId, String processVersion, String eventType) {
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(ANY_WAITING_FOR_EVENT_TYPE, processVersion))) {
+            statement.setMaxRows(1);
+            statement.setString(1, processId);
+            statement.setString(2, eventType);
+            if (processVersion != null) {
+                statement.setString(3, processVersion);
             }
-            resultSet.close();
-            return data.stream();
-        } catch (SQLException e) {
-            throw uncheckedException(e, "Error finding all process instances, for processId %s waiting for %s", processId, eventType);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (Exception e) {
+            throw uncheckedException(e, "Error finding process instances, for processId %s waiting for %s", processId, eventType);
         }
     }
 
     @Override
     Optional<Record> findByBusinessKey(String processId, String processVersion, String businessKey) {
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = getConnection();
                 PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(FIND_BY_BUSINESS_KEY, processVersion))) {
             statement.setString(1, businessKey);
             statement.setString(2, processId);
@@ -241,7 +333,9 @@ public class GenericRepository extends Repository {
 
         public void close() throws Exception {
             Exception exception = null;
-            for (AutoCloseable wrap : wrapped) {
+            AutoCloseable wrap;
+            // resources are removed once closed, so closing on exhaustion and again on stream close is harmless
+            while ((wrap = wrapped.poll()) != null) {
                 try {
                     wrap.close();
                 } catch (Exception ex) {
@@ -259,14 +353,44 @@ public class GenericRepository extends Repository {
 
     @Override
     Stream<Record> findAllInternal(String processId, String processVersion) {
-        CloseableWrapper close = new CloseableWrapper();
-        try {
-            Connection connection = close.nest(dataSource.getConnection());
-            PreparedStatement statement = close.nest(connection.prepareStatement(sqlIncludingVersion(FIND_ALL, processVersion)));
+        return streamRecords(sqlIncludingVersion(FIND_ALL, processVersion), statement -> {
             statement.setString(1, processId);
             if (processVersion != null) {
                 statement.setString(2, processVersion);
             }
+        }, "Error finding all process instances, for processId %s", processId);
+    }
+
+    @FunctionalInterface
+    private interface StatementSetter {
+        void set(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * Lazily reads the records returned by the query, resources are released once the records are exhausted or the stream is closed.
+     * When a fetch size is configured, the connection is switched out of auto commit for the duration of the query,
+     * so drivers that only honour the fetch size inside a transaction (like PostgreSQL) use a server side cursor.
+     */
+    private Stream<Record> streamRecords(String sql, StatementSetter setter, String errorMessage, Object... errorParams) {
+        CloseableWrapper close = new CloseableWrapper();
+        try {
+            Connection connection = close.nest(getConnection());
+            if (fetchSize > 0 && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                AutoCloseable endTransaction = () -> {
+                    try {
+                        connection.commit();
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                };
+                close.nest(endTransaction);
+            }
+            PreparedStatement statement = close.nest(connection.prepareStatement(sql));
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            setter.set(statement);
             ResultSet resultSet = close.nest(statement.executeQuery());
             return StreamSupport.stream(new Spliterators.AbstractSpliterator<Record>(Long.MAX_VALUE, Spliterator.ORDERED) {
                 @Override
@@ -279,12 +403,12 @@ public class GenericRepository extends Repository {
                             try {
                                 close.close();
                             } catch (Exception e) {
-                                throw uncheckedException(e, "Error finding all process instances, for processId %s", processId);
+                                throw uncheckedException(e, errorMessage, errorParams);
                             }
                         }
                         return hasNext;
                     } catch (SQLException e) {
-                        throw uncheckedException(e, "Error finding all process instances, for processId %s", processId);
+                        throw uncheckedException(e, errorMessage, errorParams);
                     }
                 }
             }, false).onClose(close);
@@ -294,7 +418,7 @@ public class GenericRepository extends Repository {
             } catch (Exception ex) {
                 e.addSuppressed(ex);
             }
-            throw uncheckedException(e, "Error finding all process instances, for processId %s", processId);
+            throw uncheckedException(e, errorMessage, errorParams);
         }
     }
 
@@ -304,7 +428,7 @@ public class GenericRepository extends Repository {
 
     @Override
     long migrate(String processId, String processVersion, String targetProcessId, String targetProcessVersion) {
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = getConnection();
                 PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(Repository.MIGRATE_BULK, processVersion))) {
             statement.setString(1, targetProcessId);
             statement.setString(2, targetProcessVersion);
@@ -325,7 +449,7 @@ public class GenericRepository extends Repository {
 
         String migrateProcessInstancesSQLStatement = MIGRATE_INSTANCES_SQL_TEMPLATE.formatted(sqlParamsPlaceHolders);
 
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = getConnection();
                 PreparedStatement statement = connection.prepareStatement(sqlIncludingVersion(migrateProcessInstancesSQLStatement, processVersion))) {
 
             statement.setString(1, targetProcessId);
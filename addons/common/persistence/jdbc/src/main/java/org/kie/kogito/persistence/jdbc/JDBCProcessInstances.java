@@ -21,6 +21,8 @@ package org.kie.kogito.persistence.jdbc;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,8 +30,10 @@ import javax.sql.DataSource;
 
 import org.jbpm.flow.serialization.MarshallerContextName;
 import org.jbpm.flow.serialization.ProcessInstanceMarshallerService;
+import org.jbpm.workflow.instance.WorkflowProcessInstance;
 import org.kie.kogito.Model;
 import org.kie.kogito.internal.process.runtime.HeadersPersistentConfig;
+import org.kie.kogito.persistence.jdbc.transaction.AbstractTransactionManager;
 import org.kie.kogito.process.MutableProcessInstances;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
@@ -43,9 +47,12 @@ public class JDBCProcessInstances<T extends Model> implements MutableProcessInst
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JDBCProcessInstances.class);
 
+    private static final String PERSISTED_BASE = "PersistedBase";
+
     private final Process<?> process;
     private final ProcessInstanceMarshallerService marshaller;
     private final boolean lock;
+    private final boolean delta;
     private final Repository repository;
 
     public JDBCProcessInstances(Process<?> process, DataSource dataSource, boolean lock) {
@@ -53,16 +60,39 @@ public class JDBCProcessInstances<T extends Model> implements MutableProcessInst
     }
 
     public JDBCProcessInstances(Process<?> process, DataSource dataSource, boolean lock, HeadersPersistentConfig headersConfig) {
+        this(process, dataSource, lock, headersConfig, 0);
+    }
+
+    public JDBCProcessInstances(Process<?> process, DataSource dataSource, boolean lock, HeadersPersistentConfig headersConfig, int fetchSize) {
+        this(process, dataSource, lock, headersConfig, fetchSize, null);
+    }
+
+    public JDBCProcessInstances(Process<?> process, DataSource dataSource, boolean lock, HeadersPersistentConfig headersConfig, int fetchSize,
+            AbstractTransactionManager transactionManager) {
+        this(process, dataSource, lock, headersConfig, fetchSize, transactionManager, false);
+    }
+
+    /**
+     * @param delta when true, and locking is enabled, an update only writes the variables and node instances changed
+     *        since the instance was last written in full, as a patch next to it. The instance is written in full again
+     *        once the patch grows to half its size. Requires the patch column of the process instances table.
+     */
+    public JDBCProcessInstances(Process<?> process, DataSource dataSource, boolean lock, HeadersPersistentConfig headersConfig, int fetchSize,
+            AbstractTransactionManager transactionManager, boolean delta) {
         this.process = process;
         this.lock = lock;
+        if (delta && !lock) {
+            LOGGER.warn("Delta persistence requires locking, process instances of {} are written in full", process.id());
+        }
+        this.delta = delta && lock;
         this.marshaller = ProcessInstanceMarshallerService.newBuilder().withDefaultObjectMarshallerStrategies().withDefaultListeners()
                 .withContextEntry(MarshallerContextName.MARSHALLER_HEADERS_CONFIG, headersConfig).build();
-        this.repository = new GenericRepository(dataSource);
+        this.repository = new GenericRepository(dataSource, fetchSize, transactionManager);
     }
 
     @Override
     public boolean exists(String id) {
-        return findById(id).isPresent();
+        return repository.existsInternal(process.id(), process.version(), UUID.fromString(id));
     }
 
     private String[] getUniqueEvents(ProcessInstance<T> instance) {
@@ -74,7 +104,9 @@ public class JDBCProcessInstances<T extends Model> implements MutableProcessInst
         LOGGER.debug("Creating process instance id: {}, processId: {}, processVersion: {}", id, process.id(), process.version());
         if (isActive(instance) || instance.status() == ProcessInstance.STATE_PENDING) {
             String[] eventTypes = getUniqueEvents(instance);
-            repository.insertInternal(process.id(), process.version(), UUID.fromString(id), marshaller.marshallProcessInstance(instance), instance.businessKey(), eventTypes);
+            byte[] payload = marshaller.marshallProcessInstance(instance);
+            repository.insertInternal(process.id(), process.version(), UUID.fromString(id), payload, instance.businessKey(), eventTypes);
+            markPersistedBase(instance, payload);
             connectInstance(instance);
         } else {
             LOGGER.warn("Skipping create of process instance id: {}, state: {}", id, instance.status());
@@ -87,10 +119,17 @@ public class JDBCProcessInstances<T extends Model> implements MutableProcessInst
         if (isActive(instance) || instance.status() == ProcessInstance.STATE_PENDING) {
             String[] eventTypes = getUniqueEvents(instance);
             if (lock) {
-                boolean isUpdated = repository.updateWithLock(process.id(), process.version(), UUID.fromString(id), marshaller.marshallProcessInstance(instance), instance.version(), eventTypes);
+                byte[] payload = marshaller.marshallProcessInstance(instance);
+                byte[] patch = createPatch(instance, payload);
+                boolean isUpdated = patch != null
+                        ? repository.updatePatchWithLock(process.id(), process.version(), UUID.fromString(id), patch, instance.version(), eventTypes)
+                        : repository.updateWithLock(process.id(), process.version(), UUID.fromString(id), payload, instance.version(), eventTypes);
                 if (!isUpdated) {
                     throw new ProcessInstanceOptimisticLockingException(id);
                 }
+                if (patch == null) {
+                    markPersistedBase(instance, payload);
+                }
                 ((AbstractProcessInstance<T>) instance).setVersion(instance.version() + 1);
             } else {
                 repository.updateInternal(process.id(), process.version(), UUID.fromString(id), marshaller.marshallProcessInstance(instance), eventTypes);
@@ -132,6 +171,11 @@ public class JDBCProcessInstances<T extends Model> implements MutableProcessInst
         return repository.findAllInternalWaitingFor(process.id(), process.version(), eventType).map(r -> unmarshall(r, mode));
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        return repository.anyWaitingFor(process.id(), process.version(), eventType);
+    }
+
     @Override
     public Optional<ProcessInstance<T>> findByBusinessKey(String businessKey, ProcessInstanceReadMode mode) {
         LOGGER.debug("Find process instance using business Key : {}", businessKey);
@@ -147,22 +191,52 @@ public class JDBCProcessInstances<T extends Model> implements MutableProcessInst
     }
 
     private ProcessInstance<T> unmarshall(Repository.Record record, ProcessInstanceReadMode mode) {
-        AbstractProcessInstance<T> instance = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(record.getPayload(), process, mode);
+        AbstractProcessInstance<T> instance = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(payload(record), process, mode);
         instance.setVersion(record.getVersion());
+        markPersistedBase(instance, record.getPayload());
         connectInstance(instance);
         return instance;
     }
 
+    private byte[] payload(Repository.Record record) {
+        return record.getPatch() == null ? record.getPayload() : marshaller.applyProcessInstancePatch(record.getPayload(), record.getPatch());
+    }
+
+    /**
+     * @return the changes since the instance was last written in full, <code>null</code> when it has to be written in full
+     */
+    private byte[] createPatch(ProcessInstance<T> instance, byte[] payload) {
+        if (!delta) {
+            return null;
+        }
+        Object base = ((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getMetaData().get(PERSISTED_BASE);
+        return base instanceof byte[] ? marshaller.createProcessInstancePatch((byte[]) base, payload) : null;
+    }
+
+    // remembers the instance as last written in full, patches are computed against it
+    private void markPersistedBase(ProcessInstance<?> instance, byte[] base) {
+        WorkflowProcessInstance processInstance = ((AbstractProcessInstance<?>) instance).internalGetProcessInstance();
+        if (delta && processInstance != null) {
+            processInstance.getMetaData().put(PERSISTED_BASE, base);
+        }
+    }
+
     @Override
     public boolean lock() {
         return this.lock;
     }
 
     private void connectInstance(ProcessInstance<?> instance) {
-        ((AbstractProcessInstance<?>) instance).internalSetReloadSupplier(marshaller.createdReloadFunction(() -> {
+        AtomicReference<byte[]> base = new AtomicReference<>();
+        Consumer<AbstractProcessInstance<?>> reloadFunction = marshaller.createdReloadFunction(() -> {
             Repository.Record r = repository.findByIdInternal(process.id(), process.version(), UUID.fromString(instance.id())).orElseThrow();
             ((AbstractProcessInstance<?>) instance).setVersion(r.getVersion());
-            return r.getPayload();
-        }));
+            base.set(r.getPayload());
+            return payload(r);
+        });
+        if (delta) {
+            reloadFunction = reloadFunction.andThen(pi -> markPersistedBase(pi, base.get()));
+        }
+        ((AbstractProcessInstance<?>) instance).internalSetReloadSupplier(reloadFunction);
     }
 }
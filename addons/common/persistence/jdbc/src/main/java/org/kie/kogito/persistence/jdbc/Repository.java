@@ -26,35 +26,52 @@ abstract class Repository {
 
     static final String INSERT = "INSERT INTO process_instances (id, payload, process_id, process_version, version) VALUES (?, ?, ?, ?, ?)";
     static final String INSERT_BUSINESS_KEY = "INSERT INTO business_key_mapping (business_key,process_instance_id) VALUES (?,?)";
-    static final String FIND_ALL = "SELECT payload, version FROM process_instances WHERE process_id = ?";
-    static final String FIND_BY_ID = "SELECT payload, version FROM process_instances WHERE process_id = ? and id = ?";
-    static final String FIND_BY_BUSINESS_KEY = "SELECT payload, version FROM process_instances INNER JOIN business_key_mapping ON id = process_instance_id WHERE business_key = ? and process_id = ?";
-    static final String UPDATE = "UPDATE process_instances SET payload = ? WHERE process_id = ? and id = ?";
-    static final String UPDATE_WITH_LOCK = "UPDATE process_instances SET payload = ?, version = ? WHERE process_id = ? and id = ? and version = ?";
+    static final String FIND_ALL = "SELECT payload, patch, version FROM process_instances WHERE process_id = ?";
+    static final String FIND_BY_ID = "SELECT payload, patch, version FROM process_instances WHERE process_id = ? and id = ?";
+    static final String EXISTS = "SELECT 1 FROM process_instances WHERE process_id = ? and id = ?";
+    static final String FIND_BY_BUSINESS_KEY = "SELECT payload, patch, version FROM process_instances INNER JOIN business_key_mapping ON id = process_instance_id WHERE business_key = ? and process_id = ?";
+    static final String UPDATE = "UPDATE process_instances SET payload = ?, patch = NULL WHERE process_id = ? and id = ?";
+    static final String UPDATE_WITH_LOCK = "UPDATE process_instances SET payload = ?, patch = NULL, version = ? WHERE process_id = ? and id = ? and version = ?";
+    static final String UPDATE_PATCH_WITH_LOCK = "UPDATE process_instances SET patch = ?, version = ? WHERE process_id = ? and id = ? and version = ?";
     static final String DELETE = "DELETE FROM process_instances WHERE process_id = ? and id = ?";
     static final String PROCESS_VERSION_EQUALS_TO = "and process_version = ?";
     static final String PROCESS_VERSION_IS_NULL = "and process_version is null";
     static final String MIGRATE_BULK = "UPDATE process_instances SET process_id = ?, process_version = ? WHERE process_id = ? ";
     static final String MIGRATE_INSTANCES_SQL_TEMPLATE = "UPDATE process_instances SET process_id = ?, process_version = ? WHERE process_id = ? and id IN ( %s ) ";
     static final String FIND_ALL_WAITING_FOR_EVENT_TYPE =
-            "SELECT payload, version FROM event_types, process_instances WHERE process_instances.id = event_types.process_instance_id AND process_id = ? AND event_type = ?";
+            "SELECT payload, patch, version FROM event_types, process_instances WHERE process_instances.id = event_types.process_instance_id AND process_id = ? AND event_type = ?";
+    static final String ANY_WAITING_FOR_EVENT_TYPE =
+            "SELECT 1 FROM event_types, process_instances WHERE process_instances.id = event_types.process_instance_id AND process_id = ? AND event_type = ?";
     static final String DELETE_ALL_WAITING_FOR_EVENT_TYPE = "DELETE FROM event_types WHERE process_instance_id = ?";
     static final String INSERT_WAITING_FOR_EVENT_TYPE = "INSERT INTO event_types (process_instance_id, event_type) VALUES(?,?)";
 
     static class Record {
         private final byte[] payload;
+        private final byte[] patch;
         private final long version;
 
         public byte[] getPayload() {
             return payload;
         }
 
+        /**
+         * @return the changes written on top of the payload, <code>null</code> when the payload is the whole instance
+         */
+        public byte[] getPatch() {
+            return patch;
+        }
+
         public long getVersion() {
             return version;
         }
 
         public Record(byte[] payload, long version) {
+            this(payload, null, version);
+        }
+
+        public Record(byte[] payload, byte[] patch, long version) {
             this.payload = payload;
+            this.patch = patch;
             this.version = version;
         }
     }
@@ -65,16 +82,22 @@ abstract class Repository {
 
     abstract boolean updateWithLock(String processId, String processVersion, UUID id, byte[] payload, long version, String[] eventTypes);
 
+    abstract boolean updatePatchWithLock(String processId, String processVersion, UUID id, byte[] patch, long version, String[] eventTypes);
+
     abstract boolean deleteInternal(String processId, String processVersion, UUID id);
 
     abstract Optional<Record> findByIdInternal(String processId, String processVersion, UUID id);
 
+    abstract boolean existsInternal(String processId, String processVersion, UUID id);
+
     abstract Optional<Record> findByBusinessKey(String processId, String processVersion, String businessKey);
 
     abstract Stream<Record> findAllInternal(String processId, String processVersion);
 
     abstract Stream<Record> findAllInternalWaitingFor(String id, String version, String eventType);
 
+    abstract boolean anyWaitingFor(String id, String version, String eventType);
+
     protected RuntimeException uncheckedException(Exception ex, String message, Object... param) {
         return new RuntimeException(String.format(message, param), ex);
     }
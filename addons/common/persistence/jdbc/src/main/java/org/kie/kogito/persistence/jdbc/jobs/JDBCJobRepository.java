@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.persistence.jdbc.jobs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.kie.kogito.jobs.DurationExpirationTime;
+import org.kie.kogito.jobs.ExactExpirationTime;
+import org.kie.kogito.jobs.ExpirationTime;
+import org.kie.kogito.jobs.JobDescription;
+import org.kie.kogito.jobs.descriptors.ProcessInstanceJobDescription;
+import org.kie.kogito.jobs.descriptors.ProcessJobDescription;
+import org.kie.kogito.jobs.descriptors.UserTaskInstanceJobDescription;
+
+public class JDBCJobRepository {
+
+    static final String PROCESS_INSTANCE_JOB = "process-instance";
+    static final String PROCESS_JOB = "process";
+    static final String USER_TASK_JOB = "user-task";
+
+    static final String INSERT = "INSERT INTO jobs (id, job_type, fire_time, repeat_interval, repeat_limit, priority, process_id, process_instance_id, root_process_id, " +
+            "root_process_instance_id, node_instance_id, timer_id, user_task_instance_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String DELETE = "DELETE FROM jobs WHERE id = ?";
+    static final String CLAIM = "SELECT id, job_type, fire_time, repeat_interval, repeat_limit, priority, process_id, process_instance_id, root_process_id, " +
+            "root_process_instance_id, node_instance_id, timer_id, user_task_instance_id FROM jobs WHERE fire_time <= ? AND (locked_until IS NULL OR locked_until < ?) " +
+            "ORDER BY fire_time FETCH FIRST %d ROWS ONLY FOR UPDATE SKIP LOCKED";
+    static final String LOCK = "UPDATE jobs SET locked_until = ? WHERE id = ?";
+    static final String RESCHEDULE = "UPDATE jobs SET fire_time = ?, repeat_limit = ?, locked_until = NULL WHERE id = ?";
+    static final String RELEASE = "UPDATE jobs SET locked_until = NULL WHERE id = ?";
+    static final String RETRY = "UPDATE jobs SET fire_time = ?, locked_until = ? WHERE id = ?";
+    static final String RESUME = "UPDATE jobs SET fire_time = fire_time + repeat_interval, repeat_limit = repeat_limit - 1, locked_until = NULL WHERE id = ?";
+
+    private final DataSource dataSource;
+    private final String claimQuery;
+
+    public JDBCJobRepository(DataSource dataSource, int batchSize) {
+        this.dataSource = dataSource;
+        this.claimQuery = String.format(CLAIM, batchSize);
+    }
+
+    public void insert(JobDescription description) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            ExpirationTime expirationTime = description.expirationTime();
+            statement.setString(1, description.id());
+            statement.setLong(3, expirationTime.get().toInstant().toEpochMilli());
+            setLong(statement, 4, expirationTime.repeatInterval());
+            setInteger(statement, 5, expirationTime.repeatLimit());
+            setInteger(statement, 6, description.priority());
+            if (description instanceof ProcessInstanceJobDescription processInstanceJob) {
+                statement.setString(2, PROCESS_INSTANCE_JOB);
+                statement.setString(7, processInstanceJob.processId());
+                statement.setString(8, processInstanceJob.processInstanceId());
+                statement.setString(9, processInstanceJob.rootProcessId());
+                statement.setString(10, processInstanceJob.rootProcessInstanceId());
+                statement.setString(11, processInstanceJob.nodeInstanceId());
+                statement.setString(12, processInstanceJob.timerId());
+                statement.setString(13, null);
+            } else if (description instanceof ProcessJobDescription processJob) {
+                statement.setString(2, PROCESS_JOB);
+                statement.setString(7, processJob.processId());
+                for (int i = 8; i <= 13; i++) {
+                    statement.setString(i, null);
+                }
+            } else if (description instanceof UserTaskInstanceJobDescription userTaskJob) {
+                statement.setString(2, USER_TASK_JOB);
+                statement.setString(7, userTaskJob.processId());
+                statement.setString(8, userTaskJob.processInstanceId());
+                statement.setString(9, userTaskJob.rootProcessId());
+                statement.setString(10, userTaskJob.rootProcessInstanceId());
+                statement.setString(11, userTaskJob.nodeInstanceId());
+                statement.setString(12, null);
+                statement.setString(13, userTaskJob.userTaskInstanceId());
+            } else {
+                throw new IllegalArgumentException("Job description not supported " + description);
+            }
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public boolean delete(String id) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(DELETE)) {
+            statement.setString(1, id);
+            return statement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Selects the jobs due at the given time that are not locked by another poller, skipping the rows locked by
+     * concurrent claims, and locks them until the given time. The lock expires if the claiming node goes away, so
+     * another node, or the same one after a restart, claims them again.
+     *
+     * @param now current time in milliseconds
+     * @param lockedUntil time in milliseconds until the claimed jobs are locked
+     * @return the claimed jobs
+     */
+    public List<JobDescription> claim(long now, long lockedUntil) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                List<JobDescription> jobs = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(claimQuery)) {
+                    statement.setLong(1, now);
+                    statement.setLong(2, now);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            jobs.add(toJobDescription(resultSet, now));
+                        }
+                    }
+                }
+                if (!jobs.isEmpty()) {
+                    try (PreparedStatement statement = connection.prepareStatement(LOCK)) {
+                        for (JobDescription job : jobs) {
+                            statement.setLong(1, lockedUntil);
+                            statement.setString(2, job.id());
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                connection.commit();
+                return jobs;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void reschedule(String id, long fireTime, Integer repeatLimit) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(RESCHEDULE)) {
+            statement.setLong(1, fireTime);
+            setInteger(statement, 2, repeatLimit);
+            statement.setString(3, id);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Moves a claimed job to the time of its next attempt, keeping it locked until then plus the given lease so it is
+     * only claimed again if the node retrying it goes away.
+     */
+    public void retry(String id, long fireTime, long lockedUntil) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(RETRY)) {
+            statement.setLong(1, fireTime);
+            statement.setLong(2, lockedUntil);
+            statement.setString(3, id);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Moves a repeatable job whose retry is done to its next occurrence, one interval after the retry, and releases it.
+     */
+    public void resume(String id) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(RESUME)) {
+            statement.setString(1, id);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void release(String id) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(RELEASE)) {
+            statement.setString(1, id);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static JobDescription toJobDescription(ResultSet resultSet, long now) throws SQLException {
+        String id = resultSet.getString("id");
+        long fireTime = resultSet.getLong("fire_time");
+        Long repeatInterval = getLong(resultSet, "repeat_interval");
+        Integer repeatLimit = getInteger(resultSet, "repeat_limit");
+        Integer priority = getInteger(resultSet, "priority");
+        ExpirationTime expirationTime = repeatInterval == null ? ExactExpirationTime.of(ZonedDateTime.ofInstant(Instant.ofEpochMilli(fireTime), ZoneId.systemDefault()))
+                : DurationExpirationTime.repeat(Math.max(0, fireTime - now), repeatInterval, repeatLimit);
+        String jobType = resultSet.getString("job_type");
+        switch (jobType) {
+            case PROCESS_INSTANCE_JOB:
+                return ProcessInstanceJobDescription.newProcessInstanceJobDescriptionBuilder()
+                        .id(id)
+                        .timerId(resultSet.getString("timer_id"))
+                        .expirationTime(expirationTime)
+                        .priority(priority)
+                        .processId(resultSet.getString("process_id"))
+                        .processInstanceId(resultSet.getString("process_instance_id"))
+                        .rootProcessId(resultSet.getString("root_process_id"))
+                        .rootProcessInstanceId(resultSet.getString("root_process_instance_id"))
+                        .nodeInstanceId(resultSet.getString("node_instance_id"))
+                        .build();
+            case PROCESS_JOB:
+                return ProcessJobDescription.of(expirationTime, priority, resultSet.getString("process_id"), id);
+            case USER_TASK_JOB:
+                return new UserTaskInstanceJobDescription(id, expirationTime, priority, resultSet.getString("user_task_instance_id"), resultSet.getString("process_id"),
+                        resultSet.getString("process_instance_id"), resultSet.getString("node_instance_id"), resultSet.getString("root_process_instance_id"),
+                        resultSet.getString("root_process_id"));
+            default:
+                throw new IllegalStateException("Unknown job type " + jobType + " for job " + id);
+        }
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    private static Long getLong(ResultSet resultSet, String column) throws SQLException {
+        long value = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    private static Integer getInteger(ResultSet resultSet, String column) throws SQLException {
+        int value = resultSet.getInt(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.persistence.jdbc.jobs;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.kie.kogito.jobs.ExpirationTime;
+import org.kie.kogito.jobs.JobDescription;
+import org.kie.kogito.services.jobs.impl.InMemoryJobService;
+import org.kie.kogito.services.jobs.impl.JobExecutorFactory;
+import org.kie.kogito.services.jobs.impl.JobRetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Jobs service that keeps the jobs in the same database as the process instances, so timers survive restarts and are
+ * fired by a single node when several share the database.
+ * <p>
+ * Scheduled jobs are inserted in the <code>jobs</code> table and a poller claims the due ones in batches, using
+ * <code>SELECT ... FOR UPDATE SKIP LOCKED</code> so concurrent pollers never claim the same job, and locks them for
+ * a lease time. Claimed jobs are run by the registered {@link JobExecutorFactory}, as the in memory service does.
+ * Jobs claimed by a node that goes away are claimed again once their lease expires, and jobs due while no node was
+ * running are fired by the first poll after startup.
+ * <p>
+ * A job retried after a conflict keeps its row, moved to the time of the retry and locked by this node, so the retry
+ * is not lost if the node goes away before running it. A repeatable job is only moved to its next occurrence once the
+ * retry is done, so it is not fired again while the retry is pending.
+ */
+public class JDBCJobsService extends InMemoryJobService {
+
+    public static final long DEFAULT_POLL_INTERVAL = 1000L;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_LEASE = 60000L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JDBCJobsService.class);
+
+    private final JDBCJobRepository repository;
+    private final ScheduledExecutorService poller;
+    private final long pollInterval;
+    private final int batchSize;
+    private final long lease;
+    // jobs with a retry pending, whose row is deleted or rescheduled once the retry is done
+    private final Set<String> retrying = ConcurrentHashMap.newKeySet();
+
+    public JDBCJobsService(DataSource dataSource) {
+        this(dataSource, DEFAULT_POLL_INTERVAL, DEFAULT_BATCH_SIZE, DEFAULT_LEASE);
+    }
+
+    public JDBCJobsService(DataSource dataSource, long pollInterval, int batchSize, long lease) {
+        super();
+        this.repository = new JDBCJobRepository(dataSource, batchSize);
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.poller = newPoller();
+    }
+
+    public JDBCJobsService(DataSource dataSource, ScheduledExecutorService executor, long pollInterval, int batchSize, long lease) {
+        this(dataSource, executor, JobRetryPolicy.fromSystemProperties(), pollInterval, batchSize, lease);
+    }
+
+    public JDBCJobsService(DataSource dataSource, ScheduledExecutorService executor, JobRetryPolicy retryPolicy, long pollInterval, int batchSize, long lease) {
+        super(executor, retryPolicy);
+        this.repository = new JDBCJobRepository(dataSource, batchSize);
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.poller = newPoller();
+    }
+
+    private ScheduledExecutorService newPoller() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kogito-jdbc-jobs-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // first poll is delayed to give the application the chance to register the job executor factories
+        executor.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    @Override
+    public String scheduleJob(JobDescription jobDescription) {
+        LOGGER.debug("ScheduleProcessJob: {}", jobDescription);
+        repository.insert(jobDescription);
+        long delay = calculateDelay(jobDescription);
+        if (delay < pollInterval) {
+            // do not wait for the next poll, the insert might not be committed yet though, in which case the regular poll fires it
+            poller.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+        }
+        return jobDescription.id();
+    }
+
+    @Override
+    public boolean cancelJob(String id, boolean force) {
+        // also cancels the pending retry of a job that conflicted, if any
+        retrying.remove(id);
+        boolean cancelled = super.cancelJob(id, force);
+        return repository.delete(id) || cancelled;
+    }
+
+    @Override
+    protected void scheduleRetry(String id, Runnable job, long delay, boolean oneShot) {
+        long fireTime = System.currentTimeMillis() + delay;
+        repository.retry(id, fireTime, fireTime + lease);
+        retrying.add(id);
+        super.scheduleRetry(id, oneShot ? job : () -> retryRepeatable(id, job), delay, oneShot);
+    }
+
+    private void retryRepeatable(String id, Runnable job) {
+        retrying.remove(id);
+        try {
+            job.run();
+        } finally {
+            // no-op if the job cancelled itself because it reached its limit
+            if (!retrying.contains(id)) {
+                repository.resume(id);
+            }
+        }
+    }
+
+    void poll() {
+        try {
+            List<JobDescription> jobs;
+            do {
+                long now = System.currentTimeMillis();
+                jobs = repository.claim(now, now + lease);
+                jobs.forEach(job -> scheduler.execute(() -> execute(job)));
+            } while (jobs.size() == batchSize);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error polling jobs", e);
+        }
+    }
+
+    private void execute(JobDescription job) {
+        Optional<JobExecutorFactory> factory = jobExecutorFactories.stream().filter(f -> f.accept(job)).findFirst();
+        if (factory.isEmpty()) {
+            LOGGER.warn("Could not fire job {}. No job executor factory provided", job.id());
+            repository.release(job.id());
+            return;
+        }
+        ExpirationTime expirationTime = job.expirationTime();
+        Long interval = expirationTime.repeatInterval();
+        try {
+            if (interval == null) {
+                factory.get().createNewRunnable(this, job).run();
+            } else {
+                factory.get().createNewRepeteableRunnable(this, job).run();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Error executing job {}", job.id(), e);
+        } finally {
+            if (interval == null) {
+                // a pending retry keeps the row, the job deletes it through cancelJob once done
+                if (!retrying.contains(job.id())) {
+                    repository.delete(job.id());
+                }
+            } else if (!retrying.contains(job.id())) {
+                // no-op if the job cancelled itself because it reached its limit
+                Integer limit = expirationTime.repeatLimit();
+                repository.reschedule(job.id(), expirationTime.get().toInstant().toEpochMilli() + interval, limit == null ? null : limit - 1);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        poller.shutdownNow();
+        super.close();
+    }
+}
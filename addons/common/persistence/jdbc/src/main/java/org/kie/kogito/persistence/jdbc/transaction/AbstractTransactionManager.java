@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.persistence.jdbc.transaction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.kie.kogito.uow.events.UnitOfWorkAbortEvent;
+import org.kie.kogito.uow.events.UnitOfWorkEndEvent;
+import org.kie.kogito.uow.events.UnitOfWorkEventListener;
+import org.kie.kogito.uow.events.UnitOfWorkStartEvent;
+
+/**
+ * Shares a single connection, and therefore a single transaction, among all the persistence operations performed
+ * within a unit of work. The connection is acquired on first use, committed when the unit of work ends and rolled back
+ * when it is aborted.
+ */
+public abstract class AbstractTransactionManager implements UnitOfWorkEventListener {
+
+    private final DataSource dataSource;
+    private final Boolean enabled;
+
+    private ThreadLocal<TransactionHolder> transactionLocal = new ThreadLocal<>();
+
+    public AbstractTransactionManager(DataSource dataSource, Boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void onBeforeStartEvent(UnitOfWorkStartEvent event) {
+        if (!enabled()) {
+            return;
+        }
+        transactionLocal.set(new TransactionHolder());
+    }
+
+    @Override
+    public void onAfterEndEvent(UnitOfWorkEndEvent event) {
+        if (!enabled()) {
+            return;
+        }
+        TransactionHolder holder = transactionLocal.get();
+        transactionLocal.remove();
+        if (holder != null && holder.connection != null) {
+            try (Connection connection = holder.connection) {
+                if (holder.owned) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error committing unit of work transaction", e);
+            }
+        }
+    }
+
+    @Override
+    public void onAfterAbortEvent(UnitOfWorkAbortEvent event) {
+        if (!enabled()) {
+            return;
+        }
+        TransactionHolder holder = transactionLocal.get();
+        transactionLocal.remove();
+        if (holder != null && holder.connection != null) {
+            try (Connection connection = holder.connection) {
+                if (holder.owned) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error rolling back unit of work transaction", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the connection bound to the unit of work running on the current thread, or <code>null</code> if there is none.
+     * The returned connection ignores <code>close</code>, so callers may release it as they would release a pooled one.
+     */
+    public Connection getConnection() throws SQLException {
+        TransactionHolder holder = transactionLocal.get();
+        if (holder == null) {
+            return null;
+        }
+        if (holder.connection == null) {
+            Connection connection = dataSource.getConnection();
+            // a connection already enlisted in an outer (e.g. JTA) transaction is shared but left to its owner
+            holder.owned = connection.getAutoCommit();
+            if (holder.owned) {
+                connection.setAutoCommit(false);
+            }
+            holder.connection = connection;
+            holder.view = uncloseable(connection);
+        }
+        return holder.view;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    private static Connection uncloseable(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            if ("close".equals(method.getName())) {
+                return null;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static class TransactionHolder {
+        private Connection connection;
+        private Connection view;
+        private boolean owned;
+    }
+}
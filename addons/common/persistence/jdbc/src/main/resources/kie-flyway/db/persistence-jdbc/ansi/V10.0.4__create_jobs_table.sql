@@ -0,0 +1,39 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+
+-- timers of the embedded jobs service, polled by fire time and claimed by setting locked_until
+CREATE TABLE jobs
+(
+    id                       character varying(256)  NOT NULL,
+    job_type                 character varying(64)   NOT NULL,
+    fire_time                bigint                  NOT NULL,
+    repeat_interval          bigint,
+    repeat_limit             integer,
+    priority                 integer,
+    process_id               character varying(4000),
+    process_instance_id      character varying(36),
+    root_process_id          character varying(4000),
+    root_process_instance_id character varying(36),
+    node_instance_id         character varying(36),
+    timer_id                 character varying(256),
+    user_task_instance_id    character varying(36),
+    locked_until             bigint,
+    CONSTRAINT jobs_pkey PRIMARY KEY (id)
+);
+CREATE INDEX idx_jobs_fire_time ON jobs (fire_time);
@@ -22,6 +22,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -33,6 +34,7 @@ import org.kie.kogito.auth.IdentityProviders;
 import org.kie.kogito.auth.SecurityPolicy;
 import org.kie.kogito.internal.process.workitem.Policy;
 import org.kie.kogito.persistence.jdbc.JDBCProcessInstances;
+import org.kie.kogito.persistence.jdbc.transaction.AbstractTransactionManager;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.SignalFactory;
 import org.kie.kogito.process.WorkItem;
@@ -68,12 +70,16 @@ abstract class AbstractProcessInstancesIT {
                 .migrate();
     }
 
-    private BpmnProcess createProcess(DataSource dataSource, Boolean lock, String fileName) {
+    BpmnProcess createProcess(DataSource dataSource, Boolean lock, String fileName) {
+        return createProcess(dataSource, lock, delta(), fileName);
+    }
+
+    BpmnProcess createProcess(DataSource dataSource, Boolean lock, boolean delta, String fileName) {
         StaticProcessConfig processConfig = StaticProcessConfig.newStaticProcessConfigBuilder()
                 .withWorkItemHandler("Human Task", new DefaultKogitoWorkItemHandler())
                 .build();
 
-        Application application = StaticApplicationAssembler.instance().newStaticApplication(new TestProcessInstancesFactory(dataSource, lock), processConfig, fileName);
+        Application application = StaticApplicationAssembler.instance().newStaticApplication(new TestProcessInstancesFactory(dataSource, lock, fetchSize(), transactionManager(), delta), processConfig, fileName);
 
         org.kie.kogito.process.Processes container = application.get(org.kie.kogito.process.Processes.class);
         String processId = container.processIds().stream().findFirst().get();
@@ -88,6 +94,18 @@ abstract class AbstractProcessInstancesIT {
         return false;
     }
 
+    int fetchSize() {
+        return 0;
+    }
+
+    AbstractTransactionManager transactionManager() {
+        return null;
+    }
+
+    boolean delta() {
+        return false;
+    }
+
     abstract DataSource getDataSource();
 
     @Test
@@ -349,4 +367,21 @@ abstract class AbstractProcessInstancesIT {
         process.send(SignalFactory.of("sig2", "SomeValue"));
         assertThat(process.instances().stream().count()).isEqualTo(0);
     }
+
+    @Test
+    void testStreamInBatches() {
+        BpmnProcess process = createProcess(getDataSource(), lock(), "BPMN2-UserTask.bpmn2");
+        for (int i = 0; i < 5; i++) {
+            process.createInstance(BpmnVariables.create(singletonMap("test", "test" + i))).start();
+        }
+
+        assertThat(process.instances().stream().count()).isEqualTo(5);
+        for (int i = 0; i < 10; i++) {
+            try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().stream()) {
+                assertThat(stream.findFirst()).isPresent();
+            }
+        }
+        abort(process.instances());
+        assertEmpty(process.instances());
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.persistence.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.bpmn2.BpmnProcess;
+import org.kie.kogito.process.bpmn2.BpmnVariables;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.test.utils.ProcessInstancesTestUtils.abort;
+
+public class PostgreSqlProcessInstancesDeltaIT extends PostgreSqlProcessInstancesLockIT {
+
+    @Override
+    boolean delta() {
+        return true;
+    }
+
+    @Test
+    void testUpdatesAreReadBackFromPatches() {
+        BpmnProcess process = createProcess(getDataSource(), lock(), "BPMN2-UserTask.bpmn2");
+        String document = "x".repeat(16 * 1024);
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Map.of("test", "test", "document", document)));
+        processInstance.start();
+
+        for (int i = 0; i < 10; i++) {
+            processInstance.updateVariablesPartially(BpmnVariables.create(singletonMap("test", "value-" + i)));
+        }
+
+        ProcessInstance<BpmnVariables> stored = process.instances().findById(processInstance.id()).orElseThrow();
+        assertThat(stored.variables().toMap()).containsEntry("test", "value-9").containsEntry("document", document);
+        assertThat(stored.version()).isEqualTo(processInstance.version());
+        abort(process.instances());
+    }
+
+    @Test
+    void testSwitchingDeltaOffAndOnKeepsUpdates() throws Exception {
+        BpmnProcess deltaProcess = createProcess(getDataSource(), lock(), "BPMN2-UserTask.bpmn2");
+        BpmnProcess fullProcess = createProcess(getDataSource(), lock(), false, "BPMN2-UserTask.bpmn2");
+        // large enough for a single variable change to be written as a patch
+        String document = "x".repeat(16 * 1024);
+        ProcessInstance<BpmnVariables> processInstance = deltaProcess.createInstance(BpmnVariables.create(Map.of("test", "test", "document", document)));
+        processInstance.start();
+        processInstance.updateVariablesPartially(BpmnVariables.create(singletonMap("test", "delta")));
+        assertThat(storedPatch(processInstance.id())).isNotNull();
+
+        ProcessInstance<BpmnVariables> full = fullProcess.instances().findById(processInstance.id()).orElseThrow();
+        assertThat(full.variables().toMap()).containsEntry("test", "delta");
+        full.updateVariablesPartially(BpmnVariables.create(singletonMap("test", "full")));
+        assertThat(storedPatch(processInstance.id())).isNull();
+
+        ProcessInstance<BpmnVariables> delta = deltaProcess.instances().findById(processInstance.id()).orElseThrow();
+        assertThat(delta.variables().toMap()).containsEntry("test", "full");
+        delta.updateVariablesPartially(BpmnVariables.create(singletonMap("test", "delta-again")));
+
+        assertThat(fullProcess.instances().findById(processInstance.id()).orElseThrow().variables().toMap()).containsEntry("test", "delta-again");
+        assertThat(deltaProcess.instances().findById(processInstance.id()).orElseThrow().variables().toMap()).containsEntry("test", "delta-again");
+        abort(deltaProcess.instances());
+    }
+
+    private byte[] storedPatch(String id) throws SQLException {
+        try (Connection connection = getDataSource().getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT patch FROM process_instances WHERE id = ?")) {
+            statement.setObject(1, UUID.fromString(id));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertThat(resultSet.next()).isTrue();
+                return resultSet.getBytes(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.persistence.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.persistence.jdbc.transaction.AbstractTransactionManager;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.bpmn2.BpmnProcess;
+import org.kie.kogito.process.bpmn2.BpmnVariables;
+import org.kie.kogito.uow.events.UnitOfWorkAbortEvent;
+import org.kie.kogito.uow.events.UnitOfWorkEndEvent;
+import org.kie.kogito.uow.events.UnitOfWorkStartEvent;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.test.utils.ProcessInstancesTestUtils.abort;
+import static org.kie.kogito.test.utils.ProcessInstancesTestUtils.assertEmpty;
+import static org.kie.kogito.test.utils.ProcessInstancesTestUtils.assertOne;
+
+public class PostgreSqlProcessInstancesUnitOfWorkIT extends PostgreSqlProcessInstancesIT {
+
+    private AbstractTransactionManager transactionManager;
+
+    @Override
+    AbstractTransactionManager transactionManager() {
+        if (transactionManager == null) {
+            transactionManager = new AbstractTransactionManager(getDataSource(), true) {
+            };
+        }
+        return transactionManager;
+    }
+
+    @Test
+    void testUnitOfWorkEndCommitsWrites() {
+        BpmnProcess process = createProcess(getDataSource(), lock(), "BPMN2-UserTask.bpmn2");
+
+        transactionManager().onBeforeStartEvent(new UnitOfWorkStartEvent(null));
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(singletonMap("test", "test")));
+        processInstance.start();
+        processInstance.updateVariables(BpmnVariables.create(singletonMap("test", "updated")));
+        transactionManager().onAfterEndEvent(new UnitOfWorkEndEvent(null));
+
+        assertOne(process.instances());
+        assertThat(process.instances().findById(processInstance.id()).get().variables().get("test")).isEqualTo("updated");
+        abort(process.instances());
+    }
+
+    @Test
+    void testUnitOfWorkAbortDiscardsWrites() {
+        BpmnProcess process = createProcess(getDataSource(), lock(), "BPMN2-UserTask.bpmn2");
+
+        transactionManager().onBeforeStartEvent(new UnitOfWorkStartEvent(null));
+        process.createInstance(BpmnVariables.create(singletonMap("test", "test"))).start();
+        transactionManager().onAfterAbortEvent(new UnitOfWorkAbortEvent(null));
+
+        assertEmpty(process.instances());
+    }
+}
@@ -22,6 +22,7 @@ import javax.sql.DataSource;
 
 import org.kie.kogito.persistence.jdbc.AbstractProcessInstancesFactory;
 import org.kie.kogito.persistence.jdbc.JDBCProcessInstances;
+import org.kie.kogito.persistence.jdbc.transaction.AbstractTransactionManager;
 import org.kie.kogito.process.Process;
 
 import static org.mockito.Mockito.spy;
@@ -32,6 +33,18 @@ public class TestProcessInstancesFactory extends AbstractProcessInstancesFactory
         super(dataSource, lock);
     }
 
+    public TestProcessInstancesFactory(DataSource dataSource, boolean lock, int fetchSize) {
+        super(dataSource, lock, null, fetchSize);
+    }
+
+    public TestProcessInstancesFactory(DataSource dataSource, boolean lock, int fetchSize, AbstractTransactionManager transactionManager) {
+        super(dataSource, lock, null, fetchSize, transactionManager);
+    }
+
+    public TestProcessInstancesFactory(DataSource dataSource, boolean lock, int fetchSize, AbstractTransactionManager transactionManager, boolean delta) {
+        super(dataSource, lock, null, fetchSize, transactionManager, delta);
+    }
+
     @Override
     public JDBCProcessInstances createProcessInstances(Process<?> process) {
         return spy(super.createProcessInstances(process));
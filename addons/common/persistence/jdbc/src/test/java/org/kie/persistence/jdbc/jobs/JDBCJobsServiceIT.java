@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.persistence.jdbc.jobs;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.flyway.initializer.KieFlywayInitializer;
+import org.kie.kogito.jobs.DurationExpirationTime;
+import org.kie.kogito.jobs.ExpirationTime;
+import org.kie.kogito.jobs.JobDescription;
+import org.kie.kogito.jobs.JobsService;
+import org.kie.kogito.jobs.descriptors.ProcessInstanceJobDescription;
+import org.kie.kogito.persistence.jdbc.jobs.JDBCJobsService;
+import org.kie.kogito.services.jobs.impl.InMemoryJobService;
+import org.kie.kogito.services.jobs.impl.JobExecutorFactory;
+import org.kie.kogito.services.jobs.impl.JobRetryPolicy;
+import org.kie.kogito.testcontainers.KogitoPostgreSqlContainer;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers
+public class JDBCJobsServiceIT {
+
+    @Container
+    private static final KogitoPostgreSqlContainer PG_CONTAINER = new KogitoPostgreSqlContainer();
+    private static PGSimpleDataSource dataSource;
+
+    @BeforeAll
+    public static void setUp() {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(PG_CONTAINER.getJdbcUrl());
+        dataSource.setUser(PG_CONTAINER.getUsername());
+        dataSource.setPassword(PG_CONTAINER.getPassword());
+        KieFlywayInitializer.builder()
+                .withDatasource(dataSource)
+                .build()
+                .migrate();
+    }
+
+    @Test
+    public void testJobFiredOnceAcrossNodes() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        try (JDBCJobsService node1 = newJobsService(fired); JDBCJobsService node2 = newJobsService(fired)) {
+            for (int i = 0; i < 10; i++) {
+                node1.scheduleJob(job("job-" + i, DurationExpirationTime.after(100)));
+            }
+            await().atMost(Duration.ofSeconds(10)).until(() -> fired.size() == 10);
+            Thread.sleep(500);
+            assertThat(fired).hasSize(10).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    public void testJobCancelled() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        try (JDBCJobsService jobsService = newJobsService(fired)) {
+            jobsService.scheduleJob(job("cancelled", DurationExpirationTime.after(500)));
+            assertThat(jobsService.cancelJob("cancelled")).isTrue();
+            assertThat(jobsService.cancelJob("cancelled")).isFalse();
+            Thread.sleep(1000);
+            assertThat(fired).isEmpty();
+        }
+    }
+
+    @Test
+    public void testJobFiredAfterRestart() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        try (JDBCJobsService jobsService = newJobsService(fired)) {
+            jobsService.scheduleJob(job("restart", DurationExpirationTime.after(500)));
+        }
+        assertThat(fired).isEmpty();
+        try (JDBCJobsService jobsService = newJobsService(fired)) {
+            await().atMost(Duration.ofSeconds(10)).until(() -> fired.contains("restart"));
+        }
+    }
+
+    @Test
+    public void testRepeatableJobFiredUpToLimit() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        try (JDBCJobsService jobsService = newJobsService(fired)) {
+            jobsService.scheduleJob(job("repeat", DurationExpirationTime.repeat(100, 100L, 3)));
+            await().atMost(Duration.ofSeconds(10)).until(() -> fired.size() == 3);
+            Thread.sleep(1000);
+            assertThat(fired).containsExactly("repeat", "repeat", "repeat");
+            assertThat(jobsService.cancelJob("repeat")).isFalse();
+        }
+    }
+
+    @Test
+    public void testRetryAfterConflictFiredAfterRestart() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        AtomicInteger conflicts = new AtomicInteger(1);
+        // the retry is due after the restart, the lease of the node that scheduled it expires shortly after
+        JobRetryPolicy retryPolicy = new JobRetryPolicy(3, 1000, 1000);
+        try (JDBCJobsService jobsService = new JDBCJobsService(dataSource, Executors.newScheduledThreadPool(1), retryPolicy, 200, 5, 500)) {
+            jobsService.registerJobExecutorFactory(new ConflictingJobExecutorFactory(conflicts, fired));
+            jobsService.scheduleJob(job("conflict", DurationExpirationTime.after(100)));
+            await().atMost(Duration.ofSeconds(10)).until(() -> retryPolicy.retries() == 1);
+            // lets the conflicting execution finish before the node goes away
+            Thread.sleep(200);
+        }
+        assertThat(fired).isEmpty();
+        try (JDBCJobsService jobsService = new JDBCJobsService(dataSource, Executors.newScheduledThreadPool(1), retryPolicy, 200, 5, 500)) {
+            jobsService.registerJobExecutorFactory(new ConflictingJobExecutorFactory(conflicts, fired));
+            await().atMost(Duration.ofSeconds(10)).until(() -> fired.contains("conflict"));
+            assertThat(jobsService.cancelJob("conflict")).isFalse();
+        }
+        assertThat(fired).containsExactly("conflict");
+    }
+
+    @Test
+    public void testRepeatableJobNotFiredWhileRetryPending() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        AtomicInteger conflicts = new AtomicInteger(1);
+        JobRetryPolicy retryPolicy = new JobRetryPolicy(3, 1000, 1000);
+        try (JDBCJobsService jobsService = new JDBCJobsService(dataSource, Executors.newScheduledThreadPool(1), retryPolicy, 100, 5, 60000)) {
+            jobsService.registerJobExecutorFactory(new ConflictingJobExecutorFactory(conflicts, fired));
+            jobsService.scheduleJob(job("repeatConflict", DurationExpirationTime.repeat(100, 100L, 2)));
+            await().atMost(Duration.ofSeconds(10)).until(() -> retryPolicy.retries() == 1);
+            // the retry is due at least half its delay later, while the next occurrence would be due after the interval
+            Thread.sleep(350);
+            assertThat(fired).isEmpty();
+            await().atMost(Duration.ofSeconds(10)).until(() -> fired.size() == 2);
+            Thread.sleep(500);
+        }
+        assertThat(fired).containsExactly("repeatConflict", "repeatConflict");
+    }
+
+    private static JDBCJobsService newJobsService(List<String> fired) {
+        JDBCJobsService jobsService = new JDBCJobsService(dataSource, 200, 5, 60000);
+        jobsService.registerJobExecutorFactory(new RecordingJobExecutorFactory(fired));
+        return jobsService;
+    }
+
+    private static JobDescription job(String id, ExpirationTime expirationTime) {
+        return ProcessInstanceJobDescription.newProcessInstanceJobDescriptionBuilder()
+                .id(id)
+                .timerId("timer")
+                .expirationTime(expirationTime)
+                .processInstanceId("processInstanceId")
+                .processId("processId")
+                .build();
+    }
+
+    /**
+     * Runs jobs that conflict as many times as given before succeeding, retrying and cancelling themselves like the
+     * process timers do.
+     */
+    private static class ConflictingJobExecutorFactory implements JobExecutorFactory {
+
+        private final AtomicInteger conflicts;
+        private final List<String> fired;
+
+        ConflictingJobExecutorFactory(AtomicInteger conflicts, List<String> fired) {
+            this.conflicts = conflicts;
+            this.fired = fired;
+        }
+
+        @Override
+        public Set<Class<? extends JobDescription>> types() {
+            return Set.of(ProcessInstanceJobDescription.class);
+        }
+
+        @Override
+        public Runnable createNewRunnable(JobsService jobService, JobDescription jobDescription) {
+            return runnable(jobService, jobDescription, true);
+        }
+
+        @Override
+        public Runnable createNewRepeteableRunnable(JobsService jobService, JobDescription jobDescription) {
+            return runnable(jobService, jobDescription, false);
+        }
+
+        private Runnable runnable(JobsService jobService, JobDescription jobDescription, boolean oneShot) {
+            return new Runnable() {
+                private int attempts;
+
+                @Override
+                public void run() {
+                    if (conflicts.getAndDecrement() > 0 && ((InMemoryJobService) jobService).retryJob(jobDescription.id(), this, ++attempts, oneShot)) {
+                        return;
+                    }
+                    fired.add(jobDescription.id());
+                    Integer limit = jobDescription.expirationTime().repeatLimit();
+                    if (oneShot || (limit != null && limit == 1)) {
+                        jobService.cancelJob(jobDescription.id());
+                    }
+                }
+            };
+        }
+    }
+
+    private static class RecordingJobExecutorFactory implements JobExecutorFactory {
+
+        private final List<String> fired;
+
+        RecordingJobExecutorFactory(List<String> fired) {
+            this.fired = fired;
+        }
+
+        @Override
+        public Set<Class<? extends JobDescription>> types() {
+            return Set.of(ProcessInstanceJobDescription.class);
+        }
+
+        @Override
+        public Runnable createNewRunnable(JobsService jobService, JobDescription jobDescription) {
+            return () -> fired.add(jobDescription.id());
+        }
+
+        @Override
+        public Runnable createNewRepeteableRunnable(JobsService jobService, JobDescription jobDescription) {
+            return () -> {
+                fired.add(jobDescription.id());
+                if (jobDescription.expirationTime().repeatLimit() == 1) {
+                    jobService.cancelJob(jobDescription.id());
+                }
+            };
+        }
+    }
+}
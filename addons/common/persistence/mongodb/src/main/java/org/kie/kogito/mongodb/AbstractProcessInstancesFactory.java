@@ -32,6 +32,7 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
     private final Boolean lock;
     private final AbstractTransactionManager transactionManager;
     private HeadersPersistentConfig headersConfig;
+    private final boolean binaryPayload;
 
     public AbstractProcessInstancesFactory(MongoClient mongoClient, String dbName, Boolean lock, AbstractTransactionManager transactionManager) {
         this(mongoClient, dbName, lock, transactionManager, null);
@@ -39,16 +40,22 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
 
     public AbstractProcessInstancesFactory(MongoClient mongoClient, String dbName, Boolean lock,
             AbstractTransactionManager transactionManager, HeadersPersistentConfig headersPersistentConfig) {
+        this(mongoClient, dbName, lock, transactionManager, headersPersistentConfig, false);
+    }
+
+    public AbstractProcessInstancesFactory(MongoClient mongoClient, String dbName, Boolean lock,
+            AbstractTransactionManager transactionManager, HeadersPersistentConfig headersPersistentConfig, boolean binaryPayload) {
         this.mongoClient = mongoClient;
         this.dbName = dbName;
         this.lock = lock;
         this.transactionManager = transactionManager;
         this.headersConfig = headersPersistentConfig;
+        this.binaryPayload = binaryPayload;
     }
 
     @Override
     public MongoDBProcessInstances<?> createProcessInstances(Process<?> process) {
-        return new MongoDBProcessInstances<>(mongoClient, process, dbName, transactionManager, lock, headersConfig);
+        return new MongoDBProcessInstances<>(mongoClient, process, dbName, transactionManager, lock, headersConfig, binaryPayload);
     }
 
 }
\ No newline at end of file
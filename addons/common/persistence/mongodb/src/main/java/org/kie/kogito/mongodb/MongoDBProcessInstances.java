@@ -19,14 +19,12 @@
 package org.kie.kogito.mongodb;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -34,6 +32,7 @@ import org.bson.Document;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
+import org.bson.types.Binary;
 import org.jbpm.flow.serialization.MarshallerContextName;
 import org.jbpm.flow.serialization.ProcessInstanceMarshallerService;
 import org.kie.kogito.Model;
@@ -46,7 +45,9 @@ import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
 import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
 
+import com.mongodb.ErrorCategory;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
@@ -55,22 +56,33 @@ import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.UpdateResult;
 
 import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_BUSINESS_KEY;
 import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_BUSINESS_KEY_INDEX;
+import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_EVENT_TYPES;
+import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_EVENT_TYPES_INDEX;
+import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_ID;
 import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_INSTANCE_ID;
 import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_INSTANCE_ID_INDEX;
+import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_INSTANCE_PAYLOAD;
+import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_INSTANCE_STATE;
+import static org.kie.kogito.mongodb.utils.DocumentConstants.PROCESS_VERSION;
 
 public class MongoDBProcessInstances<T extends Model> implements MutableProcessInstances<T> {
 
     private static final String VERSION = "version";
     private org.kie.kogito.process.Process<?> process;
-    private ProcessInstanceMarshallerService marshaller;
+    // writes use the configured format, reads pick the marshaller matching the format of each document
+    private final ProcessInstanceMarshallerService marshaller;
+    private final ProcessInstanceMarshallerService jsonMarshaller;
+    private final ProcessInstanceMarshallerService binaryMarshaller;
     private final MongoCollection<Document> collection;
-    private final MongoCollection<Document> events;
     private final AbstractTransactionManager transactionManager;
     private final boolean lock;
+    private final boolean binaryPayload;
 
     public MongoDBProcessInstances(MongoClient mongoClient, org.kie.kogito.process.Process<?> process, String dbName, AbstractTransactionManager transactionManager, boolean lock) {
         this(mongoClient, process, dbName, transactionManager, lock, null);
@@ -78,17 +90,34 @@ public class MongoDBProcessInstances<T extends Model> implements MutableProcessI
 
     public MongoDBProcessInstances(MongoClient mongoClient, org.kie.kogito.process.Process<?> process, String dbName, AbstractTransactionManager transactionManager, boolean lock,
             HeadersPersistentConfig headersConfig) {
+        this(mongoClient, process, dbName, transactionManager, lock, headersConfig, false);
+    }
+
+    /**
+     * @param binaryPayload when true instances are stored as their protobuf bytes in a binary field, next to the id,
+     *        business key, process and state fields used for queries, instead of being converted to a json document.
+     *        Documents written in either format are read back.
+     */
+    public MongoDBProcessInstances(MongoClient mongoClient, org.kie.kogito.process.Process<?> process, String dbName, AbstractTransactionManager transactionManager, boolean lock,
+            HeadersPersistentConfig headersConfig, boolean binaryPayload) {
         this.process = process;
         this.collection = Objects.requireNonNull(getCollection(mongoClient, process.id(), dbName));
-        this.events = Objects.requireNonNull(getCollection(mongoClient, process.id() + "-events", dbName));
-        this.marshaller = ProcessInstanceMarshallerService.newBuilder()
+        migrateEventTypes(mongoClient, process.id() + "-events", dbName);
+        this.jsonMarshaller = ProcessInstanceMarshallerService.newBuilder()
                 .withDefaultObjectMarshallerStrategies()
                 .withDefaultListeners()
                 .withContextEntry(MarshallerContextName.MARSHALLER_FORMAT, MarshallerContextName.MARSHALLER_FORMAT_JSON)
                 .withContextEntry(MarshallerContextName.MARSHALLER_HEADERS_CONFIG, headersConfig)
                 .build();
+        this.binaryMarshaller = ProcessInstanceMarshallerService.newBuilder()
+                .withDefaultObjectMarshallerStrategies()
+                .withDefaultListeners()
+                .withContextEntry(MarshallerContextName.MARSHALLER_HEADERS_CONFIG, headersConfig)
+                .build();
+        this.marshaller = binaryPayload ? binaryMarshaller : jsonMarshaller;
         this.transactionManager = Objects.requireNonNull(transactionManager);
         this.lock = lock;
+        this.binaryPayload = binaryPayload;
     }
 
     @Override
@@ -101,17 +130,18 @@ public class MongoDBProcessInstances<T extends Model> implements MutableProcessI
         return find(id, PROCESS_BUSINESS_KEY).map(piDoc -> unmarshall(piDoc, mode));
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        ClientSession clientSession = transactionManager.getClientSession();
+        Bson filters = Filters.eq(PROCESS_EVENT_TYPES, eventType);
+        return (clientSession == null ? collection.find(filters) : collection.find(clientSession, filters))
+                .projection(Projections.include(PROCESS_INSTANCE_ID)).limit(1).first() != null;
+    }
+
     @Override
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
         ClientSession clientSession = transactionManager.getClientSession();
-        Bson eventTypeFilter = new Document("eventTypes", eventType);
-        List<String> processInstancesId = new ArrayList<>();
-        if (clientSession != null) {
-            events.find(clientSession, eventTypeFilter).forEach(e -> processInstancesId.add(e.getString("id")));
-        } else {
-            events.find(eventTypeFilter).forEach(e -> processInstancesId.add(e.getString("id")));
-        }
-        Bson filters = Filters.in("id", processInstancesId);
+        Bson filters = Filters.eq(PROCESS_EVENT_TYPES, eventType);
         MongoCursor<Document> docs = (clientSession == null ? collection.find(filters) : collection.find(clientSession, filters)).iterator();
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(docs, Spliterator.ORDERED), false).map(doc -> unmarshall(doc, mode)).onClose(docs::close);
     }
@@ -124,14 +154,16 @@ public class MongoDBProcessInstances<T extends Model> implements MutableProcessI
     }
 
     private ProcessInstance<T> unmarshall(Document document, ProcessInstanceReadMode mode) {
-        ProcessInstance<T> instance = (ProcessInstance<T>) marshaller.unmarshallProcessInstance(document.toJson().getBytes(), process, mode);
+        byte[] payload = binaryPayload(document);
+        ProcessInstance<T> instance = (ProcessInstance<T>) (payload != null ? binaryMarshaller.unmarshallProcessInstance(payload, process, mode)
+                : jsonMarshaller.unmarshallProcessInstance(document.toJson().getBytes(), process, mode));
         setVersion(instance, document.getLong(VERSION));
         connectProcessInstance(instance, instance.id());
         return instance;
     }
 
-    private Set<String> getUniqueEvents(ProcessInstance<T> instance) {
-        return Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes()).collect(Collectors.toCollection(HashSet::new));
+    private List<String> getUniqueEvents(ProcessInstance<T> instance) {
+        return Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes()).distinct().toList();
     }
 
     @Override
@@ -148,52 +180,72 @@ public class MongoDBProcessInstances<T extends Model> implements MutableProcessI
 
     protected void updateStorage(String id, ProcessInstance<T> instance, boolean checkDuplicates) {
         ClientSession clientSession = transactionManager.getClientSession();
-        Document doc = Document.parse(new String(marshaller.marshallProcessInstance(instance)));
-        Set<String> eventTypes = getUniqueEvents(instance);
+        Document doc = toDocument(id, instance).append(PROCESS_EVENT_TYPES, getUniqueEvents(instance));
         if (checkDuplicates) {
-            createInternal(id, clientSession, doc, eventTypes);
+            createInternal(id, clientSession, doc);
         } else {
-            updateInternal(id, instance, clientSession, doc, eventTypes);
+            updateInternal(id, instance, clientSession, doc);
         }
         connectProcessInstance(instance, id);
     }
 
-    private void createInternal(String id, ClientSession clientSession, Document doc, Set<String> eventTypes) {
-        if (exists(id)) {
-            throw new ProcessInstanceDuplicatedException(id);
-        } else {
-            Document eventsDocument = new Document()
-                    .append("id", id)
-                    .append("eventTypes", eventTypes);
-            doc.put(VERSION, 0L);
+    private Document toDocument(String id, ProcessInstance<T> instance) {
+        byte[] payload = marshaller.marshallProcessInstance(instance);
+        if (!binaryPayload) {
+            return Document.parse(new String(payload));
+        }
+        Document doc = new Document(PROCESS_INSTANCE_ID, id)
+                .append(PROCESS_ID, process.id())
+                .append(PROCESS_INSTANCE_STATE, instance.status());
+        if (process.version() != null) {
+            doc.append(PROCESS_VERSION, process.version());
+        }
+        if (instance.businessKey() != null) {
+            doc.append(PROCESS_BUSINESS_KEY, instance.businessKey());
+        }
+        return doc.append(PROCESS_INSTANCE_PAYLOAD, new Binary(payload));
+    }
+
+    /**
+     * @return the protobuf bytes of the instance, <code>null</code> when the document holds the instance as json
+     */
+    private static byte[] binaryPayload(Document document) {
+        Object payload = document.get(PROCESS_INSTANCE_PAYLOAD);
+        if (payload instanceof Binary) {
+            return ((Binary) payload).getData();
+        }
+        return payload instanceof byte[] ? (byte[]) payload : null;
+    }
+
+    private void createInternal(String id, ClientSession clientSession, Document doc) {
+        doc.put(VERSION, 0L);
+        try {
             if (clientSession != null) {
                 collection.insertOne(clientSession, doc);
-                events.insertOne(clientSession, eventsDocument);
             } else {
                 collection.insertOne(doc);
-                events.insertOne(eventsDocument);
             }
+        } catch (MongoWriteException e) {
+            // the unique id index rejects duplicates, no need to read before inserting
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                throw new ProcessInstanceDuplicatedException(id);
+            }
+            throw e;
         }
     }
 
-    private void updateInternal(String id, ProcessInstance<T> instance, ClientSession clientSession, Document doc, Set<String> eventTypes) {
+    private void updateInternal(String id, ProcessInstance<T> instance, ClientSession clientSession, Document doc) {
         Bson filters = Filters.eq(PROCESS_INSTANCE_ID, id);
-        Bson eventsFilter = Filters.eq(PROCESS_INSTANCE_ID, id);
         UpdateResult result;
         if (lock) {
             doc.put(VERSION, instance.version() + 1);
             filters = Filters.and(Filters.eq(PROCESS_INSTANCE_ID, id), Filters.eq(VERSION, instance.version()));
         }
-        Document eventsDocument = new Document()
-                .append("id", id)
-                .append("eventTypes", eventTypes);
 
         if (clientSession != null) {
             result = collection.replaceOne(clientSession, filters, doc);
-            events.replaceOne(clientSession, eventsFilter, eventsDocument);
         } else {
             result = collection.replaceOne(filters, doc);
-            events.replaceOne(eventsFilter, eventsDocument);
         }
 
         if (lock && result.getModifiedCount() != 1) {
@@ -216,18 +268,23 @@ public class MongoDBProcessInstances<T extends Model> implements MutableProcessI
         ClientSession clientSession = transactionManager.getClientSession();
         if (clientSession != null) {
             collection.deleteOne(clientSession, Filters.eq(PROCESS_INSTANCE_ID, id));
-            events.deleteOne(clientSession, Filters.eq(PROCESS_INSTANCE_ID, id));
         } else {
             collection.deleteOne(Filters.eq(PROCESS_INSTANCE_ID, id));
-            events.deleteOne(Filters.eq(PROCESS_INSTANCE_ID, id));
         }
     }
 
     private void connectProcessInstance(ProcessInstance<T> instance, String id) {
-        ((AbstractProcessInstance<?>) instance).internalSetReloadSupplier(marshaller.createdReloadFunction(() -> find(id, PROCESS_INSTANCE_ID).map(reloaded -> {
+        Consumer<AbstractProcessInstance<?>> reloadFunction = pi -> {
+            Document reloaded = find(id, PROCESS_INSTANCE_ID).orElseThrow(() -> new IllegalArgumentException("process instance id " + id + " does not exists in mongodb"));
             setVersion(instance, reloaded.getLong(VERSION));
-            return reloaded.toJson().getBytes();
-        }).orElseThrow(() -> new IllegalArgumentException("process instance id " + id + " does not exists in mongodb"))));
+            byte[] payload = binaryPayload(reloaded);
+            if (payload != null) {
+                binaryMarshaller.createdReloadFunction(() -> payload).accept(pi);
+            } else {
+                jsonMarshaller.createdReloadFunction(() -> reloaded.toJson().getBytes()).accept(pi);
+            }
+        };
+        ((AbstractProcessInstance<?>) instance).internalSetReloadSupplier(reloadFunction);
     }
 
     private static void setVersion(ProcessInstance<?> instance, Long version) {
@@ -252,6 +309,25 @@ public class MongoDBProcessInstances<T extends Model> implements MutableProcessI
                 new IndexOptions().unique(true).name(PROCESS_INSTANCE_ID_INDEX).background(true));
         collection.createIndex(Indexes.ascending(PROCESS_BUSINESS_KEY),
                 new IndexOptions().name(PROCESS_BUSINESS_KEY_INDEX).background(true));
+        collection.createIndex(Indexes.ascending(PROCESS_EVENT_TYPES),
+                new IndexOptions().name(PROCESS_EVENT_TYPES_INDEX).background(true));
         return collection;
     }
+
+    /**
+     * Event types used to be kept in a separate <code>&lt;processId&gt;-events</code> collection. Copy them into the
+     * instance documents, where they are now queried, and drop that collection.
+     */
+    private void migrateEventTypes(MongoClient mongoClient, String eventsCollectionName, String dbName) {
+        MongoDatabase mongoDatabase = mongoClient.getDatabase(dbName);
+        if (!mongoDatabase.listCollectionNames().into(new ArrayList<>()).contains(eventsCollectionName)) {
+            return;
+        }
+        MongoCollection<Document> events = mongoDatabase.getCollection(eventsCollectionName);
+        for (Document eventsDocument : events.find()) {
+            collection.updateOne(Filters.and(Filters.eq(PROCESS_INSTANCE_ID, eventsDocument.getString(PROCESS_INSTANCE_ID)), Filters.exists(PROCESS_EVENT_TYPES, false)),
+                    Updates.set(PROCESS_EVENT_TYPES, eventsDocument.get(PROCESS_EVENT_TYPES)));
+        }
+        events.drop();
+    }
 }
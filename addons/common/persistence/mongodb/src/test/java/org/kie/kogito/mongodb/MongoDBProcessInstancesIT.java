@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.stream.StreamSupport;
 
 import org.bson.Document;
+import org.bson.types.Binary;
 import org.jbpm.process.instance.impl.Action;
 import org.jbpm.workflow.core.DroolsAction;
 import org.jbpm.workflow.core.WorkflowProcess;
@@ -40,6 +41,7 @@ import org.kie.kogito.auth.SecurityPolicy;
 import org.kie.kogito.mongodb.transaction.AbstractTransactionManager;
 import org.kie.kogito.mongodb.utils.DocumentConstants;
 import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceDuplicatedException;
 import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.ProcessInstances;
 import org.kie.kogito.process.WorkItem;
@@ -57,6 +59,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
 
 import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -117,13 +121,66 @@ class MongoDBProcessInstancesIT {
         transactionManager.onAfterEndEvent(new UnitOfWorkEndEvent(null));
     }
 
+    @Test
+    void testBinaryPayload() {
+        AbstractTransactionManager transactionManager = new AbstractTransactionManager(mongoClient, false) {
+        };
+
+        test(transactionManager, true);
+    }
+
+    @Test
+    void testJsonDocumentReadAsBinaryPayload() {
+        AbstractTransactionManager transactionManager = new AbstractTransactionManager(mongoClient, false) {
+        };
+        BpmnProcess jsonProcess = createProcess(transactionManager, "BPMN2-UserTask.bpmn2", false);
+        BpmnProcess binaryProcess = createProcess(transactionManager, "BPMN2-UserTask.bpmn2", true);
+        ProcessInstance<BpmnVariables> processInstance = jsonProcess.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        ProcessInstance<BpmnVariables> read = binaryProcess.instances().findById(processInstance.id()).orElseThrow();
+        assertThat(read.variables().get("test")).isEqualTo("test");
+
+        read.updateVariables(BpmnVariables.create(Collections.singletonMap("test", "updated")));
+        Document stored = ((MongoDBProcessInstances<?>) binaryProcess.instances()).getCollection().find(Filters.eq(DocumentConstants.PROCESS_INSTANCE_ID, processInstance.id())).first();
+        assertThat(stored.get(DocumentConstants.PROCESS_INSTANCE_PAYLOAD)).isInstanceOf(Binary.class);
+        assertThat(stored.getString(DocumentConstants.PROCESS_ID)).isEqualTo(binaryProcess.id());
+        assertThat(stored.getInteger(DocumentConstants.PROCESS_INSTANCE_STATE)).isEqualTo(STATE_ACTIVE);
+        assertThat(jsonProcess.instances().findById(processInstance.id()).orElseThrow().variables().get("test")).isEqualTo("updated");
+        abort(binaryProcess.instances());
+    }
+
+    @Test
+    void testBinaryPayloadReadAsJsonDocument() {
+        AbstractTransactionManager transactionManager = new AbstractTransactionManager(mongoClient, false) {
+        };
+        BpmnProcess binaryProcess = createProcess(transactionManager, "BPMN2-UserTask.bpmn2", true);
+        BpmnProcess jsonProcess = createProcess(transactionManager, "BPMN2-UserTask.bpmn2", false);
+        ProcessInstance<BpmnVariables> processInstance = binaryProcess.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        ProcessInstance<BpmnVariables> read = jsonProcess.instances().findById(processInstance.id()).orElseThrow();
+        assertThat(read.variables().get("test")).isEqualTo("test");
+        assertOne(jsonProcess.instances());
+
+        read.updateVariables(BpmnVariables.create(Collections.singletonMap("test", "updated")));
+        Document stored = ((MongoDBProcessInstances<?>) jsonProcess.instances()).getCollection().find(Filters.eq(DocumentConstants.PROCESS_INSTANCE_ID, processInstance.id())).first();
+        assertThat(stored.get(DocumentConstants.PROCESS_INSTANCE_PAYLOAD)).isNull();
+        assertThat(binaryProcess.instances().findById(processInstance.id()).orElseThrow().variables().get("test")).isEqualTo("updated");
+        abort(jsonProcess.instances());
+    }
+
     private BpmnProcess createProcess(AbstractTransactionManager transactionManager, String name) {
+        return createProcess(transactionManager, name, false);
+    }
+
+    private BpmnProcess createProcess(AbstractTransactionManager transactionManager, String name, boolean binaryPayload) {
         StaticProcessConfig processConfig = StaticProcessConfig.newStaticProcessConfigBuilder()
                 .withWorkItemHandler("Human Task", new DefaultKogitoWorkItemHandler())
                 .build();
 
         Application application =
-                StaticApplicationAssembler.instance().newStaticApplication(new MongoDBProcessInstancesFactory(mongoClient, transactionManager), processConfig, name);
+                StaticApplicationAssembler.instance().newStaticApplication(new MongoDBProcessInstancesFactory(mongoClient, transactionManager, binaryPayload), processConfig, name);
 
         org.kie.kogito.process.Processes container = application.get(org.kie.kogito.process.Processes.class);
         String processId = container.processIds().stream().findFirst().get();
@@ -136,7 +193,11 @@ class MongoDBProcessInstancesIT {
     }
 
     private void test(AbstractTransactionManager transactionManager) {
-        BpmnProcess process = createProcess(transactionManager, "BPMN2-UserTask.bpmn2");
+        test(transactionManager, false);
+    }
+
+    private void test(AbstractTransactionManager transactionManager, boolean binaryPayload) {
+        BpmnProcess process = createProcess(transactionManager, "BPMN2-UserTask.bpmn2", binaryPayload);
         testIndexCreation(process);
 
         Map<String, Object> parameters = new HashMap<>();
@@ -203,6 +264,51 @@ class MongoDBProcessInstancesIT {
                 .map(Document.class::cast)
                 .filter(index -> ((Document) index).get("name").equals(DocumentConstants.PROCESS_BUSINESS_KEY_INDEX))
                 .findFirst()).isPresent();
+        assertThat(StreamSupport.stream(mongoDBProcessInstances.getCollection().listIndexes().spliterator(), false)
+                .map(Document.class::cast)
+                .filter(index -> ((Document) index).get("name").equals(DocumentConstants.PROCESS_EVENT_TYPES_INDEX))
+                .findFirst()).isPresent();
+    }
+
+    @Test
+    void testEventTypesAndDuplicates() {
+        AbstractTransactionManager transactionManager = new AbstractTransactionManager(mongoClient, false) {
+        };
+        BpmnProcess process = createProcess(transactionManager, "BPMN2-UserTask.bpmn2");
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        MongoDBProcessInstances<BpmnVariables> instances = (MongoDBProcessInstances<BpmnVariables>) process.instances();
+        Document stored = instances.getCollection().find(Filters.eq(DocumentConstants.PROCESS_INSTANCE_ID, processInstance.id())).first();
+        List<String> eventTypes = stored.getList(DocumentConstants.PROCESS_EVENT_TYPES, String.class);
+        assertThat(eventTypes).isNotEmpty();
+        for (String eventType : eventTypes) {
+            assertThat(instances.waitingForEventType(eventType, ProcessInstanceReadMode.READ_ONLY)).extracting(ProcessInstance::id).containsExactly(processInstance.id());
+        }
+        assertThat(instances.waitingForEventType("unknown", ProcessInstanceReadMode.READ_ONLY)).isEmpty();
+        assertThatExceptionOfType(ProcessInstanceDuplicatedException.class).isThrownBy(() -> instances.create(processInstance.id(), processInstance));
+
+        abort(instances);
+    }
+
+    @Test
+    void testLegacyEventsCollectionMigrated() {
+        AbstractTransactionManager transactionManager = new AbstractTransactionManager(mongoClient, false) {
+        };
+        BpmnProcess process = createProcess(transactionManager, "BPMN2-UserTask.bpmn2");
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        MongoCollection<Document> collection = ((MongoDBProcessInstances<?>) process.instances()).getCollection();
+        collection.updateOne(Filters.eq(DocumentConstants.PROCESS_INSTANCE_ID, processInstance.id()), Updates.unset(DocumentConstants.PROCESS_EVENT_TYPES));
+        mongoClient.getDatabase(DB_NAME).getCollection(process.id() + "-events")
+                .insertOne(new Document(DocumentConstants.PROCESS_INSTANCE_ID, processInstance.id()).append(DocumentConstants.PROCESS_EVENT_TYPES, List.of("legacyEvent")));
+
+        BpmnProcess migrated = createProcess(transactionManager, "BPMN2-UserTask.bpmn2");
+        assertThat(migrated.instances().waitingForEventType("legacyEvent", ProcessInstanceReadMode.READ_ONLY)).extracting(ProcessInstance::id).containsExactly(processInstance.id());
+        assertThat(mongoClient.getDatabase(DB_NAME).listCollectionNames().into(new ArrayList<>())).doesNotContain(process.id() + "-events");
+
+        abort(migrated.instances());
     }
 
     @Test
@@ -306,8 +412,8 @@ class MongoDBProcessInstancesIT {
 
     private class MongoDBProcessInstancesFactory extends AbstractProcessInstancesFactory {
 
-        public MongoDBProcessInstancesFactory(MongoClient mongoClient, AbstractTransactionManager transactionManager) {
-            super(mongoClient, DB_NAME, false, transactionManager);
+        public MongoDBProcessInstancesFactory(MongoClient mongoClient, AbstractTransactionManager transactionManager, boolean binaryPayload) {
+            super(mongoClient, DB_NAME, false, transactionManager, null, binaryPayload);
         }
 
     }
@@ -30,6 +30,9 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
     private final PgPool client;
     private final Boolean lock;
     private HeadersPersistentConfig headersConfig;
+    private final boolean batchWrites;
+    private final int fetchSize;
+    private final boolean delta;
 
     // Constructor for DI
     protected AbstractProcessInstancesFactory() {
@@ -42,10 +45,28 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
 
     public AbstractProcessInstancesFactory(PgPool client, Long queryTimeout, Boolean lock,
             HeadersPersistentConfig headersConfig) {
+        this(client, queryTimeout, lock, headersConfig, false);
+    }
+
+    public AbstractProcessInstancesFactory(PgPool client, Long queryTimeout, Boolean lock,
+            HeadersPersistentConfig headersConfig, boolean batchWrites) {
+        this(client, queryTimeout, lock, headersConfig, batchWrites, 0);
+    }
+
+    public AbstractProcessInstancesFactory(PgPool client, Long queryTimeout, Boolean lock,
+            HeadersPersistentConfig headersConfig, boolean batchWrites, int fetchSize) {
+        this(client, queryTimeout, lock, headersConfig, batchWrites, fetchSize, false);
+    }
+
+    public AbstractProcessInstancesFactory(PgPool client, Long queryTimeout, Boolean lock,
+            HeadersPersistentConfig headersConfig, boolean batchWrites, int fetchSize, boolean delta) {
         this.client = client;
         this.queryTimeout = queryTimeout;
         this.lock = lock;
         this.headersConfig = headersConfig;
+        this.batchWrites = batchWrites;
+        this.fetchSize = fetchSize;
+        this.delta = delta;
     }
 
     public PgPool client() {
@@ -56,8 +77,20 @@ public abstract class AbstractProcessInstancesFactory implements ProcessInstance
         return lock;
     }
 
+    public boolean batchWrites() {
+        return batchWrites;
+    }
+
+    public int fetchSize() {
+        return fetchSize;
+    }
+
+    public boolean delta() {
+        return delta;
+    }
+
     @Override
     public PostgresqlProcessInstances createProcessInstances(Process<?> process) {
-        return new PostgresqlProcessInstances(process, client(), queryTimeout, lock(), headersConfig);
+        return new PostgresqlProcessInstances(process, client(), queryTimeout, lock(), headersConfig, batchWrites(), fetchSize(), delta());
     }
 }
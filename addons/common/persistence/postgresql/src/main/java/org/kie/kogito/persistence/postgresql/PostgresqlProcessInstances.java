@@ -24,15 +24,21 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.jbpm.flow.serialization.MarshallerContextName;
 import org.jbpm.flow.serialization.ProcessInstanceMarshallerService;
+import org.jbpm.workflow.instance.WorkflowProcessInstance;
 import org.kie.kogito.Model;
 import org.kie.kogito.internal.process.runtime.HeadersPersistentConfig;
 import org.kie.kogito.process.MutableProcessInstances;
@@ -40,8 +46,12 @@ import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
 import org.kie.kogito.process.ProcessInstanceReadMode;
+import org.kie.kogito.process.ReactiveMutableProcessInstances;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.Unpooled;
 import io.vertx.core.Future;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.pgclient.PgPool;
@@ -50,43 +60,115 @@ import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.Tuple;
 
-public class PostgresqlProcessInstances<T extends Model> implements MutableProcessInstances<T> {
+public class PostgresqlProcessInstances<T extends Model> implements MutableProcessInstances<T>, ReactiveMutableProcessInstances<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresqlProcessInstances.class);
 
     private static final String VERSION = "version";
     private static final String PAYLOAD = "payload";
+    private static final String PATCH = "patch";
 
     private static final String IS_NULL = "is null";
     private static final String INSERT = "INSERT INTO process_instances (id, payload, process_id, process_version, version) VALUES ($1, $2, $3, $4, $5)";
-    private static final String UPDATE = "UPDATE process_instances SET payload = $1 WHERE process_id = $2 and id = $3 and process_version ";
+    private static final String UPDATE = "UPDATE process_instances SET payload = $1, patch = NULL WHERE process_id = $2 and id = $3 and process_version ";
     private static final String DELETE = "DELETE FROM process_instances WHERE process_id = $1 and id = $2 and process_version ";
-    private static final String FIND_BY_ID = "SELECT payload, version FROM process_instances WHERE process_id = $1 and id = $2 and process_version ";
-    private static final String FIND_ALL = "SELECT payload, version FROM process_instances WHERE process_id = $1 and process_version ";
-    private static final String UPDATE_WITH_LOCK = "UPDATE process_instances SET payload = $1, version = $2 WHERE process_id = $3 and id = $4 and version = $5 and process_version ";
+    private static final String FIND_BY_ID = "SELECT payload, patch, version FROM process_instances WHERE process_id = $1 and id = $2 and process_version ";
+    private static final String FIND_ALL = "SELECT payload, patch, version FROM process_instances WHERE process_id = $1 and process_version ";
+    private static final String EXISTS = "SELECT 1 FROM process_instances WHERE process_id = $1 and id = $2 and process_version ";
+    private static final String UPDATE_WITH_LOCK = "UPDATE process_instances SET payload = $1, patch = NULL, version = $2 WHERE process_id = $3 and id = $4 and version = $5 and process_version ";
     private static final String MIGRATE_BULK = "UPDATE process_instances SET process_id = $1, process_version = $2 WHERE process_id = $3 and process_version ";
     private static final String MIGRATE_INSTANCE = "UPDATE process_instances SET process_id = $1, process_version = $2 WHERE process_id = $3 and id = ANY ($4) and process_version ";
     static final String FIND_ALL_WAITING_FOR_EVENT_TYPE =
-            "SELECT payload, version FROM event_types, process_instances WHERE process_instances.id = event_types.process_instance_id AND event_type = $1 AND process_id = $2 AND process_version ";
+            "SELECT payload, patch, version FROM event_types, process_instances WHERE process_instances.id = event_types.process_instance_id AND event_type = $1 AND process_id = $2 AND process_version ";
+    static final String ANY_WAITING_FOR_EVENT_TYPE =
+            "SELECT 1 FROM event_types, process_instances WHERE process_instances.id = event_types.process_instance_id AND event_type = $1 AND process_id = $2 AND process_version ";
     static final String DELETE_ALL_WAITING_FOR_EVENT_TYPE = "DELETE FROM event_types WHERE process_instance_id = $1";
     static final String INSERT_WAITING_FOR_EVENT_TYPE = "INSERT INTO event_types (process_instance_id, event_type) VALUES($1,$2)";
 
+    // single statement variants used when batch writes are enabled, event types are passed as one varchar[] parameter
+    static final String BATCH_INSERT = "WITH inserted AS (INSERT INTO process_instances (id, payload, process_id, process_version, version) VALUES ($1, $2, $3, $4, $5) RETURNING id), "
+            + "events AS (INSERT INTO event_types (process_instance_id, event_type) SELECT inserted.id, e.event_type FROM inserted, UNNEST($6::varchar[]) AS e(event_type)) "
+            + "SELECT id FROM inserted";
+    static final String BATCH_UPDATE = "WITH updated AS (UPDATE process_instances SET payload = $1, patch = NULL WHERE process_id = $2 and id = $3 and process_version ";
+    static final String BATCH_UPDATE_WITH_LOCK = "WITH updated AS (UPDATE process_instances SET payload = $1, patch = NULL, version = $2 WHERE process_id = $3 and id = $4 and version = $5 and process_version ";
+    static final String BATCH_UPDATE_EVENT_TYPES = " RETURNING id), "
+            + "deleted AS (DELETE FROM event_types WHERE process_instance_id IN (SELECT id FROM updated) AND NOT (event_type = ANY (%1$s::varchar[]))), "
+            + "inserted AS (INSERT INTO event_types (process_instance_id, event_type) SELECT updated.id, e.event_type FROM updated, UNNEST(%1$s::varchar[]) AS e(event_type) ON CONFLICT DO NOTHING) "
+            + "SELECT id FROM updated";
+    static final String BATCH_DELETE = "WITH deleted AS (DELETE FROM process_instances WHERE process_id = $1 and id = $2 and process_version ";
+    static final String BATCH_DELETE_EVENT_TYPES = " RETURNING id), events AS (DELETE FROM event_types WHERE process_instance_id IN (SELECT id FROM deleted)) SELECT id FROM deleted";
+
+    // writing the whole instance always clears the patch, delta mode writes only the patch instead
+    private static final String SET_PAYLOAD = "SET payload = $1, patch = NULL";
+    private static final String SET_PATCH = "SET patch = $1";
+
+    private static final String PERSISTED_EVENT_TYPES = "PersistedEventTypes";
+    private static final String PERSISTED_BASE = "PersistedBase";
+
     private final Process<?> process;
     private final PgPool client;
     private final ProcessInstanceMarshallerService marshaller;
     private final Long queryTimeoutMillis;
     private final boolean lock;
+    private final boolean batchWrites;
+    private final int fetchSize;
+    private final boolean delta;
 
     public PostgresqlProcessInstances(Process<?> process, PgPool client, Long queryTimeoutMillis, boolean lock, HeadersPersistentConfig headersConfig) {
+        this(process, client, queryTimeoutMillis, lock, headersConfig, false);
+    }
+
+    /**
+     * @param batchWrites when true every create, update and remove is sent as a single statement that also maintains
+     *        the event types of the instance, and event types are only written when they changed since the instance was loaded
+     */
+    public PostgresqlProcessInstances(Process<?> process, PgPool client, Long queryTimeoutMillis, boolean lock, HeadersPersistentConfig headersConfig,
+            boolean batchWrites) {
+        this(process, client, queryTimeoutMillis, lock, headersConfig, batchWrites, 0);
+    }
+
+    /**
+     * @param fetchSize when greater than zero {@link #stream(ProcessInstanceReadMode)} and
+     *        {@link #waitingForEventType(String, ProcessInstanceReadMode)} read the rows through a server side cursor,
+     *        fetching that many rows per round trip, instead of loading the whole result at once
+     */
+    public PostgresqlProcessInstances(Process<?> process, PgPool client, Long queryTimeoutMillis, boolean lock, HeadersPersistentConfig headersConfig,
+            boolean batchWrites, int fetchSize) {
+        this(process, client, queryTimeoutMillis, lock, headersConfig, batchWrites, fetchSize, false);
+    }
+
+    /**
+     * @param delta when true, and locking is enabled, an update only writes the variables and node instances changed
+     *        since the instance was last written in full, as a patch next to it. The instance is written in full again
+     *        once the patch grows to half its size. Requires the patch column of the process instances table.
+     */
+    public PostgresqlProcessInstances(Process<?> process, PgPool client, Long queryTimeoutMillis, boolean lock, HeadersPersistentConfig headersConfig,
+            boolean batchWrites, int fetchSize, boolean delta) {
+        if (delta && !lock) {
+            LOGGER.warn("Delta persistence requires locking, process instances of {} are written in full", process.id());
+        }
         this.process = process;
         this.client = client;
         this.queryTimeoutMillis = queryTimeoutMillis;
         this.marshaller = ProcessInstanceMarshallerService.newBuilder().withDefaultObjectMarshallerStrategies().withDefaultListeners()
                 .withContextEntry(MarshallerContextName.MARSHALLER_HEADERS_CONFIG, headersConfig).build();
         this.lock = lock;
+        this.batchWrites = batchWrites;
+        this.fetchSize = fetchSize;
+        this.delta = delta && lock;
     }
 
     @Override
     public boolean exists(String id) {
-        return findById(id).isPresent();
+        try {
+            Future<RowSet<Row>> future = client.preparedQuery(EXISTS + versionCondition(3)).execute(tuple(process.id(), id));
+            return getResultFromFuture(future).map(RowSet::iterator).map(Iterator::hasNext).orElse(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw uncheckedException(e, "Error finding process instance %s", id);
+        } catch (ExecutionException | TimeoutException e) {
+            throw uncheckedException(e, "Error finding process instance %s", id);
+        }
     }
 
     @Override
@@ -95,7 +177,14 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
             return;
         }
         String[] eventTypes = getUniqueEvents(instance);
-        insertInternal(id, marshaller.marshallProcessInstance(instance), eventTypes);
+        byte[] payload = marshaller.marshallProcessInstance(instance);
+        if (batchWrites) {
+            batchInsert(id, wrap(payload), eventTypes);
+            markPersistedEventTypes(instance, eventTypes);
+        } else {
+            insertInternal(id, wrap(payload), eventTypes);
+        }
+        markPersistedBase(instance, payload);
         connectProcessInstance(instance);
     }
 
@@ -106,12 +195,21 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
         }
 
         String[] eventTypes = getUniqueEvents(instance);
-        if (lock) {
-            updateWithLock(id, marshaller.marshallProcessInstance(instance), instance.version(), eventTypes);
+        Payload payload = marshallUpdate(instance);
+        if (batchWrites) {
+            Optional<String[]> changedEventTypes = eventTypesChanged(instance, eventTypes) ? Optional.of(eventTypes) : Optional.empty();
+            batchUpdate(id, payload, instance.version(), changedEventTypes);
+            if (lock) {
+                ((AbstractProcessInstance<T>) instance).setVersion(instance.version() + 1);
+            }
+            markPersistedEventTypes(instance, eventTypes);
+        } else if (lock) {
+            updateWithLock(id, payload, instance.version(), eventTypes);
             ((AbstractProcessInstance<T>) instance).setVersion(instance.version() + 1);
         } else {
-            updateInternal(id, marshaller.marshallProcessInstance(instance), eventTypes);
+            updateInternal(id, payload.data(), eventTypes);
         }
+        markPersistedBase(instance, payload.base());
 
         connectProcessInstance(instance);
 
@@ -121,9 +219,25 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
         return Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes()).collect(Collectors.toCollection(HashSet::new)).toArray(String[]::new);
     }
 
+    private boolean eventTypesChanged(ProcessInstance<T> instance, String[] eventTypes) {
+        Object persisted = ((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getMetaData().get(PERSISTED_EVENT_TYPES);
+        return !Set.of(eventTypes).equals(persisted);
+    }
+
+    private void markPersistedEventTypes(ProcessInstance<T> instance, String[] eventTypes) {
+        WorkflowProcessInstance processInstance = ((AbstractProcessInstance<T>) instance).internalGetProcessInstance();
+        if (processInstance != null) {
+            processInstance.getMetaData().put(PERSISTED_EVENT_TYPES, Set.of(eventTypes));
+        }
+    }
+
     @Override
     public void remove(String id) {
-        deleteInternal(id);
+        if (batchWrites) {
+            batchDelete(id);
+        } else {
+            deleteInternal(id);
+        }
     }
 
     @Override
@@ -136,9 +250,7 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
     @Override
     public Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode) {
         try {
-            return getResultFromFuture(client.preparedQuery(FIND_ALL + (process.version() == null ? IS_NULL : "= $2")).execute(tuple(process.id())))
-                    .map(r -> StreamSupport.stream(r.spliterator(), false)).orElse(Stream.empty())
-                    .map(row -> unmarshall(row, mode));
+            return rows(FIND_ALL + versionCondition(2), tuple(process.id())).map(row -> unmarshall(row, mode));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw uncheckedException(e, "Error finding all process instances, for processId %s", process.id());
@@ -151,9 +263,7 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
         try {
             Tuple parameters = tuple(eventType, process.id());
-            return getResultFromFuture(client.preparedQuery(FIND_ALL_WAITING_FOR_EVENT_TYPE + (process.version() == null ? IS_NULL : "= $3")).execute(parameters))
-                    .map(r -> StreamSupport.stream(r.spliterator(), false)).orElse(Stream.empty())
-                    .map(row -> unmarshall(row, mode));
+            return rows(FIND_ALL_WAITING_FOR_EVENT_TYPE + versionCondition(3), parameters).map(row -> unmarshall(row, mode));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw uncheckedException(e, "Error finding all process instances, for processId %s", process.id());
@@ -163,28 +273,270 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
 
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        try {
+            Future<RowSet<Row>> future = client.preparedQuery(ANY_WAITING_FOR_EVENT_TYPE + versionCondition(3) + " LIMIT 1").execute(tuple(eventType, process.id()));
+            return getResultFromFuture(future).map(RowSet::iterator).map(Iterator::hasNext).orElse(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw uncheckedException(e, "Error finding process instances, for processId %s waiting for %s", process.id(), eventType);
+        } catch (ExecutionException | TimeoutException e) {
+            throw uncheckedException(e, "Error finding process instances, for processId %s waiting for %s", process.id(), eventType);
+        }
+    }
+
+    private Stream<Row> rows(String query, Tuple parameters) throws InterruptedException, ExecutionException, TimeoutException {
+        if (fetchSize > 0) {
+            return RowCursorSpliterator.stream(client, query, parameters, fetchSize, queryTimeoutMillis);
+        }
+        return getResultFromFuture(client.preparedQuery(query).execute(parameters))
+                .map(r -> StreamSupport.stream(r.spliterator(), false)).orElse(Stream.empty());
+    }
+
+    /**
+     * The marshalled array is wrapped, not copied, into the buffer sent to the database.
+     */
+    private static Buffer wrap(byte[] payload) {
+        return Buffer.buffer(Unpooled.wrappedBuffer(payload));
+    }
+
+    /**
+     * What an update writes: the whole instance or, in delta mode, its changes since it was last written in full.
+     *
+     * @param base the instance written in full, <code>null</code> when only a patch is written
+     */
+    private record Payload(Buffer data, String assignment, byte[] base) {
+    }
+
+    private Payload marshallUpdate(ProcessInstance<T> instance) {
+        byte[] payload = marshaller.marshallProcessInstance(instance);
+        if (!delta) {
+            return new Payload(wrap(payload), SET_PAYLOAD, null);
+        }
+        Object base = ((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getMetaData().get(PERSISTED_BASE);
+        byte[] patch = base instanceof byte[] ? marshaller.createProcessInstancePatch((byte[]) base, payload) : null;
+        return patch != null ? new Payload(wrap(patch), SET_PATCH, null) : new Payload(wrap(payload), SET_PAYLOAD, payload);
+    }
+
+    // remembers the instance as last written in full, patches are computed against it
+    private void markPersistedBase(ProcessInstance<T> instance, byte[] base) {
+        WorkflowProcessInstance processInstance = ((AbstractProcessInstance<T>) instance).internalGetProcessInstance();
+        if (delta && base != null && processInstance != null) {
+            processInstance.getMetaData().put(PERSISTED_BASE, base);
+        }
+    }
+
+    private byte[] payload(Row r) {
+        Buffer patch = r.getBuffer(PATCH);
+        return patch == null ? r.getBuffer(PAYLOAD).getBytes() : marshaller.applyProcessInstancePatch(r.getBuffer(PAYLOAD).getBytes(), patch.getBytes());
+    }
+
     private ProcessInstance<T> unmarshall(Row r, ProcessInstanceReadMode mode) {
-        AbstractProcessInstance<T> instance = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(r.getBuffer(PAYLOAD).getBytes(), process, mode);
+        AbstractProcessInstance<T> instance;
+        // a patch left by delta mode is applied even when the mode has been switched off since
+        if (delta || r.getBuffer(PATCH) != null) {
+            instance = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(payload(r), process, mode);
+            markPersistedBase(instance, r.getBuffer(PAYLOAD).getBytes());
+        } else {
+            instance = (AbstractProcessInstance<T>) marshaller.unmarshallProcessInstance(r.getBuffer(PAYLOAD).getByteBuf().nioBuffer(), process, mode);
+        }
         instance.setVersion(r.getLong(VERSION));
         connectProcessInstance(instance);
         return instance;
     }
 
+    /**
+     * Unmarshalls the instance keeping the payload already fetched, so the first load of its state reuses it instead of
+     * querying the database again from the caller thread. Later loads go back to the database as usual.
+     */
+    private ProcessInstance<T> unmarshallPreloaded(Row r, ProcessInstanceReadMode mode) {
+        ProcessInstance<T> instance = unmarshall(r, mode);
+        byte[] payload = payload(r);
+        byte[] base = delta ? r.getBuffer(PAYLOAD).getBytes() : null;
+        ((AbstractProcessInstance<T>) instance).internalSetReloadSupplier(marshaller.createdReloadFunction(() -> payload).andThen(pi -> {
+            if (pi.internalGetProcessInstance() != null) {
+                markPersistedEventTypes(instance, getUniqueEvents(instance));
+                markPersistedBase(instance, base);
+            }
+            connectProcessInstance(instance);
+        }));
+        return instance;
+    }
+
     @Override
     public boolean lock() {
         return this.lock;
     }
 
+    @Override
+    public CompletionStage<Boolean> existsAsync(String id) {
+        return findByIdFuture(id).map(Optional::isPresent).toCompletionStage();
+    }
+
+    @Override
+    public CompletionStage<Void> createAsync(String id, ProcessInstance<T> instance) {
+        if (!isActive(instance) && instance.status() != ProcessInstance.STATE_PENDING) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String[] eventTypes = getUniqueEvents(instance);
+        byte[] payload = marshaller.marshallProcessInstance(instance);
+        return batchInsertFuture(id, wrap(payload), eventTypes).<Void> map(inserted -> {
+            markPersistedEventTypes(instance, eventTypes);
+            markPersistedBase(instance, payload);
+            connectProcessInstance(instance);
+            return null;
+        }).toCompletionStage();
+    }
+
+    @Override
+    public CompletionStage<Void> updateAsync(String id, ProcessInstance<T> instance) {
+        if (!isActive(instance) && instance.status() != ProcessInstance.STATE_PENDING) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String[] eventTypes = getUniqueEvents(instance);
+        Optional<String[]> changedEventTypes = eventTypesChanged(instance, eventTypes) ? Optional.of(eventTypes) : Optional.empty();
+        Payload payload = marshallUpdate(instance);
+        return batchUpdateFuture(id, payload, instance.version(), changedEventTypes).<Void> map(updated -> {
+            if (lock) {
+                ((AbstractProcessInstance<T>) instance).setVersion(instance.version() + 1);
+            }
+            markPersistedEventTypes(instance, eventTypes);
+            markPersistedBase(instance, payload.base());
+            connectProcessInstance(instance);
+            return null;
+        }).toCompletionStage();
+    }
+
+    @Override
+    public CompletionStage<Void> removeAsync(String id) {
+        return batchDeleteFuture(id).<Void> mapEmpty().toCompletionStage();
+    }
+
+    @Override
+    public CompletionStage<Optional<ProcessInstance<T>>> findByIdAsync(String id, ProcessInstanceReadMode mode) {
+        return findByIdFuture(id).map(row -> row.map(r -> unmarshallPreloaded(r, mode))).toCompletionStage();
+    }
+
+    @Override
+    public CompletionStage<Stream<ProcessInstance<T>>> streamAsync(ProcessInstanceReadMode mode) {
+        return client.preparedQuery(FIND_ALL + versionCondition(2)).execute(tuple(process.id()))
+                .map(rows -> StreamSupport.stream(rows.spliterator(), false).map(row -> unmarshall(row, mode)))
+                .toCompletionStage();
+    }
+
+    @Override
+    public CompletionStage<Stream<ProcessInstance<T>>> waitingForEventTypeAsync(String eventType, ProcessInstanceReadMode mode) {
+        return client.preparedQuery(FIND_ALL_WAITING_FOR_EVENT_TYPE + versionCondition(3)).execute(tuple(eventType, process.id()))
+                .map(rows -> StreamSupport.stream(rows.spliterator(), false).map(row -> unmarshall(row, mode)))
+                .toCompletionStage();
+    }
+
     private void connectProcessInstance(ProcessInstance<T> instance) {
-        ((AbstractProcessInstance<T>) instance).internalSetReloadSupplier(marshaller.createdReloadFunction(() -> findByIdInternal(instance.id()).map(r -> {
+        AtomicReference<byte[]> base = new AtomicReference<>();
+        Consumer<AbstractProcessInstance<?>> reloadFunction = marshaller.createdReloadFunction(() -> findByIdInternal(instance.id()).map(r -> {
             ((AbstractProcessInstance<T>) instance).setVersion(r.getLong(VERSION));
-            return r.getBuffer(PAYLOAD).getBytes();
-        }).orElseThrow()));
+            if (delta) {
+                base.set(r.getBuffer(PAYLOAD).getBytes());
+            }
+            return payload(r);
+        }).orElseThrow());
+        if (delta) {
+            reloadFunction = reloadFunction.andThen(pi -> markPersistedBase(instance, base.get()));
+        }
+        if (batchWrites) {
+            // remember which event types are stored so an update only rewrites them when they changed
+            reloadFunction = reloadFunction.andThen(pi -> {
+                if (pi.internalGetProcessInstance() != null) {
+                    markPersistedEventTypes(instance, getUniqueEvents(instance));
+                }
+            });
+        }
+        ((AbstractProcessInstance<T>) instance).internalSetReloadSupplier(reloadFunction);
     }
 
-    private boolean insertInternal(String id, byte[] payload, String[] eventTypes) {
+    private String versionCondition(int index) {
+        return process.version() == null ? IS_NULL : "= $" + index;
+    }
+
+    private boolean batchInsert(String id, Buffer payload, String[] eventTypes) {
         try {
-            Tuple tuple = Tuple.of(id, Buffer.buffer(payload), process.id(), process.version(), 0L);
+            return executeFuture(batchInsertFuture(id, payload, eventTypes));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw uncheckedException(e, "Error inserting process instance %s", id);
+        } catch (Exception e) {
+            throw uncheckedException(e, "Error inserting process instance %s", id);
+        }
+    }
+
+    private boolean batchUpdate(String id, Payload payload, long version, Optional<String[]> eventTypes) {
+        try {
+            return executeFuture(batchUpdateFuture(id, payload, version, eventTypes));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw uncheckedException(e, "Error updating process instance %s", id);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProcessInstanceOptimisticLockingException) {
+                throw (ProcessInstanceOptimisticLockingException) e.getCause();
+            }
+            throw uncheckedException(e, "Error updating process instance %s", id);
+        } catch (Exception e) {
+            throw uncheckedException(e, "Error updating process instance %s", id);
+        }
+    }
+
+    private boolean batchDelete(String id) {
+        try {
+            return executeFuture(batchDeleteFuture(id));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw uncheckedException(e, "Error deleting process instance %s", id);
+        } catch (Exception e) {
+            throw uncheckedException(e, "Error deleting process instance %s", id);
+        }
+    }
+
+    private Future<Boolean> batchInsertFuture(String id, Buffer payload, String[] eventTypes) {
+        Tuple tuple = Tuple.of(id, payload, process.id(), process.version(), 0L).addArrayOfString(eventTypes);
+        return client.preparedQuery(BATCH_INSERT).execute(tuple).map(PostgresqlProcessInstances::isSingleRow);
+    }
+
+    private Future<Boolean> batchUpdateFuture(String id, Payload payload, long version, Optional<String[]> eventTypes) {
+        List<Object> parameters = new ArrayList<>();
+        String query;
+        if (lock) {
+            parameters.addAll(List.of(payload.data(), version + 1, process.id(), id, version));
+            query = eventTypes.isPresent() ? BATCH_UPDATE_WITH_LOCK + versionCondition(7) + String.format(BATCH_UPDATE_EVENT_TYPES, "$6")
+                    : UPDATE_WITH_LOCK + versionCondition(6);
+            query = query.replace(SET_PAYLOAD, payload.assignment());
+        } else {
+            parameters.addAll(List.of(payload.data(), process.id(), id));
+            query = eventTypes.isPresent() ? BATCH_UPDATE + versionCondition(5) + String.format(BATCH_UPDATE_EVENT_TYPES, "$4")
+                    : UPDATE + versionCondition(4);
+        }
+        eventTypes.ifPresent(parameters::add);
+        return client.preparedQuery(query).execute(tuple(parameters.toArray())).map(rows -> {
+            boolean result = isSingleRow(rows);
+            if (lock && !result) {
+                throw new ProcessInstanceOptimisticLockingException(id);
+            }
+            return result;
+        });
+    }
+
+    private Future<Boolean> batchDeleteFuture(String id) {
+        return client.preparedQuery(BATCH_DELETE + versionCondition(3) + BATCH_DELETE_EVENT_TYPES).execute(tuple(process.id(), id))
+                .map(PostgresqlProcessInstances::isSingleRow);
+    }
+
+    private static boolean isSingleRow(RowSet<Row> rows) {
+        return rows != null && rows.rowCount() == 1;
+    }
+
+    private boolean insertInternal(String id, Buffer payload, String[] eventTypes) {
+        try {
+            Tuple tuple = Tuple.of(id, payload, process.id(), process.version(), 0L);
             Future<RowSet<Row>> future = client.preparedQuery(INSERT).execute(tuple);
             boolean inserted = getExecutedResult(future);
 
@@ -247,11 +599,11 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
         }
     }
 
-    private boolean updateInternal(String id, byte[] payload, String[] eventTypes) {
+    private boolean updateInternal(String id, Buffer payload, String[] eventTypes) {
         try {
             Future<RowSet<Row>> future =
                     client.preparedQuery(UPDATE + (process.version() == null ? IS_NULL : "= $4"))
-                            .execute(tuple(Buffer.buffer(payload), process.id(), id));
+                            .execute(tuple(payload, process.id(), id));
 
             boolean result = getExecutedResult(future);
             executeFuture(client.preparedQuery(DELETE_ALL_WAITING_FOR_EVENT_TYPE).execute(Tuple.of(id)));
@@ -322,6 +674,11 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
         }
     }
 
+    private Future<Optional<Row>> findByIdFuture(String id) {
+        return client.preparedQuery(FIND_BY_ID + versionCondition(3)).execute(tuple(process.id(), id))
+                .map(rows -> Optional.ofNullable(rows).map(RowSet::iterator).filter(Iterator::hasNext).map(Iterator::next));
+    }
+
     private Tuple tuple(Object... parameters) {
         Tuple tuple = Tuple.from(parameters);
         if (process.version() != null) {
@@ -330,10 +687,10 @@ public class PostgresqlProcessInstances<T extends Model> implements MutableProce
         return tuple;
     }
 
-    private boolean updateWithLock(String id, byte[] payload, long version, String[] eventTypes) {
+    private boolean updateWithLock(String id, Payload payload, long version, String[] eventTypes) {
         try {
-            Future<RowSet<Row>> future = client.preparedQuery(UPDATE_WITH_LOCK + (process.version() == null ? IS_NULL : "= $6"))
-                    .execute(tuple(Buffer.buffer(payload), version + 1, process.id(), id, version));
+            Future<RowSet<Row>> future = client.preparedQuery(UPDATE_WITH_LOCK.replace(SET_PAYLOAD, payload.assignment()) + (process.version() == null ? IS_NULL : "= $6"))
+                    .execute(tuple(payload.data(), version + 1, process.id(), id, version));
             if (!getExecutedResult(future)) {
                 throw new ProcessInstanceOptimisticLockingException(id);
             }
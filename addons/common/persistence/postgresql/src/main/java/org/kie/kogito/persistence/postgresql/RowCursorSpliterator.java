@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.persistence.postgresql;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.vertx.core.Future;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Cursor;
+import io.vertx.sqlclient.PreparedStatement;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Transaction;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Lazily reads the rows of a query through a server side cursor, fetching at most <code>fetchSize</code> rows per round trip.
+ * <p>
+ * The cursor keeps a connection and a transaction open until the rows are exhausted or the stream is closed.
+ */
+class RowCursorSpliterator extends Spliterators.AbstractSpliterator<Row> implements Runnable {
+
+    private final SqlConnection connection;
+    private final Transaction transaction;
+    private final Cursor cursor;
+    private final int fetchSize;
+    private final Long queryTimeoutMillis;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Iterator<Row> current = Collections.emptyIterator();
+    private boolean started;
+
+    private RowCursorSpliterator(SqlConnection connection, Transaction transaction, Cursor cursor, int fetchSize, Long queryTimeoutMillis) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.connection = connection;
+        this.transaction = transaction;
+        this.cursor = cursor;
+        this.fetchSize = fetchSize;
+        this.queryTimeoutMillis = queryTimeoutMillis;
+    }
+
+    static Stream<Row> stream(PgPool client, String query, Tuple parameters, int fetchSize, Long queryTimeoutMillis)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        SqlConnection connection = await(client.getConnection(), queryTimeoutMillis);
+        try {
+            Transaction transaction = await(connection.begin(), queryTimeoutMillis);
+            PreparedStatement statement = await(connection.prepare(query), queryTimeoutMillis);
+            RowCursorSpliterator spliterator = new RowCursorSpliterator(connection, transaction, statement.cursor(parameters), fetchSize, queryTimeoutMillis);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator);
+        } catch (InterruptedException | ExecutionException | TimeoutException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+        while (!current.hasNext()) {
+            if (closed.get() || (started && !cursor.hasMore())) {
+                run();
+                return false;
+            }
+            current = fetch();
+            started = true;
+        }
+        action.accept(current.next());
+        return true;
+    }
+
+    private Iterator<Row> fetch() {
+        try {
+            return await(cursor.read(fetchSize), queryTimeoutMillis).iterator();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run();
+            throw new RuntimeException("Interrupted while reading from cursor", e);
+        } catch (ExecutionException | TimeoutException e) {
+            run();
+            throw new RuntimeException("Error reading from cursor", e);
+        }
+    }
+
+    /**
+     * Releases the cursor, the transaction and the connection. Safe to call more than once.
+     */
+    @Override
+    public void run() {
+        if (closed.compareAndSet(false, true)) {
+            cursor.close().onComplete(c -> transaction.commit().onComplete(t -> connection.close()));
+        }
+    }
+
+    private static <R> R await(Future<R> future, Long queryTimeoutMillis) throws InterruptedException, ExecutionException, TimeoutException {
+        return future.toCompletionStage().toCompletableFuture().get(queryTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.persistence.postgresql;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.flyway.initializer.KieFlywayInitializer;
+import org.kie.kogito.Application;
+import org.kie.kogito.internal.process.runtime.HeadersPersistentConfig;
+import org.kie.kogito.persistence.postgresql.AbstractProcessInstancesFactory;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.Processes;
+import org.kie.kogito.process.bpmn2.BpmnProcess;
+import org.kie.kogito.process.bpmn2.BpmnVariables;
+import org.kie.kogito.process.bpmn2.StaticApplicationAssembler;
+import org.kie.kogito.process.impl.StaticProcessConfig;
+import org.kie.kogito.process.workitems.impl.DefaultKogitoWorkItemHandler;
+import org.kie.kogito.testcontainers.KogitoPostgreSqlContainer;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.test.utils.ProcessInstancesTestUtils.abort;
+
+/**
+ * Compares the bytes written per process instance update between full and delta persistence, for an instance holding
+ * a large variable that does not change while a small one does.
+ */
+@Testcontainers
+class PostgresqlProcessInstancesDeltaBenchmarkIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresqlProcessInstancesDeltaBenchmarkIT.class);
+
+    private static final int ITERATIONS = 100;
+    private static final int DOCUMENT_SIZE = 64 * 1024;
+
+    private static final String WRITTEN_BYTES = "SELECT octet_length(payload) AS payload, octet_length(patch) AS patch FROM process_instances WHERE id = $1";
+
+    @Container
+    final static KogitoPostgreSqlContainer container = new KogitoPostgreSqlContainer();
+
+    private static PgPool client;
+
+    @BeforeAll
+    public static void startContainerAndPublicPortIsAvailable() {
+        container.start();
+
+        client = PgPool.pool(container.getReactiveUrl());
+
+        PGSimpleDataSource ds = new PGSimpleDataSource();
+        ds.setUrl(container.getJdbcUrl());
+        ds.setUser(container.getUsername());
+        ds.setPassword(container.getPassword());
+
+        KieFlywayInitializer.builder()
+                .withDatasource(ds)
+                .build()
+                .migrate();
+    }
+
+    @AfterAll
+    public static void close() {
+        container.stop();
+    }
+
+    @Test
+    void testBytesWrittenPerUpdate() {
+        double fullBytes = measure(false);
+        double deltaBytes = measure(true);
+
+        assertThat(deltaBytes * 10).isLessThan(fullBytes);
+    }
+
+    private double measure(boolean delta) {
+        BpmnProcess process = createProcess(delta);
+        String document = "x".repeat(DOCUMENT_SIZE);
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Map.of("test", "test", "document", document)));
+        processInstance.start();
+
+        long written = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            processInstance.updateVariablesPartially(BpmnVariables.create(Collections.singletonMap("test", "value-" + i)));
+            written += writtenBytes(processInstance.id());
+        }
+
+        double bytesPerUpdate = (double) written / ITERATIONS;
+        LOGGER.info("delta={}: {} bytes written per update", delta, bytesPerUpdate);
+
+        ProcessInstance<BpmnVariables> stored = process.instances().findById(processInstance.id()).orElseThrow();
+        assertThat(stored.variables().toMap()).containsEntry("test", "value-" + (ITERATIONS - 1)).containsEntry("document", document);
+
+        processInstance.abort();
+        return bytesPerUpdate;
+    }
+
+    // an update writes either a patch or, when there is none, the whole payload
+    private static long writtenBytes(String id) {
+        Row row = client.preparedQuery(WRITTEN_BYTES).execute(Tuple.of(id)).toCompletionStage().toCompletableFuture().join().iterator().next();
+        Integer patch = row.getInteger("patch");
+        return patch != null ? patch : row.getInteger("payload");
+    }
+
+    private BpmnProcess createProcess(boolean delta) {
+        StaticProcessConfig processConfig = StaticProcessConfig.newStaticProcessConfigBuilder()
+                .withWorkItemHandler("Human Task", new DefaultKogitoWorkItemHandler())
+                .build();
+
+        Application application = StaticApplicationAssembler.instance()
+                .newStaticApplication(new BenchmarkProcessInstancesFactory(client, delta), processConfig, "BPMN2-UserTask.bpmn2");
+
+        Processes processes = application.get(Processes.class);
+        String processId = processes.processIds().stream().findFirst().get();
+        Process<?> process = processes.processById(processId);
+
+        abort(process.instances());
+        return (BpmnProcess) process;
+    }
+
+    private static class BenchmarkProcessInstancesFactory extends AbstractProcessInstancesFactory {
+
+        public BenchmarkProcessInstancesFactory(PgPool client, boolean delta) {
+            super(client, 10000L, true, new HeadersPersistentConfig(false, null), false, 0, delta);
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.kie.persistence.postgresql;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -36,6 +37,7 @@ import org.kie.kogito.persistence.postgresql.PostgresqlProcessInstances;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstanceReadMode;
+import org.kie.kogito.process.ReactiveMutableProcessInstances;
 import org.kie.kogito.process.SignalFactory;
 import org.kie.kogito.process.WorkItem;
 import org.kie.kogito.process.bpmn2.BpmnProcess;
@@ -104,13 +106,21 @@ class PostgresqlProcessInstancesIT {
         return false;
     }
 
+    boolean batchWrites() {
+        return false;
+    }
+
+    int fetchSize() {
+        return 0;
+    }
+
     private BpmnProcess createProcess(String fileName) {
         StaticProcessConfig processConfig = StaticProcessConfig.newStaticProcessConfigBuilder()
                 .withWorkItemHandler("Human Task", new DefaultKogitoWorkItemHandler())
                 .build();
 
         Application application =
-                StaticApplicationAssembler.instance().newStaticApplication(new PostgreProcessInstancesFactory(client, lock(), new HeadersPersistentConfig(true, null)), processConfig, fileName);
+                StaticApplicationAssembler.instance().newStaticApplication(new PostgreProcessInstancesFactory(client, lock(), new HeadersPersistentConfig(true, null), batchWrites(), fetchSize()), processConfig, fileName);
 
         org.kie.kogito.process.Processes container = application.get(org.kie.kogito.process.Processes.class);
         String processId = container.processIds().stream().findFirst().get();
@@ -166,6 +176,55 @@ class PostgresqlProcessInstancesIT {
         assertEmpty(process.instances());
     }
 
+    @Test
+    void testReactiveOperations() throws Exception {
+        BpmnProcess process = createProcess("BPMN2-UserTask.bpmn2");
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        ReactiveMutableProcessInstances<BpmnVariables> processInstances = (ReactiveMutableProcessInstances<BpmnVariables>) process.instances();
+        assertThat(processInstances.existsAsync(processInstance.id()).toCompletableFuture().get()).isTrue();
+        assertThat(processInstances.streamAsync().toCompletableFuture().get()).hasSize(1);
+
+        ProcessInstance<BpmnVariables> found = processInstances.findByIdAsync(processInstance.id()).toCompletableFuture().get().orElseThrow();
+        assertThat(found.status()).isEqualTo(STATE_ACTIVE);
+        assertThat(found.version()).isEqualTo(lock() ? 1L : 0);
+
+        ((AbstractProcessInstance<BpmnVariables>) found).internalLoadProcessInstanceState();
+        processInstances.updateAsync(found.id(), found).toCompletableFuture().get();
+        assertThat(found.version()).isEqualTo(lock() ? 2L : 0);
+        assertThat(processInstances.findByIdAsync(processInstance.id(), ProcessInstanceReadMode.READ_ONLY).toCompletableFuture().get())
+                .hasValueSatisfying(pi -> assertThat(pi.version()).isEqualTo(lock() ? 2L : 0));
+
+        processInstances.removeAsync(processInstance.id()).toCompletableFuture().get();
+        assertThat(processInstances.existsAsync(processInstance.id()).toCompletableFuture().get()).isFalse();
+        assertEmpty(process.instances());
+    }
+
+    @Test
+    void testReactiveLoadAndSave() throws Exception {
+        BpmnProcess process = createProcess("BPMN2-UserTask.bpmn2");
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        AbstractProcessInstance<BpmnVariables> found = (AbstractProcessInstance<BpmnVariables>) process.findByIdAsync(processInstance.id(), ProcessInstanceReadMode.MUTABLE)
+                .toCompletableFuture().get().orElseThrow();
+        found.executeInWorkflowProcessInstanceWriteAsync(pi -> {
+            pi.setVariable("test", "updated");
+            return null;
+        }).toCompletableFuture().get();
+        assertThat(found.version()).isEqualTo(lock() ? 2L : 0);
+
+        assertThat(process.instances().findById(processInstance.id(), ProcessInstanceReadMode.READ_ONLY))
+                .hasValueSatisfying(pi -> assertThat(pi.variables().toMap()).containsEntry("test", "updated"));
+
+        found.executeInWorkflowProcessInstanceWriteAsync(pi -> {
+            pi.setState(ProcessInstance.STATE_ABORTED);
+            return null;
+        }).toCompletableFuture().get();
+        assertEmpty(process.instances());
+    }
+
     @Test
     void testMultipleProcesses() {
         BpmnProcess utProcess = createProcess("BPMN2-UserTask.bpmn2");
@@ -321,10 +380,28 @@ class PostgresqlProcessInstancesIT {
         assertThat(process.instances().stream().count()).isEqualTo(0);
     }
 
+    @Test
+    void testStreamInBatches() {
+        BpmnProcess process = createProcess("BPMN2-UserTask.bpmn2");
+        for (int i = 0; i < 5; i++) {
+            process.createInstance(BpmnVariables.create(singletonMap("test", "test" + i))).start();
+        }
+
+        assertThat(process.instances().stream().count()).isEqualTo(5);
+        // more partial reads than connections in the pool, so a leaked cursor would block the test
+        for (int i = 0; i < 10; i++) {
+            try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().stream()) {
+                assertThat(stream.findFirst()).isPresent();
+            }
+        }
+        abort(process.instances());
+        assertEmpty(process.instances());
+    }
+
     private class PostgreProcessInstancesFactory extends AbstractProcessInstancesFactory {
 
-        public PostgreProcessInstancesFactory(PgPool client, boolean lock, HeadersPersistentConfig headersConfig) {
-            super(client, 10000l, lock, headersConfig);
+        public PostgreProcessInstancesFactory(PgPool client, boolean lock, HeadersPersistentConfig headersConfig, boolean batchWrites, int fetchSize) {
+            super(client, 10000l, lock, headersConfig, batchWrites, fetchSize);
         }
 
         @Override
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.persistence.postgresql;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.flyway.initializer.KieFlywayInitializer;
+import org.kie.kogito.Application;
+import org.kie.kogito.internal.process.runtime.HeadersPersistentConfig;
+import org.kie.kogito.persistence.postgresql.AbstractProcessInstancesFactory;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.Processes;
+import org.kie.kogito.process.bpmn2.BpmnProcess;
+import org.kie.kogito.process.bpmn2.BpmnVariables;
+import org.kie.kogito.process.bpmn2.StaticApplicationAssembler;
+import org.kie.kogito.process.impl.StaticProcessConfig;
+import org.kie.kogito.process.workitems.impl.DefaultKogitoWorkItemHandler;
+import org.kie.kogito.testcontainers.KogitoPostgreSqlContainer;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import io.vertx.pgclient.PgPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.test.utils.ProcessInstancesTestUtils.abort;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Compares round trips and latency per process instance update between the default write path and batch writes.
+ */
+@Testcontainers
+class PostgresqlProcessInstancesWriteBenchmarkIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresqlProcessInstancesWriteBenchmarkIT.class);
+
+    private static final int WARM_UP = 20;
+    private static final int ITERATIONS = 200;
+
+    @Container
+    final static KogitoPostgreSqlContainer container = new KogitoPostgreSqlContainer();
+
+    private static PgPool client;
+
+    @BeforeAll
+    public static void startContainerAndPublicPortIsAvailable() {
+        container.start();
+
+        client = spy(PgPool.pool(container.getReactiveUrl()));
+
+        PGSimpleDataSource ds = new PGSimpleDataSource();
+        ds.setUrl(container.getJdbcUrl());
+        ds.setUser(container.getUsername());
+        ds.setPassword(container.getPassword());
+
+        KieFlywayInitializer.builder()
+                .withDatasource(ds)
+                .build()
+                .migrate();
+    }
+
+    @AfterAll
+    public static void close() {
+        container.stop();
+    }
+
+    @Test
+    void testRoundTripsPerUpdate() {
+        double defaultRoundTrips = measure(false, false);
+        double batchRoundTrips = measure(true, false);
+        double defaultLockRoundTrips = measure(false, true);
+        double batchLockRoundTrips = measure(true, true);
+
+        // every step reloads the instance (one query) and stores it again
+        assertThat(batchRoundTrips).isEqualTo(2.0);
+        assertThat(batchLockRoundTrips).isEqualTo(2.0);
+        assertThat(defaultRoundTrips).isGreaterThan(batchRoundTrips);
+        assertThat(defaultLockRoundTrips).isGreaterThan(batchLockRoundTrips);
+    }
+
+    private double measure(boolean batchWrites, boolean lock) {
+        BpmnProcess process = createProcess(batchWrites, lock);
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        processInstance.start();
+
+        for (int i = 0; i < WARM_UP; i++) {
+            processInstance.updateVariables(BpmnVariables.create(Collections.singletonMap("test", "warm-up-" + i)));
+        }
+
+        clearInvocations(client);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            processInstance.updateVariables(BpmnVariables.create(Collections.singletonMap("test", "value-" + i)));
+        }
+        long elapsed = System.nanoTime() - start;
+        long roundTrips = mockingDetails(client).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("preparedQuery"))
+                .count();
+
+        double roundTripsPerUpdate = (double) roundTrips / ITERATIONS;
+        LOGGER.info("batchWrites={}, lock={}: {} round trips per update, {} us per update", batchWrites, lock, roundTripsPerUpdate,
+                elapsed / 1000 / ITERATIONS);
+
+        processInstance.abort();
+        return roundTripsPerUpdate;
+    }
+
+    private BpmnProcess createProcess(boolean batchWrites, boolean lock) {
+        StaticProcessConfig processConfig = StaticProcessConfig.newStaticProcessConfigBuilder()
+                .withWorkItemHandler("Human Task", new DefaultKogitoWorkItemHandler())
+                .build();
+
+        Application application = StaticApplicationAssembler.instance()
+                .newStaticApplication(new BenchmarkProcessInstancesFactory(client, lock, batchWrites), processConfig, "BPMN2-UserTask.bpmn2");
+
+        Processes processes = application.get(Processes.class);
+        String processId = processes.processIds().stream().findFirst().get();
+        Process<?> process = processes.processById(processId);
+
+        abort(process.instances());
+        return (BpmnProcess) process;
+    }
+
+    private static class BenchmarkProcessInstancesFactory extends AbstractProcessInstancesFactory {
+
+        public BenchmarkProcessInstancesFactory(PgPool client, boolean lock, boolean batchWrites) {
+            super(client, 10000L, lock, new HeadersPersistentConfig(false, null), batchWrites);
+        }
+    }
+}
@@ -19,10 +19,15 @@
 package org.kie.kogito.persistence.rocksdb;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterators.AbstractSpliterator;
@@ -40,61 +45,89 @@ import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 
-import static java.util.stream.Collectors.toCollection;
-
+/**
+ * Process instances are stored under their id, in the column family given at construction. The event types they are waiting for are indexed with one key per
+ * (event type, instance) pair, so looking up the instances waiting for an event type is a prefix seek.
+ * Every index key starts with a zero byte, which sorts them before any instance key.
+ * <ul>
+ * <li><code>\0{processId}-{processVersion}\0e{eventType}\0{instanceId}</code> marks an instance waiting for an event type</li>
+ * <li><code>\0{processId}-{processVersion}\0r{instanceId}</code> lists the event types the instance is indexed under, so they can be removed on the next write</li>
+ * </ul>
+ */
 public class RocksDBProcessInstances<T extends Model> implements MutableProcessInstances<T> {
-    private final String EVENT_SEPARATOR = "::";
+    private static final String EVENT_SEPARATOR = "::";
+    private static final char KEY_SEPARATOR = '\0';
+    private static final byte[] FIRST_INSTANCE_KEY = { 1 };
+    private static final byte[] EMPTY = new byte[0];
+    private static final int LOCK_STRIPES = 64;
+    private static final int INITIAL_VALUE_BUFFER_SIZE = 16 * 1024;
+
     private final Process<T> process;
     private final ProcessInstanceMarshallerService marshaller;
     private final RocksDB db;
-    private String eventKey;
+    private final ColumnFamilyHandle columnFamily;
+    private final String indexPrefix;
+    private final Object[] locks = new Object[LOCK_STRIPES];
 
     public RocksDBProcessInstances(Process<T> process, RocksDB db) {
         this(process, db, null);
     }
 
     public RocksDBProcessInstances(Process<T> process, RocksDB db, HeadersPersistentConfig headersConfig) {
+        this(process, db, db.getDefaultColumnFamily(), headersConfig);
+    }
+
+    /**
+     * @param columnFamily column family holding the instances of this process, so iterating them does not visit other processes data
+     */
+    public RocksDBProcessInstances(Process<T> process, RocksDB db, ColumnFamilyHandle columnFamily, HeadersPersistentConfig headersConfig) {
         this.process = process;
         marshaller = ProcessInstanceMarshallerService.newBuilder().withDefaultObjectMarshallerStrategies().withDefaultListeners()
                 .withContextEntry(MarshallerContextName.MARSHALLER_HEADERS_CONFIG, headersConfig).build();
         this.db = db;
-        this.eventKey = process.id() + "-" + process.version() + ".events";
+        this.columnFamily = columnFamily;
+        this.indexPrefix = KEY_SEPARATOR + process.id() + "-" + process.version() + KEY_SEPARATOR;
+        Arrays.setAll(locks, i -> new Object());
+        migrateLegacyIndex(process.id() + "-" + process.version() + ".events");
     }
 
     private class RockSplitIterator extends AbstractSpliterator<ProcessInstance<T>> implements Closeable {
 
         private RocksIterator iterator;
         private ProcessInstanceReadMode mode;
+        // values are copied from native memory into this buffer and unmarshalled from there, without a heap copy per instance
+        private ByteBuffer valueBuffer = ByteBuffer.allocateDirect(INITIAL_VALUE_BUFFER_SIZE);
 
         protected RockSplitIterator(RocksIterator iterator, ProcessInstanceReadMode mode) {
             super(Integer.MAX_VALUE, 0);
             this.iterator = iterator;
             this.mode = mode;
-            iterator.seekToFirst();
+            // index keys sort first, skip them
+            iterator.seek(FIRST_INSTANCE_KEY);
         }
 
         @Override
         public boolean tryAdvance(Consumer<? super ProcessInstance<T>> action) {
-            boolean hasNext = iterator.isValid();
-            if (!hasNext) {
+            if (!iterator.isValid()) {
                 iterator.close();
                 return false;
             }
-
-            while (iterator.isValid()) {
-                if (eventKey.equals(new String(iterator.key()))) {
-                    iterator.next();
-                    continue;
-                }
-                action.accept(unmarshall(iterator.value(), mode));
-                iterator.next();
-                return true;
+            int size = iterator.value(valueBuffer.clear());
+            if (size > valueBuffer.capacity()) {
+                valueBuffer = ByteBuffer.allocateDirect(size);
+                iterator.value(valueBuffer);
             }
-            return false;
+            valueBuffer.position(0).limit(size);
+            action.accept(unmarshall(valueBuffer, mode));
+            iterator.next();
+            return true;
         }
 
         @Override
@@ -106,7 +139,7 @@ public class RocksDBProcessInstances<T extends Model> implements MutableProcessI
     @Override
     public Optional<ProcessInstance<T>> findById(String id, ProcessInstanceReadMode mode) {
         try {
-            byte[] data = db.get(id.getBytes());
+            byte[] data = db.get(columnFamily, id.getBytes());
             return data == null ? Optional.empty() : Optional.of(unmarshall(data, mode));
         } catch (RocksDBException ex) {
             throw new IllegalStateException(ex);
@@ -115,27 +148,38 @@ public class RocksDBProcessInstances<T extends Model> implements MutableProcessI
 
     @Override
     public Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode) {
-        RocksDBProcessInstances<T>.RockSplitIterator iterator = new RockSplitIterator(db.newIterator(), mode);
+        RocksDBProcessInstances<T>.RockSplitIterator iterator = new RockSplitIterator(db.newIterator(columnFamily), mode);
         return StreamSupport.stream(iterator, false).onClose(iterator::close);
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        byte[] prefix = eventKeyPrefix(eventType);
+        try (RocksIterator iterator = db.newIterator(columnFamily)) {
+            iterator.seek(prefix);
+            return iterator.isValid() && startsWith(iterator.key(), prefix);
+        }
+    }
+
     @Override
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
-        try {
-            byte[] eventData = db.get(this.eventKey.getBytes());
-            if (eventData == null) {
-                return Collections.<ProcessInstance<T>> emptyList().stream();
+        byte[] prefix = eventKeyPrefix(eventType);
+        List<byte[]> ids = new ArrayList<>();
+        try (RocksIterator iterator = db.newIterator(columnFamily)) {
+            for (iterator.seek(prefix); iterator.isValid() && startsWith(iterator.key(), prefix); iterator.next()) {
+                ids.add(Arrays.copyOfRange(iterator.key(), prefix.length, iterator.key().length));
             }
-            String list = new String(eventData);
-            List<String> processInstancesId = Stream.of(list.split(","))
-                    .filter(e -> e.startsWith(eventType + EVENT_SEPARATOR))
-                    .map(e -> e.substring(e.indexOf(EVENT_SEPARATOR) + EVENT_SEPARATOR.length()))
-                    .toList();
-
-            List<ProcessInstance<T>> waitingInstances = new ArrayList<>();
-            for (String processInstanceId : processInstancesId) {
-                byte[] processData = db.get(processInstanceId.getBytes());
-                waitingInstances.add(unmarshall(processData, mode));
+        }
+        if (ids.isEmpty()) {
+            return Stream.empty();
+        }
+        try {
+            List<ProcessInstance<T>> waitingInstances = new ArrayList<>(ids.size());
+            for (byte[] processData : db.multiGetAsList(Collections.nCopies(ids.size(), columnFamily), ids)) {
+                // an instance removed after the index was read is skipped
+                if (processData != null) {
+                    waitingInstances.add(unmarshall(processData, mode));
+                }
             }
             return waitingInstances.stream();
         } catch (RocksDBException ex) {
@@ -146,7 +190,7 @@ public class RocksDBProcessInstances<T extends Model> implements MutableProcessI
     @Override
     public boolean exists(String id) {
         try {
-            return db.get(id.getBytes()) != null;
+            return db.get(columnFamily, id.getBytes()) != null;
         } catch (RocksDBException ex) {
             throw new IllegalStateException(ex);
         }
@@ -158,34 +202,113 @@ public class RocksDBProcessInstances<T extends Model> implements MutableProcessI
     }
 
     @Override
-    public synchronized void update(String id, ProcessInstance<T> instance) {
-        try {
-            db.put(id.getBytes(), marshaller.marshallProcessInstance(instance));
-            connectProcessInstance(instance);
-            Set<String> events = clearEventTypes(instance.id());
-            events.addAll(getUniqueEvents(instance));
-            db.put(this.eventKey.getBytes(), toBytes(events));
-        } catch (RocksDBException ex) {
-            throw new IllegalStateException(ex);
+    public void update(String id, ProcessInstance<T> instance) {
+        byte[] payload = marshaller.marshallProcessInstance(instance);
+        Set<String> eventTypes = getUniqueEvents(instance);
+        synchronized (lockFor(id)) {
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                Set<String> indexed = indexedEventTypes(id);
+                for (String eventType : indexed) {
+                    if (!eventTypes.contains(eventType)) {
+                        batch.delete(columnFamily, eventKey(eventType, id));
+                    }
+                }
+                for (String eventType : eventTypes) {
+                    if (!indexed.contains(eventType)) {
+                        batch.put(columnFamily, eventKey(eventType, id), EMPTY);
+                    }
+                }
+                if (eventTypes.isEmpty()) {
+                    batch.delete(columnFamily, reverseKey(id));
+                } else if (!eventTypes.equals(indexed)) {
+                    batch.put(columnFamily, reverseKey(id), toBytes(eventTypes));
+                }
+                batch.put(columnFamily, id.getBytes(), payload);
+                db.write(writeOptions, batch);
+            } catch (RocksDBException ex) {
+                throw new IllegalStateException(ex);
+            }
         }
+        connectProcessInstance(instance);
     }
 
-    private byte[] toBytes(Set<String> events) {
-        return String.join(",", events).getBytes();
+    @Override
+    public void remove(String id) {
+        synchronized (lockFor(id)) {
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                for (String eventType : indexedEventTypes(id)) {
+                    batch.delete(columnFamily, eventKey(eventType, id));
+                }
+                batch.delete(columnFamily, reverseKey(id));
+                batch.delete(columnFamily, id.getBytes());
+                db.write(writeOptions, batch);
+            } catch (RocksDBException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
     }
 
-    private Set<String> clearEventTypes(String processInstanceId) throws RocksDBException {
-        byte[] eventData = db.get(this.eventKey.getBytes());
-        String list = eventData != null ? new String(eventData) : new String();
-        return Stream.of(list.split(",")).filter(e -> !e.endsWith(EVENT_SEPARATOR + processInstanceId)).collect(toCollection(HashSet::new));
+    private Object lockFor(String id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
     }
 
-    @Override
-    public synchronized void remove(String id) {
+    private Set<String> indexedEventTypes(String processInstanceId) throws RocksDBException {
+        byte[] eventData = db.get(columnFamily, reverseKey(processInstanceId));
+        return eventData == null || eventData.length == 0 ? new HashSet<>()
+                : Stream.of(new String(eventData, StandardCharsets.UTF_8).split(String.valueOf(KEY_SEPARATOR))).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private byte[] eventKeyPrefix(String eventType) {
+        return (indexPrefix + 'e' + eventType + KEY_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] eventKey(String eventType, String processInstanceId) {
+        return (indexPrefix + 'e' + eventType + KEY_SEPARATOR + processInstanceId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] reverseKey(String processInstanceId) {
+        return (indexPrefix + 'r' + processInstanceId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toBytes(Set<String> eventTypes) {
+        return String.join(String.valueOf(KEY_SEPARATOR), eventTypes).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Earlier versions kept every <code>eventType::instanceId</code> pair of the process comma joined under a single key,
+     * move those entries to the per event type layout and drop that key.
+     */
+    private void migrateLegacyIndex(String legacyKey) {
         try {
-            db.delete(id.getBytes());
-            Set<String> events = clearEventTypes(id);
-            db.put(this.eventKey.getBytes(), toBytes(events));
+            byte[] eventData = db.get(columnFamily, legacyKey.getBytes());
+            if (eventData == null) {
+                return;
+            }
+            Map<String, Set<String>> eventTypesById = new HashMap<>();
+            for (String entry : new String(eventData).split(",")) {
+                int index = entry.indexOf(EVENT_SEPARATOR);
+                if (index > 0) {
+                    eventTypesById.computeIfAbsent(entry.substring(index + EVENT_SEPARATOR.length()), k -> new HashSet<>()).add(entry.substring(0, index));
+                }
+            }
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                eventTypesById.forEach((id, eventTypes) -> {
+                    try {
+                        for (String eventType : eventTypes) {
+                            batch.put(columnFamily, eventKey(eventType, id), EMPTY);
+                        }
+                        batch.put(columnFamily, reverseKey(id), toBytes(eventTypes));
+                    } catch (RocksDBException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                });
+                batch.delete(columnFamily, legacyKey.getBytes());
+                db.write(writeOptions, batch);
+            }
         } catch (RocksDBException ex) {
             throw new IllegalStateException(ex);
         }
@@ -193,7 +316,6 @@ public class RocksDBProcessInstances<T extends Model> implements MutableProcessI
 
     private Set<String> getUniqueEvents(ProcessInstance<T> instance) {
         return Stream.of(((AbstractProcessInstance<T>) instance).internalGetProcessInstance().getEventTypes())
-                .map(e -> e + EVENT_SEPARATOR + instance.id())
                 .collect(Collectors.toCollection(HashSet::new));
     }
 
@@ -203,10 +325,16 @@ public class RocksDBProcessInstances<T extends Model> implements MutableProcessI
         return (ProcessInstance<T>) pi;
     }
 
+    private ProcessInstance<T> unmarshall(ByteBuffer data, ProcessInstanceReadMode mode) {
+        AbstractProcessInstance<?> pi = (AbstractProcessInstance<?>) marshaller.unmarshallProcessInstance(data, process, mode);
+        connectProcessInstance(pi);
+        return (ProcessInstance<T>) pi;
+    }
+
     private void connectProcessInstance(ProcessInstance<?> pi) {
         ((AbstractProcessInstance<?>) pi).internalSetReloadSupplier(marshaller.createdReloadFunction(() -> {
             try {
-                return db.get(pi.id().getBytes());
+                return db.get(columnFamily, pi.id().getBytes());
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
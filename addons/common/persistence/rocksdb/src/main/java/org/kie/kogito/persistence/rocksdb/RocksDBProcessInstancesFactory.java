@@ -18,34 +18,186 @@
  */
 package org.kie.kogito.persistence.rocksdb;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jbpm.flow.serialization.protobuf.KogitoProcessInstanceProtobuf;
 import org.kie.kogito.internal.process.runtime.HeadersPersistentConfig;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstancesFactory;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.LRUCache;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+import com.google.protobuf.InvalidProtocolBufferException;
 
+/**
+ * Instances of every process id and version are kept in their own column family, created on first use.
+ * <p>
+ * Earlier versions kept the data of every process in the default column family. The first time such a store is
+ * opened, every entry is moved in a single pass to the column family of its process, and a marker key records that
+ * the migration is done.
+ */
 public class RocksDBProcessInstancesFactory implements ProcessInstancesFactory, AutoCloseable {
 
+    private static final int BLOOM_FILTER_BITS_PER_KEY = 10;
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    private static final char KEY_SEPARATOR = '\0';
+    private static final String LEGACY_INDEX_SUFFIX = ".events";
+    private static final byte[] MIGRATED_KEY = "\0\0column-families-migrated".getBytes(StandardCharsets.UTF_8);
+
     private final RocksDB db;
     private final HeadersPersistentConfig headersConfig;
+    private final DBOptions dbOptions;
+    private final ColumnFamilyOptions columnFamilyOptions;
+    private final Cache blockCache;
+    private final Map<String, ColumnFamilyHandle> columnFamilies = new ConcurrentHashMap<>();
 
     public RocksDBProcessInstancesFactory(Options options, String dbLocation) throws RocksDBException {
         this(options, dbLocation, null);
     }
 
     public RocksDBProcessInstancesFactory(Options options, String dbLocation, HeadersPersistentConfig headersConfig) throws RocksDBException {
-        this.db = RocksDB.open(options, dbLocation);
+        this(options, dbLocation, headersConfig, 0, null, 0);
+    }
+
+    /**
+     * @param blockCacheSize size in bytes of the block cache shared by all processes, which also enables bloom filters for point lookups. Zero or less keeps the table settings of <code>options</code>
+     * @param compressionType compression of the stored data, <code>null</code> keeps the one of <code>options</code>
+     * @param writeBufferSize size in bytes of the memtable of each process, zero or less keeps the one of <code>options</code>
+     */
+    public RocksDBProcessInstancesFactory(Options options, String dbLocation, HeadersPersistentConfig headersConfig, long blockCacheSize, CompressionType compressionType, long writeBufferSize)
+            throws RocksDBException {
         this.headersConfig = headersConfig;
+        this.dbOptions = new DBOptions(options).setCreateMissingColumnFamilies(true);
+        this.columnFamilyOptions = new ColumnFamilyOptions(options);
+        if (compressionType != null) {
+            columnFamilyOptions.setCompressionType(compressionType);
+        }
+        if (writeBufferSize > 0) {
+            columnFamilyOptions.setWriteBufferSize(writeBufferSize);
+        }
+        if (blockCacheSize > 0) {
+            this.blockCache = new LRUCache(blockCacheSize);
+            columnFamilyOptions.setTableFormatConfig(new BlockBasedTableConfig()
+                    .setBlockCache(blockCache)
+                    .setFilterPolicy(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false)));
+        } else {
+            this.blockCache = null;
+        }
+
+        List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+        if (Files.exists(Path.of(dbLocation, "CURRENT"))) {
+            for (byte[] name : RocksDB.listColumnFamilies(options, dbLocation)) {
+                descriptors.add(new ColumnFamilyDescriptor(name, columnFamilyOptions));
+            }
+        } else {
+            descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnFamilyOptions));
+        }
+        List<ColumnFamilyHandle> handles = new ArrayList<>();
+        this.db = RocksDB.open(dbOptions, dbLocation, descriptors, handles);
+        for (ColumnFamilyHandle handle : handles) {
+            columnFamilies.put(new String(handle.getName(), StandardCharsets.UTF_8), handle);
+        }
+        migrateDefaultColumnFamily();
     }
 
     @Override
     public RocksDBProcessInstances<?> createProcessInstances(Process<?> process) {
-        return new RocksDBProcessInstances(process, db, headersConfig);
+        return new RocksDBProcessInstances(process, db, columnFamily(process.id() + "-" + process.version()), headersConfig);
+    }
+
+    private ColumnFamilyHandle columnFamily(String name) {
+        return columnFamilies.computeIfAbsent(name, key -> {
+            try {
+                return db.createColumnFamily(new ColumnFamilyDescriptor(key.getBytes(StandardCharsets.UTF_8), columnFamilyOptions));
+            } catch (RocksDBException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    private void migrateDefaultColumnFamily() throws RocksDBException {
+        ColumnFamilyHandle defaultColumnFamily = db.getDefaultColumnFamily();
+        if (db.get(defaultColumnFamily, MIGRATED_KEY) != null) {
+            return;
+        }
+        try (RocksIterator iterator = db.newIterator(defaultColumnFamily); WriteOptions writeOptions = new WriteOptions()) {
+            WriteBatch batch = new WriteBatch();
+            try {
+                for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                    byte[] key = iterator.key();
+                    String columnFamily = columnFamilyOf(key, iterator.value());
+                    if (columnFamily != null) {
+                        batch.put(columnFamily(columnFamily), key, iterator.value());
+                        batch.delete(defaultColumnFamily, key);
+                    }
+                    if (batch.count() >= MIGRATION_BATCH_SIZE) {
+                        db.write(writeOptions, batch);
+                        batch.close();
+                        batch = new WriteBatch();
+                    }
+                }
+                batch.put(defaultColumnFamily, MIGRATED_KEY, new byte[0]);
+                db.write(writeOptions, batch);
+            } finally {
+                batch.close();
+            }
+        }
+    }
+
+    /**
+     * @return the column family of the process the entry belongs to, <code>null</code> if it is not process data
+     */
+    private static String columnFamilyOf(byte[] key, byte[] value) {
+        if (key.length == 0) {
+            return null;
+        }
+        String name = new String(key, StandardCharsets.UTF_8);
+        if (key[0] == KEY_SEPARATOR) {
+            // index key, prefixed by the process id and version
+            int end = name.indexOf(KEY_SEPARATOR, 1);
+            return end > 1 ? name.substring(1, end) : null;
+        }
+        if (name.endsWith(LEGACY_INDEX_SUFFIX)) {
+            return name.substring(0, name.length() - LEGACY_INDEX_SUFFIX.length());
+        }
+        try {
+            KogitoProcessInstanceProtobuf.ProcessInstance instance = KogitoProcessInstanceProtobuf.ProcessInstance.parseFrom(value);
+            return instance.getProcessId().isEmpty() ? null
+                    : instance.getProcessId() + "-" + (instance.getProcessVersion().isEmpty() ? null : instance.getProcessVersion());
+        } catch (InvalidProtocolBufferException ex) {
+            // not an instance
+            return null;
+        }
     }
 
     @Override
     public void close() {
+        columnFamilies.values().forEach(ColumnFamilyHandle::close);
+        columnFamilies.clear();
         db.close();
+        columnFamilyOptions.close();
+        dbOptions.close();
+        if (blockCache != null) {
+            blockCache.close();
+        }
     }
 }
@@ -30,6 +30,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import org.jbpm.flow.serialization.ProcessInstanceMarshallerService;
 import org.jbpm.workflow.instance.WorkflowProcessInstance;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -49,7 +50,9 @@ import org.kie.kogito.process.bpmn2.StaticApplicationAssembler;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
 import org.kie.kogito.process.impl.StaticProcessConfig;
 import org.kie.kogito.process.workitems.impl.DefaultKogitoWorkItemHandler;
+import org.rocksdb.CompressionType;
 import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -157,6 +160,99 @@ class RockDBProcessInstancesTest {
         assertThat(process.instances().stream().count()).isEqualTo(0);
     }
 
+    @Test
+    void testWaitingForEventType() {
+        BpmnProcess process = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        ProcessInstance<BpmnVariables> pi1 = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        ProcessInstance<BpmnVariables> pi2 = process.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig2")));
+        pi1.start();
+        pi2.start();
+        pi1.workItems().forEach(wi -> pi1.completeWorkItem(wi.getId(), Collections.emptyMap()));
+        pi2.workItems().forEach(wi -> pi2.completeWorkItem(wi.getId(), Collections.emptyMap()));
+
+        try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().waitingForEventType("sig1")) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(pi1.id());
+        }
+        try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().waitingForEventType("sig")) {
+            assertThat(stream).isEmpty();
+        }
+
+        process.send(SignalFactory.of("sig1", "SomeValue"));
+        try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().waitingForEventType("sig1")) {
+            assertThat(stream).isEmpty();
+        }
+        try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().waitingForEventType("sig2")) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(pi2.id());
+        }
+        try (Stream<ProcessInstance<BpmnVariables>> stream = process.instances().stream()) {
+            assertThat(stream.count()).isOne();
+        }
+    }
+
+    @Test
+    void testProcessesAreIsolated() throws RocksDBException {
+        BpmnProcess signalProcess = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        ProcessInstance<BpmnVariables> signalInstance = signalProcess.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        signalInstance.start();
+        WorkflowProcessInstance userTaskInstance = createProcessInstance();
+
+        try (Stream<ProcessInstance<?>> stream = pi.stream()) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(userTaskInstance.getId());
+        }
+        try (Stream<ProcessInstance<BpmnVariables>> stream = signalProcess.instances().stream()) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(signalInstance.id());
+        }
+        assertThat(signalProcess.instances().exists(userTaskInstance.getId())).isFalse();
+
+        // column families created on first use are opened again with the store
+        factory.close();
+        factory = new RocksDBProcessInstancesFactory(options, tempDir.toString(), null, 1024 * 1024, CompressionType.LZ4_COMPRESSION, 1024 * 1024);
+        process = createProcess("BPMN2-UserTask.bpmn2");
+        pi = factory.createProcessInstances(process);
+        try (Stream<ProcessInstance<?>> stream = pi.stream()) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(userTaskInstance.getId());
+        }
+    }
+
+    @Test
+    void testLegacyLayoutIsMigrated(@TempDir Path legacyDir) throws RocksDBException {
+        BpmnProcess signalProcess = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        ProcessInstance<BpmnVariables> signalInstance = signalProcess.createInstance(BpmnVariables.create(Collections.singletonMap("name", "sig1")));
+        signalInstance.start();
+        ProcessInstance<BpmnVariables> userTaskInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+        userTaskInstance.start();
+        ProcessInstanceMarshallerService marshaller = ProcessInstanceMarshallerService.newBuilder().withDefaultObjectMarshallerStrategies().withDefaultListeners().build();
+        byte[] payload = marshaller.marshallProcessInstance(signalInstance);
+        byte[] userTaskPayload = marshaller.marshallProcessInstance(userTaskInstance);
+        factory.close();
+
+        // earlier versions kept every instance in the default column family, with the waiting event types under a single key
+        try (RocksDB db = RocksDB.open(options, legacyDir.toString())) {
+            db.put(signalInstance.id().getBytes(), payload);
+            db.put(userTaskInstance.id().getBytes(), userTaskPayload);
+            db.put((signalProcess.id() + "-" + signalProcess.version() + ".events").getBytes(), ("sig1::" + signalInstance.id()).getBytes());
+        }
+
+        factory = new RocksDBProcessInstancesFactory(options, legacyDir.toString());
+        signalProcess = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        assertThat(signalProcess.instances().exists(signalInstance.id())).isTrue();
+        try (Stream<ProcessInstance<BpmnVariables>> stream = signalProcess.instances().waitingForEventType("sig1")) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(signalInstance.id());
+        }
+
+        // the migrated data is kept once the store is opened again, including the instances of processes not deployed before
+        factory.close();
+        factory = new RocksDBProcessInstancesFactory(options, legacyDir.toString());
+        assertThat(createProcess("BPMN2-UserTask.bpmn2").instances().exists(userTaskInstance.id())).isTrue();
+        signalProcess = createProcess("BPMN2-IntermediateCatchEventSignal.bpmn2");
+        try (Stream<ProcessInstance<BpmnVariables>> stream = signalProcess.instances().stream()) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(signalInstance.id());
+        }
+        try (Stream<ProcessInstance<BpmnVariables>> stream = signalProcess.instances().waitingForEventType("sig1")) {
+            assertThat(stream.map(ProcessInstance::id)).containsExactly(signalInstance.id());
+        }
+    }
+
     WorkflowProcessInstance createProcessInstance() {
         WorkflowProcessInstance instance = ((AbstractProcessInstance<?>) process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")))).internalGetProcessInstance();
         logger.debug("Created instance {}", instance.getId());
@@ -42,7 +42,9 @@ public interface ProcessInstances<T> {
     }
 
     default Optional<ProcessInstance<T>> findByBusinessKey(String id, ProcessInstanceReadMode mode) {
-        return stream(mode).filter(pi -> id.equals(pi.businessKey())).findAny();
+        try (Stream<ProcessInstance<T>> stream = stream(mode)) {
+            return stream.filter(pi -> id.equals(pi.businessKey())).findAny();
+        }
     }
 
     Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode);
@@ -57,13 +59,26 @@ public interface ProcessInstances<T> {
 
     Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode);
 
+    /**
+     * Tells whether any instance is waiting for the given event type. Implementations keeping an index of event types
+     * answer from it, without reading or unmarshalling any instance.
+     */
+    default boolean anyWaitingForEventType(String eventType) {
+        try (Stream<ProcessInstance<T>> waiting = waitingForEventType(eventType, ProcessInstanceReadMode.READ_ONLY)) {
+            return waiting.findAny().isPresent();
+        }
+    }
+
     default Stream<ProcessInstance<T>> acceptingEventType(String signalName, String id) {
         return findById(id, ProcessInstanceReadMode.MUTABLE)
                 .filter(pi -> {
                     // Check if waiting for event (traditional signal event)
-                    boolean isWaitingForSignal = Stream.concat(
+                    boolean isWaitingForSignal;
+                    try (Stream<ProcessInstance<T>> waiting = Stream.concat(
                             waitingForEventType(signalName, ProcessInstanceReadMode.READ_ONLY),
-                            waitingForEventType("Message-" + signalName, ProcessInstanceReadMode.READ_ONLY)).anyMatch(p -> p.id().equals(id));
+                            waitingForEventType("Message-" + signalName, ProcessInstanceReadMode.READ_ONLY))) {
+                        isWaitingForSignal = waiting.anyMatch(p -> p.id().equals(id));
+                    }
 
                     boolean isAdHocNode = pi.adHocFragments().stream()
                             .anyMatch(fragment -> fragment.getName().equals(signalName));
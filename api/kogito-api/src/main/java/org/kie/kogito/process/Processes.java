@@ -29,13 +29,33 @@ public interface Processes extends KogitoEngine {
     default Optional<Process<? extends Model>> processByProcessInstanceId(String processInstanceId) {
         for (String processId : processIds()) {
             Process<? extends Model> process = processById(processId);
-            if (process.instances().findById(processInstanceId, ProcessInstanceReadMode.READ_ONLY).isPresent()) {
+            if (containsInstance(process.instances(), processInstanceId)) {
                 return Optional.of(process);
             }
         }
         return Optional.empty();
     }
 
+    /**
+     * Resolves the process of an instance whose process id is known, like the one of a job, without querying the
+     * instances of other processes. Falls back to {@link #processByProcessInstanceId(String)} when the process id is
+     * unknown or does not belong to this application.
+     */
+    default Optional<Process<? extends Model>> processByProcessInstanceId(String processId, String processInstanceId) {
+        Process<? extends Model> process = processId == null ? null : processById(processId);
+        if (process != null) {
+            return Optional.of(process);
+        }
+        return processByProcessInstanceId(processInstanceId);
+    }
+
+    private static boolean containsInstance(ProcessInstances<?> instances, String processInstanceId) {
+        if (instances instanceof MutableProcessInstances<?> mutableInstances) {
+            return mutableInstances.exists(processInstanceId);
+        }
+        return instances.findById(processInstanceId, ProcessInstanceReadMode.READ_ONLY).isPresent();
+    }
+
     Process<? extends Model> processById(String processId);
 
     Collection<String> processIds();
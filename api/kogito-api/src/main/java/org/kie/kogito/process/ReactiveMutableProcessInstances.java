@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.process;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * Non blocking counterpart of {@link MutableProcessInstances}.
+ * <p>
+ * Implementations complete the returned stages once the underlying storage operation finishes, without holding
+ * the caller thread while the operation is in flight.
+ */
+public interface ReactiveMutableProcessInstances<T> {
+
+    CompletionStage<Boolean> existsAsync(String id);
+
+    CompletionStage<Void> createAsync(String id, ProcessInstance<T> instance);
+
+    CompletionStage<Void> updateAsync(String id, ProcessInstance<T> instance);
+
+    CompletionStage<Void> removeAsync(String id);
+
+    default CompletionStage<Optional<ProcessInstance<T>>> findByIdAsync(String id) {
+        return findByIdAsync(id, ProcessInstanceReadMode.MUTABLE);
+    }
+
+    CompletionStage<Optional<ProcessInstance<T>>> findByIdAsync(String id, ProcessInstanceReadMode mode);
+
+    default CompletionStage<Stream<ProcessInstance<T>>> streamAsync() {
+        return streamAsync(ProcessInstanceReadMode.READ_ONLY);
+    }
+
+    CompletionStage<Stream<ProcessInstance<T>>> streamAsync(ProcessInstanceReadMode mode);
+
+    default CompletionStage<Stream<ProcessInstance<T>>> waitingForEventTypeAsync(String eventType) {
+        return waitingForEventTypeAsync(eventType, ProcessInstanceReadMode.READ_ONLY);
+    }
+
+    CompletionStage<Stream<ProcessInstance<T>>> waitingForEventTypeAsync(String eventType, ProcessInstanceReadMode mode);
+}
@@ -20,6 +20,7 @@
 package org.kie.kogito.signal;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.kie.kogito.process.ProcessInstance;
 
@@ -29,4 +30,15 @@ public interface ProcessInstanceResolver<T> {
 
     List<ProcessInstance<T>> waitingForEvents(String eventType);
 
+    /**
+     * Same instances as {@link #waitingForEvents(String)}, read while the stream is consumed. The stream must be closed.
+     */
+    default Stream<ProcessInstance<T>> streamWaitingForEvents(String eventType) {
+        return waitingForEvents(eventType).stream();
+    }
+
+    default boolean anyWaitingForEvents(String eventType) {
+        return !waitingForEvents(eventType).isEmpty();
+    }
+
 }
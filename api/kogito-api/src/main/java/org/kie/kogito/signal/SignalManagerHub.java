@@ -23,4 +23,13 @@ public interface SignalManagerHub extends SignalManager {
     void addProcessInstanceResolver(ProcessInstanceResolver<?> processInstanceResolver);
 
     void removeProcessInstanceResolver(ProcessInstanceResolver<?> processInstanceResolver);
+
+    /**
+     * Records the resolver owning a process instance, so signals targeting that instance are only looked up there.
+     */
+    default void addProcessInstanceRoute(String processInstanceId, ProcessInstanceResolver<?> processInstanceResolver) {
+    }
+
+    default void removeProcessInstanceRoute(String processInstanceId) {
+    }
 }
@@ -18,6 +18,7 @@
  */
 package org.kie.kogito.usertask;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -34,6 +35,23 @@ public interface UserTaskInstances {
 
     List<UserTaskInstance> findByIdentity(IdentityProvider identityProvider, UserTaskFilter filter);
 
+    /**
+     * Returns a page of the tasks visible to the given identity that match the filter, ordered by id.
+     *
+     * @param identityProvider identity the tasks are visible to
+     * @param filter filter to apply, null for none
+     * @param offset number of tasks to skip
+     * @param limit maximum number of tasks to return
+     * @return the tasks of the page
+     */
+    default List<UserTaskInstance> findByIdentity(IdentityProvider identityProvider, UserTaskFilter filter, int offset, int limit) {
+        return findByIdentity(identityProvider, filter).stream()
+                .sorted(Comparator.comparing(UserTaskInstance::getId))
+                .skip(Math.max(offset, 0))
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
     Optional<UserTaskInstance> findById(String userTaskInstanceId);
 
     boolean exists(String userTaskInstanceId);
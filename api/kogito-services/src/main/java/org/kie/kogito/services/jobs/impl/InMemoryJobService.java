@@ -34,21 +34,47 @@ import org.slf4j.LoggerFactory;
 public class InMemoryJobService implements JobsService, AutoCloseable {
 
     public static final String IN_MEMORY_JOB_SERVICE_POOL_SIZE_PROPERTY = "kogito.in-memory.job-service.pool-size";
+    /**
+     * When enabled, timers are kept in a {@link TimingWheelScheduler} and run by a separate executor, instead of a
+     * {@link ScheduledThreadPoolExecutor}. Suited for a large number of pending timers.
+     */
+    public static final String IN_MEMORY_JOB_SERVICE_TIMING_WHEEL_PROPERTY = "kogito.in-memory.job-service.timing-wheel";
+    /**
+     * When the timing wheel is enabled, runs the jobs on virtual threads instead of a pool of the configured size.
+     */
+    public static final String IN_MEMORY_JOB_SERVICE_VIRTUAL_THREADS_PROPERTY = "kogito.in-memory.job-service.virtual-threads";
     private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryJobService.class);
 
     protected ScheduledExecutorService scheduler;
 
     protected ConcurrentHashMap<String, ScheduledFuture<?>> scheduledJobs;
+    // retries of repeatable jobs, kept apart from the periodic entry so both are cancelled with the job
+    protected ConcurrentHashMap<String, ScheduledFuture<?>> pendingRetries;
     protected List<JobExecutorFactory> jobExecutorFactories;
+    protected JobRetryPolicy retryPolicy;
 
     public InMemoryJobService() {
-        this(new ScheduledThreadPoolExecutor(Integer.parseInt(System.getProperty(IN_MEMORY_JOB_SERVICE_POOL_SIZE_PROPERTY, "10"))));
+        this(newScheduler());
     }
 
     public InMemoryJobService(ScheduledExecutorService scheduler) {
+        this(scheduler, JobRetryPolicy.fromSystemProperties());
+    }
+
+    public InMemoryJobService(ScheduledExecutorService scheduler, JobRetryPolicy retryPolicy) {
         this.scheduledJobs = new ConcurrentHashMap<>();
+        this.pendingRetries = new ConcurrentHashMap<>();
         this.jobExecutorFactories = new ArrayList<>();
         this.scheduler = scheduler;
+        this.retryPolicy = retryPolicy;
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        int poolSize = Integer.parseInt(System.getProperty(IN_MEMORY_JOB_SERVICE_POOL_SIZE_PROPERTY, "10"));
+        if (Boolean.getBoolean(IN_MEMORY_JOB_SERVICE_TIMING_WHEEL_PROPERTY)) {
+            return new TimingWheelScheduler(TimingWheelScheduler.newExecutor(poolSize, Boolean.getBoolean(IN_MEMORY_JOB_SERVICE_VIRTUAL_THREADS_PROPERTY)));
+        }
+        return new ScheduledThreadPoolExecutor(poolSize);
     }
 
     public InMemoryJobService registerJobExecutorFactory(JobExecutorFactory jobExecutorFactory) {
@@ -71,12 +97,28 @@ public class InMemoryJobService implements JobsService, AutoCloseable {
             Long interval = jobDescription.expirationTime().repeatInterval();
             String jobId = jobDescription.id();
             scheduledJobs.put(jobId,
-                    interval != null ? scheduler.scheduleAtFixedRate(jobExecutorFactory.createNewRepeteableRunnable(this, jobDescription), delay, interval, TimeUnit.MILLISECONDS)
+                    interval != null ? scheduler.scheduleAtFixedRate(skipWhileRetrying(jobId, jobExecutorFactory.createNewRepeteableRunnable(this, jobDescription)), delay, interval,
+                            TimeUnit.MILLISECONDS)
                             : scheduler.schedule(jobExecutorFactory.createNewRunnable(this, jobDescription), delay, TimeUnit.MILLISECONDS));
             return jobId;
         }).orElseThrow(() -> new IllegalArgumentException("Could not schedule ProcessInstanceJobDescription " + jobDescription + ". No job executor factory provided"));
     }
 
+    /**
+     * A periodic run and a retry of the same job would otherwise run the same runnable concurrently, so periodic runs
+     * are skipped until the pending retry, if any, is done.
+     */
+    private Runnable skipWhileRetrying(String id, Runnable job) {
+        return () -> {
+            ScheduledFuture<?> retry = pendingRetries.get(id);
+            if (retry == null || retry.isDone()) {
+                job.run();
+            } else {
+                LOGGER.debug("Skipping run of Job {}, a retry is pending", id);
+            }
+        };
+    }
+
     private Optional<JobExecutorFactory> findJobExecutorFactory(JobDescription jobDescription) {
         return jobExecutorFactories.stream().filter(factory -> factory.accept(jobDescription)).findFirst();
     }
@@ -88,8 +130,10 @@ public class InMemoryJobService implements JobsService, AutoCloseable {
 
     public boolean cancelJob(String id, boolean force) {
         LOGGER.debug("Cancel Job: {}", id);
+        ScheduledFuture<?> retry = pendingRetries.remove(id);
+        boolean retryCancelled = retry != null && !retry.isDone() && retry.cancel(force);
         ScheduledFuture<?> future = scheduledJobs.remove(id);
-        return future != null && !future.isDone() && future.cancel(force);
+        return (future != null && !future.isDone() && future.cancel(force)) || retryCancelled;
     }
 
     @Override
@@ -101,6 +145,47 @@ public class InMemoryJobService implements JobsService, AutoCloseable {
         return "Job reschedule failed";
     }
 
+    public JobRetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Schedules another attempt of a job whose execution conflicted with a concurrent update of the same instance,
+     * releasing the thread instead of retrying right away.
+     *
+     * @param jobService service the job belongs to, only in memory services support retries
+     * @param id job id
+     * @param job job to be retried
+     * @param attempt number of the retry, starting at 1
+     * @param oneShot whether the job is not repeatable, in which case the retry replaces its scheduled entry. Otherwise
+     *        the retry is tracked next to it and the periodic runs are skipped until the retry is done
+     * @return false if the job is not retried, because there are no attempts left or the service does not support it
+     */
+    static boolean retryJob(JobsService jobService, String id, Runnable job, int attempt, boolean oneShot) {
+        return jobService instanceof InMemoryJobService inMemoryJobService && inMemoryJobService.retryJob(id, job, attempt, oneShot);
+    }
+
+    /**
+     * @see #retryJob(JobsService, String, Runnable, int, boolean)
+     */
+    public boolean retryJob(String id, Runnable job, int attempt, boolean oneShot) {
+        long delay = retryPolicy.nextDelay(attempt);
+        if (delay < 0) {
+            return false;
+        }
+        scheduleRetry(id, job, delay, oneShot);
+        return true;
+    }
+
+    protected void scheduleRetry(String id, Runnable job, long delay, boolean oneShot) {
+        ScheduledFuture<?> future = scheduler.schedule(job, delay, TimeUnit.MILLISECONDS);
+        if (oneShot) {
+            scheduledJobs.put(id, future);
+        } else {
+            pendingRetries.put(id, future);
+        }
+    }
+
     protected long calculateDelay(JobDescription description) {
         long delay = Duration.between(ZonedDateTime.now(), description.expirationTime().get()).toMillis();
         return delay <= 0 ? 1 : delay;
@@ -110,11 +195,15 @@ public class InMemoryJobService implements JobsService, AutoCloseable {
     public void close() throws Exception {
         LOGGER.info("closing in memory job service");
         scheduler.shutdownNow();
+        pendingRetries.values().forEach(v -> v.cancel(true));
+        pendingRetries.clear();
         scheduledJobs.values().forEach(v -> v.cancel(true));
         scheduledJobs.clear();
     }
 
     public void clearJobExecutorFactories() {
+        pendingRetries.values().forEach(v -> v.cancel(true));
+        pendingRetries.clear();
         scheduledJobs.values().forEach(v -> v.cancel(true));
         scheduledJobs.clear();
         jobExecutorFactories.clear();
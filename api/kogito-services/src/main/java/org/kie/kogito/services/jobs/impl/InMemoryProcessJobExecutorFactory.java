@@ -71,6 +71,7 @@ public class InMemoryProcessJobExecutorFactory implements JobExecutorFactory {
                 jobsConfiguration,
                 description.id(),
                 description.timerId(),
+                description.processId(),
                 description.processInstanceId(),
                 remove,
                 limit);
@@ -94,16 +95,19 @@ class SignalProcessInstanceOnExpiredTimer implements Runnable {
     private final String id;
     private final String timerId;
     private boolean removeAtExecution;
+    private String processId;
     private String processInstanceId;
     private Integer limit;
+    private int attempts;
     private JobsService jobService;
 
     private InMemoryJobContext jobsConfiguration;
 
-    public SignalProcessInstanceOnExpiredTimer(JobsService jobService, InMemoryJobContext jobsConfiguration, String id, String timerId, String processInstanceId, boolean removeAtExecution,
-            Integer limit) {
+    public SignalProcessInstanceOnExpiredTimer(JobsService jobService, InMemoryJobContext jobsConfiguration, String id, String timerId, String processId, String processInstanceId,
+            boolean removeAtExecution, Integer limit) {
         this.id = id;
         this.timerId = timerId;
+        this.processId = processId;
         this.processInstanceId = processInstanceId;
         this.removeAtExecution = removeAtExecution;
         this.limit = limit;
@@ -113,8 +117,9 @@ class SignalProcessInstanceOnExpiredTimer implements Runnable {
 
     @Override
     public void run() {
+        boolean retrying = false;
         try {
-            Optional<Process<? extends Model>> process = jobsConfiguration.processes().processByProcessInstanceId(processInstanceId);
+            Optional<Process<? extends Model>> process = jobsConfiguration.processes().processByProcessInstanceId(processId, processInstanceId);
             if (process.isEmpty()) {
                 LOGGER.info("Skipping Job {}. There is no process for pid {} ", id, processInstanceId);
                 return;
@@ -122,16 +127,22 @@ class SignalProcessInstanceOnExpiredTimer implements Runnable {
             LOGGER.info("Job {} started", id);
             limit--;
             boolean executed = new TriggerJobCommand(processInstanceId, id, timerId, limit, process.get(), jobsConfiguration.unitOfWorkManager()).execute();
+            attempts = 0;
             if (limit == 0 || !executed) {
                 jobService.cancelJob(id);
             }
             LOGGER.debug("Job {} completed", id);
         } catch (ProcessInstanceOptimisticLockingException ex) {
-            LOGGER.info("Retrying Job {} due to: {}", id, ex.getMessage());
             limit++;
-            run();
+            retrying = InMemoryJobService.retryJob(jobService, id, this, ++attempts, removeAtExecution);
+            if (retrying) {
+                LOGGER.info("Retrying Job {} due to: {}", id, ex.getMessage());
+            } else {
+                LOGGER.warn("Giving up Job {} after {} attempts due to: {}", id, attempts, ex.getMessage());
+                attempts = 0;
+            }
         } finally {
-            if (removeAtExecution) {
+            if (removeAtExecution && !retrying) {
                 jobService.cancelJob(id);
             }
         }
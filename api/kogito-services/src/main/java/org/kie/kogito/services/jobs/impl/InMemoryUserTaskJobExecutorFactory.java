@@ -76,6 +76,7 @@ class SignalUserTaskInstanceOnExpiredTimer implements Runnable {
 
     private boolean removeAtExecution;
     private Integer limit;
+    private int attempts;
     private JobsService jobService;
 
     private InMemoryJobContext jobsConfiguration;
@@ -95,6 +96,7 @@ class SignalUserTaskInstanceOnExpiredTimer implements Runnable {
     public void run() {
         String jobId = userTaskInstanceJobDescription.id();
         String userTaskInstanceId = userTaskInstanceJobDescription.userTaskInstanceId();
+        boolean retrying = false;
         try {
             Optional<UserTaskInstance> userTaskInstance = jobsConfiguration.userTasks().instances().findById(userTaskInstanceId);
             if (userTaskInstance.isEmpty()) {
@@ -106,16 +108,22 @@ class SignalUserTaskInstanceOnExpiredTimer implements Runnable {
                 userTaskInstance.get().trigger(userTaskInstanceJobDescription);
                 return null;
             });
+            attempts = 0;
             if (limit == 0) {
                 jobService.cancelJob(jobId);
             }
             LOGGER.debug("Job {} completed", jobId);
         } catch (ProcessInstanceOptimisticLockingException ex) {
-            LOGGER.info("Retrying Job {} due to: {}", jobId, ex.getMessage());
             limit++;
-            run();
+            retrying = InMemoryJobService.retryJob(jobService, jobId, this, ++attempts, removeAtExecution);
+            if (retrying) {
+                LOGGER.info("Retrying Job {} due to: {}", jobId, ex.getMessage());
+            } else {
+                LOGGER.warn("Giving up Job {} after {} attempts due to: {}", jobId, attempts, ex.getMessage());
+                attempts = 0;
+            }
         } finally {
-            if (removeAtExecution) {
+            if (removeAtExecution && !retrying) {
                 jobService.cancelJob(jobId);
             }
         }
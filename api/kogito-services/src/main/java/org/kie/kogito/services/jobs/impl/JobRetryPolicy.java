@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.services.jobs.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry policy for the jobs whose execution conflicts with a concurrent update of the same instance. Attempts are
+ * delayed with an exponential back-off, with jitter so jobs that conflicted together do not retry together, up to a
+ * maximum number of attempts.
+ */
+public class JobRetryPolicy {
+
+    public static final String MAX_ATTEMPTS_PROPERTY = "kogito.in-memory.job-service.retry.max-attempts";
+    /**
+     * Delay in milliseconds before the first retry, doubled on every following attempt.
+     */
+    public static final String DELAY_PROPERTY = "kogito.in-memory.job-service.retry.delay";
+    public static final String MAX_DELAY_PROPERTY = "kogito.in-memory.job-service.retry.max-delay";
+
+    private final int maxAttempts;
+    private final long delay;
+    private final long maxDelay;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public JobRetryPolicy(int maxAttempts, long delay, long maxDelay) {
+        this.maxAttempts = maxAttempts;
+        this.delay = Math.max(1, delay);
+        this.maxDelay = Math.max(this.delay, maxDelay);
+    }
+
+    public static JobRetryPolicy fromSystemProperties() {
+        return new JobRetryPolicy(Integer.getInteger(MAX_ATTEMPTS_PROPERTY, 10), Long.getLong(DELAY_PROPERTY, 10L), Long.getLong(MAX_DELAY_PROPERTY, 1000L));
+    }
+
+    /**
+     * Records a conflict and computes the delay before the given attempt.
+     *
+     * @param attempt number of the retry, starting at 1
+     * @return delay in milliseconds, or -1 if there are no attempts left
+     */
+    long nextDelay(int attempt) {
+        conflicts.increment();
+        if (attempt > maxAttempts) {
+            exhausted.increment();
+            return -1;
+        }
+        retries.increment();
+        long backoff = Math.min(maxDelay, delay << Math.min(attempt - 1, 30));
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return number of job executions that failed because of a concurrent update
+     */
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * @return number of retries scheduled after a conflict
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return number of job executions given up because there were no attempts left
+     */
+    public long exhausted() {
+        return exhausted.sum();
+    }
+}
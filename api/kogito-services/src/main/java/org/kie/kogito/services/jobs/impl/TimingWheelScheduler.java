@@ -0,0 +1,448 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.services.jobs.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler backed by a hashed timing wheel, meant for a large number of pending timers. Scheduling and cancelling a
+ * task are constant time operations, instead of the logarithmic ones of the delay queue used by
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor}.
+ * <p>
+ * A single thread advances the wheel every tick and hands the expired tasks to the given executor, which runs them,
+ * so a slow task never delays the expiration of the others. Tasks are fired with the precision of the tick duration.
+ * Tasks due further than a wheel revolution stay in their bucket for as many rounds as needed.
+ * <p>
+ * Once shut down, pending tasks are not fired anymore.
+ */
+public class TimingWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    public static final String TICK_DURATION_PROPERTY = "kogito.in-memory.job-service.tick-duration";
+    public static final String WHEEL_SIZE_PROPERTY = "kogito.in-memory.job-service.wheel-size";
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheelScheduler.class);
+
+    // bounds the tasks moved into the wheel per tick, so a burst of schedules does not delay expiration
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final ExecutorService executor;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final Queue<WheelTask<?>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTask<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final List<Runnable> unprocessed = Collections.synchronizedList(new ArrayList<>());
+    private final Thread ticker;
+    private volatile boolean shutdown;
+    // only accessed by the ticker thread
+    private long tick;
+
+    public TimingWheelScheduler(ExecutorService executor) {
+        this(executor, Long.getLong(TICK_DURATION_PROPERTY, 10), TimeUnit.MILLISECONDS, Integer.getInteger(WHEEL_SIZE_PROPERTY, 512));
+    }
+
+    public TimingWheelScheduler(ExecutorService executor, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30: " + wheelSize);
+        }
+        this.executor = executor;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        this.ticker = new Thread(this::tickLoop, "kogito-timing-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Executor running the expired tasks: virtual threads when requested and provided by the runtime, a fixed pool of
+     * platform threads otherwise.
+     */
+    public static ExecutorService newExecutor(int poolSize, boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Virtual threads are not available, jobs are run by {} platform threads", poolSize);
+            }
+        }
+        return Executors.newFixedThreadPool(poolSize);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(new WheelTask<>(callable, deadline(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        return enqueue(new WheelTask<>(Executors.callable(command), deadline(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive: " + delay);
+        }
+        return enqueue(new WheelTask<>(Executors.callable(command), deadline(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        checkNotShutdown();
+        executor.execute(command);
+    }
+
+    private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+        checkNotShutdown();
+        scheduled.add(task);
+        return task;
+    }
+
+    private void checkNotShutdown() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Timing wheel scheduler is shut down");
+        }
+    }
+
+    private long now() {
+        return System.nanoTime() - startTime;
+    }
+
+    private long deadline(long delay, TimeUnit unit) {
+        long deadline = now() + unit.toNanos(Math.max(delay, 0));
+        // guards against overflow for very long delays
+        return deadline < 0 ? Long.MAX_VALUE : deadline;
+    }
+
+    private void tickLoop() {
+        try {
+            while (!shutdown) {
+                long deadline = waitForNextTick();
+                if (deadline < 0) {
+                    break;
+                }
+                removeCancelled();
+                transferScheduled();
+                wheel[(int) (tick & mask)].expire(deadline);
+                tick++;
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Timing wheel stopped unexpectedly", t);
+        } finally {
+            for (Bucket bucket : wheel) {
+                bucket.drain();
+            }
+            WheelTask<?> task;
+            while ((task = scheduled.poll()) != null) {
+                task.discard();
+            }
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = now();
+            long sleepNanos = deadline - current;
+            if (sleepNanos <= 0) {
+                return current;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (shutdown) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        WheelTask<?> task;
+        while ((task = cancelled.poll()) != null) {
+            if (task.bucket != null) {
+                task.bucket.remove(task);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTask<?> task = scheduled.poll();
+            if (task == null) {
+                return;
+            }
+            if (task.isDone()) {
+                continue;
+            }
+            long ticks = task.deadline / tickNanos;
+            task.remainingRounds = (ticks - tick) / wheel.length;
+            // tasks already expired go to the current bucket
+            wheel[(int) (Math.max(ticks, tick) & mask)].add(task);
+        }
+    }
+
+    private void dispatch(WheelTask<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Task due at {} could not be run", task.deadline, e);
+            task.result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        ticker.interrupt();
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        executor.shutdownNow();
+        try {
+            ticker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (unprocessed) {
+            return new ArrayList<>(unprocessed);
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && !ticker.isAlive() && executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long limit = System.nanoTime() + unit.toNanos(timeout);
+        TimeUnit.NANOSECONDS.timedJoin(ticker, Math.max(unit.toNanos(timeout), 1));
+        return !ticker.isAlive() && executor.awaitTermination(Math.max(limit - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Doubly linked list of the tasks hashed to a slot of the wheel, only accessed by the ticker thread.
+     */
+    private final class Bucket {
+
+        private WheelTask<?> head;
+        private WheelTask<?> tail;
+
+        void add(WheelTask<?> task) {
+            task.bucket = this;
+            if (head == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void remove(WheelTask<?> task) {
+            if (task.prev != null) {
+                task.prev.next = task.next;
+            } else {
+                head = task.next;
+            }
+            if (task.next != null) {
+                task.next.prev = task.prev;
+            } else {
+                tail = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+
+        void expire(long deadline) {
+            WheelTask<?> task = head;
+            while (task != null) {
+                WheelTask<?> next = task.next;
+                if (task.isDone()) {
+                    remove(task);
+                } else if (task.remainingRounds <= 0 && task.deadline <= deadline) {
+                    remove(task);
+                    dispatch(task);
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+
+        void drain() {
+            WheelTask<?> task = head;
+            while (task != null) {
+                WheelTask<?> next = task.next;
+                remove(task);
+                task.discard();
+                task = next;
+            }
+        }
+    }
+
+    private final class WheelTask<V> implements RunnableScheduledFuture<V> {
+
+        private final Callable<V> callable;
+        // zero for one shot tasks, positive for fixed rate and negative for fixed delay ones
+        private final long period;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile long deadline;
+        // the fields below are only accessed by the ticker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTask<?> prev;
+        private WheelTask<?> next;
+
+        WheelTask(Callable<V> callable, long deadline, long period) {
+            if (callable == null) {
+                throw new NullPointerException("Task must be non null");
+            }
+            this.callable = callable;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!isPeriodic()) {
+                try {
+                    result.complete(callable.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+                return;
+            }
+            try {
+                callable.call();
+            } catch (Throwable t) {
+                // as in ScheduledThreadPoolExecutor, a failure suppresses subsequent executions
+                result.completeExceptionally(t);
+                return;
+            }
+            if (!result.isDone() && !shutdown) {
+                deadline = period > 0 ? deadline + period : now() - period;
+                scheduled.add(this);
+            }
+        }
+
+        void discard() {
+            if (result.cancel(false)) {
+                unprocessed.add(this);
+            }
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelledNow = result.cancel(mayInterruptIfRunning);
+            if (cancelledNow) {
+                cancelled.add(this);
+            }
+            return cancelledNow;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return result.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return result.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return result.get(timeout, unit);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - now(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -18,14 +18,21 @@
  */
 package org.kie.kogito.services.signal;
 
-import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import org.kie.api.runtime.process.EventListener;
 import org.kie.kogito.internal.process.runtime.KogitoProcessInstance;
@@ -33,30 +40,85 @@ import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.SignalFactory;
 import org.kie.kogito.signal.ProcessInstanceResolver;
 import org.kie.kogito.signal.SignalManagerHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.synchronizedMap;
 import static java.util.Collections.synchronizedSet;
 
 public class DefaultSignalManagerHub implements SignalManagerHub {
 
+    /**
+     * Number of stored process instances a broadcast signal is delivered to concurrently. With the default, 1,
+     * instances are signalled one after the other on the caller thread. Signals delivered concurrently run outside
+     * the unit of work of the caller.
+     */
+    public static final String FAN_OUT_PARALLELISM_PROPERTY = "kogito.signal.fan-out.parallelism";
+    /**
+     * Number of process instances whose owning resolver is remembered. Signals targeting other instances are looked up
+     * in every resolver.
+     */
+    public static final String ROUTES_MAX_SIZE_PROPERTY = "kogito.signal.routes.max-size";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultSignalManagerHub.class);
+
     private Set<ProcessInstanceResolver<?>> workflowInstanceResolver = synchronizedSet(new HashSet<>());
     private ConcurrentMap<String, List<EventListener>> listeners = new ConcurrentHashMap<>();
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final Map<String, ProcessInstanceResolver<?>> routes;
+
+    public DefaultSignalManagerHub() {
+        this(Integer.parseInt(System.getProperty(FAN_OUT_PARALLELISM_PROPERTY, "1")));
+    }
+
+    public DefaultSignalManagerHub(int parallelism) {
+        this(parallelism, Integer.parseInt(System.getProperty(ROUTES_MAX_SIZE_PROPERTY, "10000")));
+    }
+
+    public DefaultSignalManagerHub(int parallelism, int routesMaxSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = this.parallelism > 1 ? newFanOutExecutor() : null;
+        this.routes = synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProcessInstanceResolver<?>> eldest) {
+                return size() > routesMaxSize;
+            }
+        });
+    }
+
+    /**
+     * Virtual threads when the runtime provides them, daemon platform threads otherwise. The number of signals in
+     * flight is bounded by the parallelism, not by the executor.
+     */
+    private static ExecutorService newFanOutExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "kogito-signal-fan-out");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
 
     @Override
     public boolean accept(String eventType, Object event) {
         if (listeners.containsKey(eventType)) {
             return true;
         }
-        return workflowInstanceResolver.stream().map(e -> e.waitingForEvents(eventType)).flatMap(List::stream).count() > 0;
+        return workflowInstanceResolver.stream().anyMatch(e -> e.anyWaitingForEvents(eventType));
     }
 
     @Override
     public void signalEvent(String eventType, Object payload) {
+        long start = System.nanoTime();
         // we signal memory first
-        List<String> idList = new ArrayList<>();
+        Set<String> signalled = new HashSet<>();
         listeners.getOrDefault(eventType, emptyList()).forEach(eventListener -> {
             if (eventListener instanceof KogitoProcessInstance kogitoProcessInstance) {
-                idList.add(kogitoProcessInstance.getId());
+                signalled.add(kogitoProcessInstance.getId());
                 ProcessInstance<?> processInstance = kogitoProcessInstance.unwrap();
                 // this will enforce access to the lock mechanism logic.
                 processInstance.send(SignalFactory.of(eventType, payload));
@@ -64,22 +126,115 @@ public class DefaultSignalManagerHub implements SignalManagerHub {
                 eventListener.signalEvent(eventType, payload);
             }
         });
+        int inMemory = signalled.size();
+
+        long stored;
+        if (executor == null) {
+            var processInstancesWaiting = resolvers().stream()
+                    .map(e -> e.waitingForEvents(eventType))
+                    .flatMap(List::stream)
+                    .filter(p -> signalled.add(p.id()))
+                    .toList();
+            processInstancesWaiting.forEach(eventListener -> eventListener.send(SignalFactory.of(eventType, payload)));
+            stored = processInstancesWaiting.size();
+        } else {
+            stored = fanOut(eventType, payload, signalled);
+        }
+        LOGGER.debug("Signal {} delivered to {} process instances in memory and {} stored ones in {} ms", eventType, inMemory, stored,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
 
-        var processInstancesWaiting = workflowInstanceResolver.stream()
-                .map(e -> e.waitingForEvents(eventType))
-                .flatMap(List::stream)
-                .filter(p -> !idList.contains(p.id()))
-                .toList();
+    /**
+     * Reads the waiting instances while signalling them, at most {@link #parallelism} at a time. Reading stops while
+     * that many signals are in flight. Returns once every signal has been delivered, rethrowing the first failure.
+     */
+    private long fanOut(String eventType, Object payload, Set<String> signalled) {
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long count = 0;
+        try {
+            for (ProcessInstanceResolver<?> resolver : resolvers()) {
+                try (Stream<? extends ProcessInstance<?>> waiting = resolver.streamWaitingForEvents(eventType)) {
+                    Iterator<? extends ProcessInstance<?>> iterator = waiting.iterator();
+                    while (iterator.hasNext() && failure.get() == null) {
+                        ProcessInstance<?> processInstance = iterator.next();
+                        if (signalled.add(processInstance.id())) {
+                            inFlight.acquire();
+                            count++;
+                            executor.execute(() -> {
+                                try {
+                                    processInstance.send(SignalFactory.of(eventType, payload));
+                                } catch (RuntimeException e) {
+                                    LOGGER.warn("Error delivering signal {} to process instance {}", eventType, processInstance.id(), e);
+                                    if (!failure.compareAndSet(null, e)) {
+                                        failure.get().addSuppressed(e);
+                                    }
+                                } finally {
+                                    inFlight.release();
+                                }
+                            });
+                        }
+                    }
+                }
+            }
+            inFlight.acquire(parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering signal " + eventType, e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return count;
+    }
 
-        processInstancesWaiting.forEach(eventListener -> eventListener.send(SignalFactory.of(eventType, payload)));
+    private List<ProcessInstanceResolver<?>> resolvers() {
+        synchronized (workflowInstanceResolver) {
+            return List.copyOf(workflowInstanceResolver);
+        }
     }
 
     @Override
     public void signalEvent(String processInstanceId, String eventType, Object payload) {
-        workflowInstanceResolver.stream()
-                .map(e -> e.findById(processInstanceId))
-                .filter(Objects::nonNull)
-                .forEach(eventListener -> eventListener.send(SignalFactory.of(eventType, payload)));
+        ProcessInstance<?> processInstance = findById(processInstanceId);
+        if (processInstance != null) {
+            processInstance.send(SignalFactory.of(eventType, payload));
+        }
+    }
+
+    /**
+     * Looks the instance up in the resolver it was routed to. When there is no route, or the route is stale, every
+     * other resolver is asked and the route is recorded.
+     */
+    private ProcessInstance<?> findById(String processInstanceId) {
+        ProcessInstanceResolver<?> routed = routes.get(processInstanceId);
+        if (routed != null && workflowInstanceResolver.contains(routed)) {
+            ProcessInstance<?> processInstance = routed.findById(processInstanceId);
+            if (processInstance != null) {
+                return processInstance;
+            }
+        }
+        routes.remove(processInstanceId);
+        for (ProcessInstanceResolver<?> resolver : resolvers()) {
+            if (resolver != routed) {
+                ProcessInstance<?> processInstance = resolver.findById(processInstanceId);
+                if (processInstance != null) {
+                    routes.put(processInstanceId, resolver);
+                    return processInstance;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void addProcessInstanceRoute(String processInstanceId, ProcessInstanceResolver<?> processInstanceResolver) {
+        routes.put(processInstanceId, processInstanceResolver);
+    }
+
+    @Override
+    public void removeProcessInstanceRoute(String processInstanceId) {
+        routes.remove(processInstanceId);
     }
 
     @Override
@@ -115,6 +270,9 @@ public class DefaultSignalManagerHub implements SignalManagerHub {
     @Override
     public void removeProcessInstanceResolver(ProcessInstanceResolver<?> processInstanceResolver) {
         this.workflowInstanceResolver.remove(processInstanceResolver);
+        synchronized (routes) {
+            routes.values().removeIf(processInstanceResolver::equals);
+        }
     }
 
 }
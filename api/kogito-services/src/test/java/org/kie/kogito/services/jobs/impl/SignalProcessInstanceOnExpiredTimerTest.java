@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.services.jobs.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kie.kogito.jobs.DurationExpirationTime;
+import org.kie.kogito.jobs.JobsService;
+import org.kie.kogito.jobs.descriptors.ProcessInstanceJobDescription;
+import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
+import org.kie.kogito.process.Processes;
+import org.kie.kogito.uow.UnitOfWork;
+import org.kie.kogito.uow.UnitOfWorkManager;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SignalProcessInstanceOnExpiredTimerTest {
+
+    private static final String PROCESS_ID = "PROCESS_ID";
+    private static final String OTHER_PROCESS_ID = "OTHER_PROCESS_ID";
+    private static final String PROCESS_INSTANCE_ID = "PROCESS_INSTANCE_ID";
+    private static final String JOB_ID = "JOB_ID";
+    private static final String TIMER_ID = "TIMER_ID";
+
+    @Mock
+    private JobsService jobsService;
+
+    @Mock
+    private UnitOfWorkManager unitOfWorkManager;
+
+    @Mock
+    private UnitOfWork unitOfWork;
+
+    @Mock
+    private Process<?> process;
+
+    @Mock
+    private Process<?> otherProcess;
+
+    @Mock
+    private MutableProcessInstances<?> instances;
+
+    @Mock
+    private MutableProcessInstances<?> otherInstances;
+
+    @Mock
+    private ProcessInstance<?> processInstance;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final Processes processes = mock(Processes.class, CALLS_REAL_METHODS);
+
+    @Test
+    void shouldLoadInstanceOnceWhenProcessIdIsKnown() {
+        doReturn(process).when(processes).processById(PROCESS_ID);
+        givenInstanceFound();
+
+        timer(PROCESS_ID).run();
+
+        verify(processInstance).send(any());
+        verify(instances, never()).exists(anyString());
+        verify(otherProcess, never()).instances();
+    }
+
+    @Test
+    void shouldCheckExistenceWhenProcessIdIsUnknown() {
+        doReturn(List.of(OTHER_PROCESS_ID, PROCESS_ID)).when(processes).processIds();
+        doReturn(otherProcess).when(processes).processById(OTHER_PROCESS_ID);
+        doReturn(process).when(processes).processById(PROCESS_ID);
+        doReturn(otherInstances).when(otherProcess).instances();
+        doReturn(false).when(otherInstances).exists(PROCESS_INSTANCE_ID);
+        doReturn(true).when(instances).exists(PROCESS_INSTANCE_ID);
+        givenInstanceFound();
+
+        timer(null).run();
+
+        verify(processInstance).send(any());
+        verify(otherInstances, never()).findById(anyString(), any());
+    }
+
+    @Test
+    void shouldScheduleRetryOnConflictUntilAttemptsRunOut() {
+        doReturn(process).when(processes).processById(PROCESS_ID);
+        givenInstanceFound();
+        doThrow(new ProcessInstanceOptimisticLockingException(PROCESS_INSTANCE_ID)).when(processInstance).send(any());
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        InMemoryJobService inMemoryJobService = new InMemoryJobService(scheduler, new JobRetryPolicy(1, 10, 100));
+        InMemoryJobContext context = new InMemoryJobContext(null, unitOfWorkManager, processes, null);
+        SignalProcessInstanceOnExpiredTimer timer =
+                new SignalProcessInstanceOnExpiredTimer(inMemoryJobService, context, JOB_ID, TIMER_ID, PROCESS_ID, PROCESS_INSTANCE_ID, true, 1);
+
+        timer.run();
+
+        verify(processInstance).send(any());
+        verify(scheduler).schedule(eq(timer), longThat(delay -> delay >= 5 && delay <= 10), eq(TimeUnit.MILLISECONDS));
+        assertThat(inMemoryJobService.retryPolicy().retries()).isEqualTo(1);
+
+        // the scheduled retry conflicts again
+        timer.run();
+
+        verify(processInstance, times(2)).send(any());
+        verify(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        assertThat(inMemoryJobService.retryPolicy().conflicts()).isEqualTo(2);
+        assertThat(inMemoryJobService.retryPolicy().exhausted()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipPeriodicRunsAndCancelWhileRetryIsPending() {
+        doReturn(process).when(processes).processById(PROCESS_ID);
+        givenInstanceFound();
+        doThrow(new ProcessInstanceOptimisticLockingException(PROCESS_INSTANCE_ID)).when(processInstance).send(any());
+        ScheduledFuture<?> periodic = mock(ScheduledFuture.class);
+        ScheduledFuture<?> retry = mock(ScheduledFuture.class);
+        doReturn(periodic).when(scheduler).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any());
+        doReturn(retry).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        doReturn(true).when(periodic).cancel(false);
+        doReturn(true).when(retry).cancel(false);
+        InMemoryJobService inMemoryJobService = new InMemoryJobService(scheduler, new JobRetryPolicy(3, 10, 100));
+        inMemoryJobService.registerJobExecutorFactory(new InMemoryProcessJobExecutorFactory(new InMemoryJobContext(null, unitOfWorkManager, processes, null)));
+
+        inMemoryJobService.scheduleJob(ProcessInstanceJobDescription.newProcessInstanceJobDescriptionBuilder()
+                .id(JOB_ID)
+                .timerId(TIMER_ID)
+                .expirationTime(DurationExpirationTime.repeat(10, 10L, 5))
+                .processId(PROCESS_ID)
+                .processInstanceId(PROCESS_INSTANCE_ID)
+                .build());
+        ArgumentCaptor<Runnable> periodicRun = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleAtFixedRate(periodicRun.capture(), anyLong(), anyLong(), any());
+
+        periodicRun.getValue().run();
+        verify(scheduler).schedule(any(Runnable.class), anyLong(), any());
+
+        // the retry is still pending
+        periodicRun.getValue().run();
+        verify(processInstance).send(any());
+
+        assertThat(inMemoryJobService.cancelJob(JOB_ID)).isTrue();
+        verify(retry).cancel(false);
+        verify(periodic).cancel(false);
+    }
+
+    private void givenInstanceFound() {
+        doReturn(unitOfWork).when(unitOfWorkManager).newUnitOfWork();
+        doReturn(instances).when(process).instances();
+        doReturn(Optional.of(processInstance)).when(instances).findById(PROCESS_INSTANCE_ID);
+    }
+
+    private SignalProcessInstanceOnExpiredTimer timer(String processId) {
+        InMemoryJobContext context = new InMemoryJobContext(null, unitOfWorkManager, processes, null);
+        return new SignalProcessInstanceOnExpiredTimer(jobsService, context, JOB_ID, TIMER_ID, processId, PROCESS_INSTANCE_ID, true, 1);
+    }
+}
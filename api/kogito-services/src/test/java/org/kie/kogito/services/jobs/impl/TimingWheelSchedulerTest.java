@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.services.jobs.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelSchedulerTest {
+
+    private TimingWheelScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // a small wheel, so delays span several revolutions
+        scheduler = new TimingWheelScheduler(Executors.newFixedThreadPool(2), 1, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void shouldFireAfterDelay() throws Exception {
+        long start = System.nanoTime();
+        ScheduledFuture<String> future = scheduler.schedule(() -> "fired", 50, TimeUnit.MILLISECONDS);
+
+        assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("fired");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(future.isDone()).isTrue();
+    }
+
+    @Test
+    void shouldNotFireCancelledTask() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> cancelled = scheduler.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> fired = scheduler.schedule(() -> {
+        }, 40, TimeUnit.MILLISECONDS);
+
+        assertThat(cancelled.cancel(false)).isTrue();
+        fired.get(5, TimeUnit.SECONDS);
+
+        assertThat(runs).hasValue(0);
+        assertThat(cancelled.isCancelled()).isTrue();
+    }
+
+    @Test
+    void shouldRepeatAtFixedRateUntilCancelled() throws Exception {
+        CountDownLatch latch = new CountDownLatch(3);
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(latch::countDown, 5, 5, TimeUnit.MILLISECONDS);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(future.isDone()).isFalse();
+        assertThat(future.cancel(false)).isTrue();
+        assertThat(future.isDone()).isTrue();
+    }
+
+    @Test
+    void shouldFireManyTasks() throws Exception {
+        int tasks = 10_000;
+        CountDownLatch latch = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            scheduler.schedule(latch::countDown, i % 100, TimeUnit.MILLISECONDS);
+        }
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldReturnPendingTasksOnShutdown() {
+        scheduler.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+
+        assertThat(scheduler.shutdownNow()).hasSize(1);
+        assertThat(scheduler.isShutdown()).isTrue();
+        assertThatThrownBy(() -> scheduler.schedule(() -> {
+        }, 1, TimeUnit.SECONDS)).isInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.services.signal;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kie.api.runtime.process.EventListener;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.Signal;
+import org.kie.kogito.signal.ProcessInstanceResolver;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMostOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultSignalManagerHubTest {
+
+    private static final String EVENT_TYPE = "EVENT_TYPE";
+
+    @Mock
+    private ProcessInstanceResolver<?> resolver;
+
+    @Mock
+    private ProcessInstanceResolver<?> otherResolver;
+
+    @Mock
+    private EventListener listener;
+
+    private DefaultSignalManagerHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new DefaultSignalManagerHub();
+        hub.addProcessInstanceResolver(resolver);
+    }
+
+    @Test
+    void acceptWhenInstanceWaiting() {
+        doReturn(true).when(resolver).anyWaitingForEvents(EVENT_TYPE);
+        assertThat(hub.accept(EVENT_TYPE, null)).isTrue();
+        verify(resolver, never()).waitingForEvents(anyString());
+    }
+
+    @Test
+    void acceptWhenNoInstanceWaiting() {
+        doReturn(false).when(resolver).anyWaitingForEvents(EVENT_TYPE);
+        assertThat(hub.accept(EVENT_TYPE, null)).isFalse();
+        verify(resolver, never()).waitingForEvents(anyString());
+    }
+
+    @Test
+    void acceptWhenListenerRegistered() {
+        hub.addEventListener(EVENT_TYPE, listener);
+        assertThat(hub.accept(EVENT_TYPE, null)).isTrue();
+        verifyNoInteractions(resolver);
+    }
+
+    @Test
+    void signalEventSequentially() {
+        List<ProcessInstance<?>> instances = instances(10);
+        doReturn(instances).when(resolver).waitingForEvents(EVENT_TYPE);
+
+        hub.signalEvent(EVENT_TYPE, "payload");
+
+        instances.forEach(instance -> verify(instance, times(1)).send(any(Signal.class)));
+    }
+
+    @Test
+    void signalEventFanOut() {
+        DefaultSignalManagerHub fanOutHub = new DefaultSignalManagerHub(4);
+        fanOutHub.addProcessInstanceResolver(resolver);
+        List<ProcessInstance<?>> instances = instances(100);
+        doReturn(Stream.concat(instances.stream(), instances.stream())).when(resolver).streamWaitingForEvents(EVENT_TYPE);
+
+        fanOutHub.signalEvent(EVENT_TYPE, "payload");
+
+        instances.forEach(instance -> verify(instance, times(1)).send(any(Signal.class)));
+        verify(resolver, never()).waitingForEvents(anyString());
+    }
+
+    @Test
+    void signalEventFanOutFailure() {
+        DefaultSignalManagerHub fanOutHub = new DefaultSignalManagerHub(4);
+        fanOutHub.addProcessInstanceResolver(resolver);
+        List<ProcessInstance<?>> instances = instances(10);
+        doThrow(new IllegalStateException("failed")).when(instances.get(0)).send(any(Signal.class));
+        doReturn(instances.stream()).when(resolver).streamWaitingForEvents(EVENT_TYPE);
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> fanOutHub.signalEvent(EVENT_TYPE, "payload")).withMessage("failed");
+    }
+
+    @Test
+    void signalEventToInstanceRoutedAfterFirstLookup() {
+        hub.addProcessInstanceResolver(otherResolver);
+        ProcessInstance<?> instance = instances(1).get(0);
+        doReturn(instance).when(resolver).findById("instance-0");
+
+        hub.signalEvent("instance-0", EVENT_TYPE, "payload");
+        hub.signalEvent("instance-0", EVENT_TYPE, "payload");
+
+        verify(instance, times(2)).send(any(Signal.class));
+        verify(resolver, times(2)).findById("instance-0");
+        verify(otherResolver, atMostOnce()).findById("instance-0");
+    }
+
+    @Test
+    void signalEventToRoutedInstance() {
+        hub.addProcessInstanceResolver(otherResolver);
+        ProcessInstance<?> instance = instances(1).get(0);
+        doReturn(instance).when(resolver).findById("instance-0");
+        hub.addProcessInstanceRoute("instance-0", resolver);
+
+        hub.signalEvent("instance-0", EVENT_TYPE, "payload");
+
+        verify(instance).send(any(Signal.class));
+        verifyNoInteractions(otherResolver);
+    }
+
+    @Test
+    void signalEventToRemovedRoute() {
+        hub.addProcessInstanceResolver(otherResolver);
+        hub.addProcessInstanceRoute("instance-0", resolver);
+        hub.removeProcessInstanceRoute("instance-0");
+
+        hub.signalEvent("instance-0", EVENT_TYPE, "payload");
+
+        verify(resolver).findById("instance-0");
+        verify(otherResolver).findById("instance-0");
+    }
+
+    private static List<ProcessInstance<?>> instances(int count) {
+        return IntStream.range(0, count).<ProcessInstance<?>> mapToObj(i -> {
+            ProcessInstance<?> instance = mock(ProcessInstance.class);
+            lenient().doReturn("instance-" + i).when(instance).id();
+            return instance;
+        }).toList();
+    }
+}
@@ -20,14 +20,19 @@ package org.kie.kogito.process.impl;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.jbpm.process.core.ProcessSupplier;
 import org.jbpm.process.core.timer.DateTimeUtils;
@@ -41,6 +46,8 @@ import org.kie.api.runtime.process.EventListener;
 import org.kie.api.runtime.process.WorkflowProcessInstance;
 import org.kie.kogito.Application;
 import org.kie.kogito.Model;
+import org.kie.kogito.correlation.Correlation;
+import org.kie.kogito.correlation.CorrelationInstance;
 import org.kie.kogito.correlation.CorrelationService;
 import org.kie.kogito.event.correlation.DefaultCorrelationService;
 import org.kie.kogito.internal.process.runtime.KogitoNode;
@@ -62,6 +69,7 @@ import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.ProcessInstances;
 import org.kie.kogito.process.ProcessInstancesFactory;
 import org.kie.kogito.process.ProcessVersionResolver;
+import org.kie.kogito.process.ReactiveMutableProcessInstances;
 import org.kie.kogito.process.Signal;
 import org.kie.kogito.process.SignalFactory;
 import org.kie.kogito.process.WorkItem;
@@ -73,6 +81,19 @@ import static org.kie.kogito.internal.process.workitem.KogitoWorkItemHandlerFact
 @SuppressWarnings("unchecked")
 public abstract class AbstractProcess<T extends Model> implements Process<T>, ProcessSupplier {
 
+    /**
+     * When enabled, the instances modified within a unit of work are written once when the unit ends, instead of
+     * after every operation. Disabled by default.
+     */
+    public static final String WRITE_BEHIND_PROPERTY = "kogito.process-instance.write-behind";
+
+    /**
+     * Maximum number of instance ids known to have no correlation. Correlations are only created together with the
+     * instance, so once an instance is known to have none, reloading it does not need to query the correlation service.
+     */
+    public static final String UNCORRELATED_MAX_SIZE_PROPERTY = "kogito.process-instance.uncorrelated.max-size";
+    static final int UNCORRELATED_MAX_SIZE = Integer.parseInt(System.getProperty(UNCORRELATED_MAX_SIZE_PROPERTY, "10000"));
+
     protected final ProcessRuntimeServiceProvider services;
     protected ProcessInstancesFactory processInstancesFactory;
     protected MutableProcessInstances<T> instances;
@@ -89,6 +110,12 @@ public abstract class AbstractProcess<T extends Model> implements Process<T>, Pr
     private CorrelationService correlations;
     private ProcessVersionResolver versionResolver;
     private ProcessInstanceResolver<T> processInstanceResolver;
+    private final Set<String> uncorrelatedInstances = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > UNCORRELATED_MAX_SIZE;
+        }
+    }));
 
     protected AbstractProcess() {
         this(null, new LightProcessRuntimeServiceProvider());
@@ -189,11 +216,44 @@ public abstract class AbstractProcess<T extends Model> implements Process<T>, Pr
         return instances;
     }
 
+    /**
+     * Finds an instance without holding the caller thread while the store is queried, when the instances are stored in
+     * a {@link ReactiveMutableProcessInstances}. Other stores are queried before this method returns.
+     */
+    @SuppressWarnings("unchecked")
+    public CompletionStage<Optional<ProcessInstance<T>>> findByIdAsync(String id, ProcessInstanceReadMode mode) {
+        if (instances instanceof ReactiveMutableProcessInstances<?> reactive) {
+            return ((ReactiveMutableProcessInstances<T>) reactive).findByIdAsync(id, mode);
+        }
+        return CompletableFuture.completedFuture(instances.findById(id, mode));
+    }
+
     @Override
     public CorrelationService correlations() {
         return correlations;
     }
 
+    Optional<CorrelationInstance> findCorrelation(String processInstanceId) {
+        if (uncorrelatedInstances.contains(processInstanceId)) {
+            return Optional.empty();
+        }
+        Optional<CorrelationInstance> correlation = correlations().findByCorrelatedId(processInstanceId);
+        if (correlation.isEmpty()) {
+            uncorrelatedInstances.add(processInstanceId);
+        }
+        return correlation;
+    }
+
+    void markUncorrelated(String processInstanceId) {
+        uncorrelatedInstances.add(processInstanceId);
+    }
+
+    CorrelationInstance createCorrelation(Correlation<?> correlation, String processInstanceId) {
+        CorrelationInstance correlationInstance = correlations().create(correlation, processInstanceId);
+        uncorrelatedInstances.remove(processInstanceId);
+        return correlationInstance;
+    }
+
     @Override
     public <S> void send(Signal<S> signal) {
         getProcessRuntime().signalEvent(signal.channel(), signal.payload());
@@ -206,6 +266,9 @@ public abstract class AbstractProcess<T extends Model> implements Process<T>, Pr
         } else {
             this.instances = new MapProcessInstances<>(this);
         }
+        if (Boolean.getBoolean(WRITE_BEHIND_PROPERTY)) {
+            this.instances = new WriteBehindProcessInstances<>(this.instances, () -> services.getUnitOfWorkManager().currentUnitOfWork());
+        }
         return this;
     }
 
@@ -231,7 +294,14 @@ public abstract class AbstractProcess<T extends Model> implements Process<T>, Pr
 
                 @Override
                 public List<ProcessInstance<T>> waitingForEvents(String eventType) {
-                    List<ProcessInstance<T>> list = instances.waitingForEventType(eventType, ProcessInstanceReadMode.MUTABLE)
+                    try (Stream<ProcessInstance<T>> waiting = streamWaitingForEvents(eventType)) {
+                        return waiting.toList();
+                    }
+                }
+
+                @Override
+                public Stream<ProcessInstance<T>> streamWaitingForEvents(String eventType) {
+                    return instances.waitingForEventType(eventType, ProcessInstanceReadMode.MUTABLE)
                             .map(e -> (AbstractProcessInstance<T>) e)
                             .map(pi -> {
                                 KogitoProcessRuntime runtime = getProcessRuntime();
@@ -241,9 +311,12 @@ public abstract class AbstractProcess<T extends Model> implements Process<T>, Pr
                                 }
                                 return pi;
                             })
-                            .map(e -> (ProcessInstance<T>) e)
-                            .toList();
-                    return list;
+                            .map(e -> (ProcessInstance<T>) e);
+                }
+
+                @Override
+                public boolean anyWaitingForEvents(String eventType) {
+                    return instances.anyWaitingForEventType(eventType);
                 }
 
                 @Override
@@ -258,6 +331,18 @@ public abstract class AbstractProcess<T extends Model> implements Process<T>, Pr
         this.activated = true;
     }
 
+    void addInstanceRoute(String processInstanceId) {
+        if (processInstanceResolver != null && this.services.getSignalManager() instanceof SignalManagerHub signalManagerHub) {
+            signalManagerHub.addProcessInstanceRoute(processInstanceId, processInstanceResolver);
+        }
+    }
+
+    void removeInstanceRoute(String processInstanceId) {
+        if (processInstanceResolver != null && this.services.getSignalManager() instanceof SignalManagerHub signalManagerHub) {
+            signalManagerHub.removeProcessInstanceRoute(processInstanceId);
+        }
+    }
+
     @Override
     public void deactivate() {
         if (this.services.getSignalManager() instanceof SignalManagerHub signalManagerHub) {
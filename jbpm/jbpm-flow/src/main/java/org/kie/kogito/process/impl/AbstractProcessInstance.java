@@ -30,6 +30,10 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -69,6 +73,7 @@ import org.kie.kogito.process.ProcessError;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstanceExecutionException;
 import org.kie.kogito.process.ProcessInstanceNotFoundException;
+import org.kie.kogito.process.ReactiveMutableProcessInstances;
 import org.kie.kogito.process.Signal;
 import org.kie.kogito.process.WorkItem;
 import org.kie.kogito.process.flexible.AdHocFragment;
@@ -77,6 +82,9 @@ import org.kie.kogito.process.impl.lock.ContextAwareProcessInstanceLockStrategy;
 import org.kie.kogito.process.impl.lock.ProcessInstanceAtomicLockStrategy;
 import org.kie.kogito.process.impl.lock.ProcessInstanceLockStrategy;
 import org.kie.kogito.process.workitems.InternalKogitoWorkItem;
+import org.kie.kogito.services.uow.PassThroughUnitOfWork;
+import org.kie.kogito.uow.UnitOfWork;
+import org.kie.kogito.uow.UnitOfWorkManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -86,6 +94,14 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
 
     private static final String KOGITO_PROCESS_INSTANCE = "KogitoProcessInstance";
 
+    /**
+     * Milliseconds the state loaded by a read operation is kept for the read operations following it in the same unit
+     * of work, instead of being reloaded and unmarshalled every time. Write operations always reload the state, so
+     * optimistic locking sees the stored version. Disabled by default.
+     */
+    public static final String READ_CACHE_TTL_PROPERTY = "kogito.process-instance.read-cache.ttl";
+    private static final long READ_CACHE_TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(System.getProperty(READ_CACHE_TTL_PROPERTY, "0")));
+
     protected final T variables;
     protected final AbstractProcess<T> process;
     protected InternalProcessRuntime rt;
@@ -111,6 +127,14 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
 
     private ProcessInstanceLockStrategy processInstanceLockStrategy;
 
+    private long readCacheTtlNanos = READ_CACHE_TTL_NANOS;
+    // set while processInstance holds the state of a finished read operation
+    private long retainedUntil;
+    private long retainedVersion;
+    private UnitOfWork retainedFor;
+    // set while the write of the state is deferred to the end of the unit of work
+    private boolean writePending;
+
     public AbstractProcessInstance(AbstractProcess<T> process, T variables, ProcessRuntime rt) {
         this(process, variables, null, rt);
     }
@@ -142,7 +166,9 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
         workflowProcessInstance.setMetaData(KOGITO_PROCESS_INSTANCE, this);
         internalSetProcessInstance(workflowProcessInstance);
         if (Objects.nonNull(correlation)) {
-            this.correlationInstance = Optional.of(process.correlations().create(correlation, id()));
+            this.correlationInstance = Optional.of(process.createCorrelation(correlation, id()));
+        } else {
+            process.markUncorrelated(id());
         }
     }
 
@@ -197,6 +223,11 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
     }
 
     public WorkflowProcessInstanceImpl internalLoadProcessInstanceState() {
+        releaseRetainedState();
+        return loadProcessInstanceState();
+    }
+
+    private WorkflowProcessInstanceImpl loadProcessInstanceState() {
         LOG.debug("internal reload process instance {}", id);
         internalLoadState();
         if (isProcessInstanceConnected()) {
@@ -218,7 +249,7 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
     protected void reconnect() {
         LOG.debug("reconnect process instance {}", id);
         if (correlationInstance.isEmpty()) {
-            correlationInstance = process().correlations().findByCorrelatedId(id());
+            correlationInstance = process.findCorrelation(id());
         }
 
         if (processInstance.getKnowledgeRuntime() == null) {
@@ -281,7 +312,9 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
                 break;
             default:
                 // already persisted. PENDING means that it has not started yet
-                processInstance = null;
+                if (!writePending) {
+                    processInstance = null;
+                }
                 break;
         }
     }
@@ -311,6 +344,7 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
     }
 
     public void internalSetProcessInstance(WorkflowProcessInstance processInstance) {
+        this.retainedUntil = 0;
         this.processInstance = processInstance;
         processInstance.wrap(this);
     }
@@ -370,6 +404,7 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
                 getProcessRuntime().getProcessInstanceManager().addProcessInstance(workflowProcessInstance);
             }
             ((MutableProcessInstances<T>) process.instances()).remove(this.id());
+            process.removeInstanceRoute(this.id());
             String pid = workflowProcessInstance.getStringId();
             getProcessRuntime().getKogitoProcessRuntime().abortProcessInstance(pid);
 
@@ -588,6 +623,24 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
         return executeInWorkflowProcessInstance(execution);
     }
 
+    /**
+     * Same as {@link #executeInWorkflowProcessInstanceWrite(Function)}, but when the instances are stored in a
+     * {@link ReactiveMutableProcessInstances} the outcome is written without holding the caller thread while the store
+     * operation is in flight. The returned stage completes once the instance is stored, the next operation on this
+     * instance must wait for it. Other stores, and writes deferred to the end of the unit of work, are written before
+     * this method returns.
+     *
+     * @param <R>
+     * @param execution
+     * @return
+     */
+    public <R> CompletionStage<R> executeInWorkflowProcessInstanceWriteAsync(Function<WorkflowProcessInstanceImpl, R> execution) {
+        checkWriteOnly();
+        AtomicReference<CompletionStage<Void>> stored = new AtomicReference<>(CompletableFuture.completedFuture(null));
+        R outcome = executeInWorkflowProcessInstance(execution, pi -> stored.set(asyncPersistence(pi)));
+        return stored.get().thenApply(v -> outcome);
+    }
+
     private void checkWriteOnly() {
         if (this.rt == null) {
             throw new UnsupportedOperationException("Process instance " + id + " in read mode");
@@ -604,14 +657,64 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
      */
     public <R> R executeInWorkflowProcessInstanceRead(Function<WorkflowProcessInstanceImpl, R> execution) {
         return processInstanceLockStrategy.executeOperation(id, () -> {
-            WorkflowProcessInstanceImpl workflowProcessInstance = internalLoadProcessInstanceState();
+            if (!isRetainedStateValid()) {
+                releaseRetainedState();
+            }
+            WorkflowProcessInstanceImpl workflowProcessInstance = loadProcessInstanceState();
             R outcome = execution.apply(workflowProcessInstance);
-            internalUnloadProcessInstanceState();
+            if (canRetainState()) {
+                internalUnloadProcessInstanceState();
+                this.processInstance = workflowProcessInstance;
+                this.retainedUntil = System.nanoTime() + readCacheTtlNanos;
+                this.retainedVersion = version;
+                this.retainedFor = retainingUnitOfWork();
+            } else {
+                internalUnloadProcessInstanceState();
+            }
             return outcome;
         });
     }
 
+    /**
+     * Only the state of stored instances is retained, since the state of instances not stored yet, or finished, is
+     * never reloaded anyway. The retained state is not validated against the store, so it is only reused within the
+     * real unit of work that read it; without one, every read loads the stored state again.
+     */
+    private boolean canRetainState() {
+        if (readCacheTtlNanos <= 0 || reloadSupplier == null || processInstance == null || writePending || retainingUnitOfWork() == null) {
+            return false;
+        }
+        int state = processInstance.getState();
+        return state != STATE_PENDING && state != STATE_COMPLETED && state != STATE_ABORTED;
+    }
+
+    private boolean isRetainedStateValid() {
+        return retainedUntil != 0 && System.nanoTime() - retainedUntil < 0 && retainedVersion == version && retainedFor != null && retainedFor == retainingUnitOfWork();
+    }
+
+    private void releaseRetainedState() {
+        if (retainedUntil != 0) {
+            retainedUntil = 0;
+            retainedFor = null;
+            processInstance = null;
+        }
+    }
+
+    private UnitOfWork retainingUnitOfWork() {
+        UnitOfWorkManager unitOfWorkManager = rt != null ? rt.getUnitOfWorkManager() : process.services == null ? null : process.services.getUnitOfWorkManager();
+        UnitOfWork current = unitOfWorkManager == null ? null : unitOfWorkManager.currentUnitOfWork();
+        return current instanceof PassThroughUnitOfWork ? null : current;
+    }
+
+    void internalSetReadCacheTtl(long millis) {
+        this.readCacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
     private <R> R executeInWorkflowProcessInstance(Function<WorkflowProcessInstanceImpl, R> execution) {
+        return executeInWorkflowProcessInstance(execution, this::syncPersistence);
+    }
+
+    private <R> R executeInWorkflowProcessInstance(Function<WorkflowProcessInstanceImpl, R> execution, Consumer<WorkflowProcessInstanceImpl> persistence) {
         // Check if this is a reentrant call before entering the lock
         boolean isReentrant = processInstanceLockStrategy.isLockedByCurrentThread(id);
 
@@ -636,7 +739,7 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
             }
 
             if (isProcessInstanceConnected()) {
-                syncPersistence(workflowProcessInstance);
+                persistence.accept(workflowProcessInstance);
                 getProcessRuntime().getProcessInstanceManager().removeProcessInstance(workflowProcessInstance);
             }
 
@@ -775,24 +878,99 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
     }
 
     protected void syncPersistence(WorkflowProcessInstanceImpl workflowProcessInstanceImpl) {
+        // PENDING means that it has not started yet, so it is not stored unless it has been reloaded from the store
+        boolean stored = workflowProcessInstanceImpl.getState() != KogitoProcessInstance.STATE_PENDING || reloadSupplier != null;
+        if (writePending || (process.instances() instanceof WriteBehindProcessInstances<T> writeBehind && writeBehind.defer(this, stored))) {
+            writePending = true;
+            return;
+        }
+        writePersistence(workflowProcessInstanceImpl, stored);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletionStage<Void> asyncPersistence(WorkflowProcessInstanceImpl workflowProcessInstanceImpl) {
+        if (writePending || !(process.instances() instanceof ReactiveMutableProcessInstances<?>)) {
+            syncPersistence(workflowProcessInstanceImpl);
+            return CompletableFuture.completedFuture(null);
+        }
+        ReactiveMutableProcessInstances<T> instances = (ReactiveMutableProcessInstances<T>) process.instances();
+        boolean stored = workflowProcessInstanceImpl.getState() != KogitoProcessInstance.STATE_PENDING || reloadSupplier != null;
+        switch (workflowProcessInstanceImpl.getState()) {
+            case KogitoProcessInstance.STATE_ABORTED, KogitoProcessInstance.STATE_COMPLETED:
+                correlationInstance.map(CorrelationInstance::getCorrelation).ifPresent(c -> process.correlations().delete(c));
+                process.removeInstanceRoute(this.id());
+                return stored ? instances.removeAsync(this.id()) : CompletableFuture.completedFuture(null);
+            default:
+                if (!stored) {
+                    return instances.createAsync(this.id(), this).thenRun(() -> process.addInstanceRoute(this.id()));
+                }
+                return instances.updateAsync(this.id(), this);
+        }
+    }
+
+    private void writePersistence(WorkflowProcessInstanceImpl workflowProcessInstanceImpl, boolean stored) {
         switch (workflowProcessInstanceImpl.getState()) {
             case KogitoProcessInstance.STATE_ABORTED, KogitoProcessInstance.STATE_COMPLETED:
                 correlationInstance.map(CorrelationInstance::getCorrelation).ifPresent(c -> process.correlations().delete(c));
-                ((MutableProcessInstances<T>) process.instances()).remove(this.id());
+                if (stored) {
+                    ((MutableProcessInstances<T>) process.instances()).remove(this.id());
+                }
+                process.removeInstanceRoute(this.id());
                 break;
-            case KogitoProcessInstance.STATE_PENDING:
-                if (reloadSupplier == null) {
+            case KogitoProcessInstance.STATE_PENDING, KogitoProcessInstance.STATE_ACTIVE, KogitoProcessInstance.STATE_ERROR, KogitoProcessInstance.STATE_SUSPENDED:
+                if (!stored) {
                     ((MutableProcessInstances<T>) process.instances()).create(this.id(), this);
+                    process.addInstanceRoute(this.id());
                 } else {
                     ((MutableProcessInstances<T>) process.instances()).update(this.id(), this);
                 }
                 break;
-            case KogitoProcessInstance.STATE_ACTIVE, KogitoProcessInstance.STATE_ERROR, KogitoProcessInstance.STATE_SUSPENDED:
-                ((MutableProcessInstances<T>) process.instances()).update(this.id(), this);
-                break;
         }
     }
 
+    /**
+     * Writes the state kept since the write was deferred, invoked when the unit of work ends.
+     *
+     * @param stored whether the instance was already in the store when the write was deferred
+     */
+    void internalFlushPersistence(boolean stored) {
+        processInstanceLockStrategy.executeOperation(id, () -> {
+            writePending = false;
+            if (processInstance == null) {
+                return null;
+            }
+            WorkflowProcessInstanceImpl workflowProcessInstance = (WorkflowProcessInstanceImpl) processInstance;
+            if (isProcessInstanceConnected()) {
+                workflowProcessInstance = loadProcessInstanceState();
+                getProcessRuntime().getProcessInstanceManager().addProcessInstance(workflowProcessInstance);
+                writePersistence(workflowProcessInstance, stored);
+                getProcessRuntime().getProcessInstanceManager().removeProcessInstance(workflowProcessInstance);
+                internalUnloadProcessInstanceState();
+            } else {
+                writePersistence(workflowProcessInstance, stored);
+            }
+            return null;
+        });
+    }
+
+    boolean internalIsExecutedByCurrentThread() {
+        return processInstanceLockStrategy.isLockedByCurrentThread(id);
+    }
+
+    /**
+     * Drops the state kept since the write was deferred, invoked when the unit of work is aborted. Stored instances
+     * are reloaded from the store by the next operation.
+     */
+    void internalDiscardPendingWrite() {
+        processInstanceLockStrategy.executeOperation(id, () -> {
+            writePending = false;
+            if (reloadSupplier != null) {
+                processInstance = null;
+            }
+            return null;
+        });
+    }
+
     // this must be overridden at compile time
     protected Map<String, Object> bind(T variables) {
         HashMap<String, Object> vmap = new HashMap<>();
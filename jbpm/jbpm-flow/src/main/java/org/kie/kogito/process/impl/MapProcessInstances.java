@@ -93,6 +93,11 @@ class MapProcessInstances<T extends Model> implements MutableProcessInstances<T>
         return instances.values().stream().map(e -> toProcessInstance(e, mode));
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        return !eventTypes.getOrDefault(eventType, Collections.emptyList()).isEmpty();
+    }
+
     @Override
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
         List<String> processInstanceIds = eventTypes.getOrDefault(eventType, Collections.emptyList());
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.process.impl;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.ProcessInstanceDuplicatedException;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceReadMode;
+import org.kie.kogito.services.uow.PassThroughUnitOfWork;
+import org.kie.kogito.uow.UnitOfWork;
+import org.kie.kogito.uow.WorkUnit;
+
+/**
+ * Process instances store that defers the writes of the instances modified within a unit of work until the unit
+ * ends, so an instance modified by several operations is written only once, with its final state. Writes are
+ * discarded if the unit of work is aborted.
+ * <p>
+ * Instances are only deferred when there is a unit of work collecting work, otherwise they are written through.
+ * Lookups by id done within the same unit of work return the instance with the pending write, since the store does
+ * not know about it yet. Queries by event type, business key or streams first write the pending instances of the
+ * current unit of work, so they see the same instances as without write behind. Creating an instance whose id is
+ * already stored fails right away, as it does without write behind.
+ */
+class WriteBehindProcessInstances<T> implements MutableProcessInstances<T> {
+
+    private final MutableProcessInstances<T> delegate;
+    private final Supplier<UnitOfWork> unitOfWork;
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    WriteBehindProcessInstances(MutableProcessInstances<T> delegate, Supplier<UnitOfWork> unitOfWork) {
+        this.delegate = delegate;
+        this.unitOfWork = unitOfWork;
+    }
+
+    /**
+     * Registers the write of the given instance in the current unit of work.
+     *
+     * @param instance instance to be written
+     * @param stored whether the instance is already in the store, if not it will be created
+     * @return false if the write could not be deferred and must be done right away
+     */
+    boolean defer(AbstractProcessInstance<T> instance, boolean stored) {
+        UnitOfWork current = unitOfWork.get();
+        if (current == null || current instanceof PassThroughUnitOfWork) {
+            return false;
+        }
+        if (!stored && !pending.containsKey(instance.id()) && delegate.exists(instance.id())) {
+            throw new ProcessInstanceDuplicatedException(instance.id());
+        }
+        PendingWrite write = pending.computeIfAbsent(instance.id(), id -> new PendingWrite(instance, current, stored));
+        if (write.instance != instance || write.unitOfWork != current) {
+            // another copy of the instance, or another unit of work, already owns the pending write
+            return false;
+        }
+        current.intercept(write);
+        return true;
+    }
+
+    /**
+     * Writes the pending instances of the current unit of work. The ones being executed by this thread are skipped,
+     * their state is still changing and is written once their operation ends, as without write behind.
+     */
+    private void flushPending() {
+        UnitOfWork current = unitOfWork.get();
+        if (current == null || pending.isEmpty()) {
+            return;
+        }
+        for (PendingWrite write : pending.values()) {
+            if (write.unitOfWork == current && !write.instance.internalIsExecutedByCurrentThread()) {
+                write.perform();
+            }
+        }
+    }
+
+    @Override
+    public Optional<ProcessInstance<T>> findById(String id, ProcessInstanceReadMode mode) {
+        PendingWrite write = pending.get(id);
+        if (write != null && write.unitOfWork == unitOfWork.get()) {
+            return Optional.of(write.instance);
+        }
+        return delegate.findById(id, mode);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        PendingWrite write = pending.get(id);
+        if (write != null && write.unitOfWork == unitOfWork.get()) {
+            return true;
+        }
+        return delegate.exists(id);
+    }
+
+    @Override
+    public void create(String id, ProcessInstance<T> instance) {
+        delegate.create(id, instance);
+    }
+
+    @Override
+    public void update(String id, ProcessInstance<T> instance) {
+        delegate.update(id, instance);
+    }
+
+    @Override
+    public void remove(String id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public boolean isActive(ProcessInstance<T> instance) {
+        return delegate.isActive(instance);
+    }
+
+    @Override
+    public boolean lock() {
+        return delegate.lock();
+    }
+
+    @Override
+    public Optional<ProcessInstance<T>> findByBusinessKey(String id, ProcessInstanceReadMode mode) {
+        flushPending();
+        return delegate.findByBusinessKey(id, mode);
+    }
+
+    @Override
+    public Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode) {
+        flushPending();
+        return delegate.stream(mode);
+    }
+
+    @Override
+    public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
+        flushPending();
+        return delegate.waitingForEventType(eventType, mode);
+    }
+
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        flushPending();
+        return delegate.anyWaitingForEventType(eventType);
+    }
+
+    @Override
+    public Stream<ProcessInstance<T>> acceptingEventType(String signalName, String id) {
+        flushPending();
+        return delegate.acceptingEventType(signalName, id);
+    }
+
+    @Override
+    public void migrateProcessInstances(String targetProcessId, String targetProcessVersion, String... processIds) {
+        delegate.migrateProcessInstances(targetProcessId, targetProcessVersion, processIds);
+    }
+
+    @Override
+    public long migrateAll(String targetProcessId, String targetProcessVersion) {
+        return delegate.migrateAll(targetProcessId, targetProcessVersion);
+    }
+
+    private class PendingWrite implements WorkUnit<ProcessInstance<T>> {
+
+        private final AbstractProcessInstance<T> instance;
+        private final UnitOfWork unitOfWork;
+        private final boolean stored;
+
+        PendingWrite(AbstractProcessInstance<T> instance, UnitOfWork unitOfWork, boolean stored) {
+            this.instance = instance;
+            this.unitOfWork = unitOfWork;
+            this.stored = stored;
+        }
+
+        @Override
+        public ProcessInstance<T> data() {
+            return instance;
+        }
+
+        @Override
+        public void perform() {
+            // already written if a query flushed it before the unit of work ended
+            if (pending.remove(instance.id(), this)) {
+                instance.internalFlushPersistence(stored);
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (pending.remove(instance.id(), this)) {
+                instance.internalDiscardPendingWrite();
+            }
+        }
+
+        @Override
+        public Integer priority() {
+            // the instance must be stored before the work depending on it, like timers, is performed
+            return HIGH_PRIORITY;
+        }
+    }
+}
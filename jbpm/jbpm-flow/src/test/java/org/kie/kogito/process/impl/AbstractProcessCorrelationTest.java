@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.process.impl;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.Model;
+import org.kie.kogito.correlation.CorrelationInstance;
+import org.kie.kogito.correlation.CorrelationService;
+import org.kie.kogito.correlation.SimpleCorrelation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class AbstractProcessCorrelationTest {
+
+    private CorrelationService correlations;
+    private AbstractProcess<Model> process;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setup() {
+        correlations = mock(CorrelationService.class);
+        when(correlations.findByCorrelatedId(any())).thenReturn(Optional.empty());
+        process = mock(AbstractProcess.class, withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS));
+        doReturn(correlations).when(process).correlations();
+    }
+
+    @Test
+    void testReloadOfUncorrelatedInstanceSkipsLookup() {
+        assertThat(process.findCorrelation("instance")).isEmpty();
+        assertThat(process.findCorrelation("instance")).isEmpty();
+
+        verify(correlations, times(1)).findByCorrelatedId("instance");
+    }
+
+    @Test
+    void testInstanceMarkedOnCreationSkipsLookup() {
+        process.markUncorrelated("instance");
+
+        assertThat(process.findCorrelation("instance")).isEmpty();
+        verify(correlations, times(0)).findByCorrelatedId("instance");
+    }
+
+    @Test
+    void testCreatingCorrelationClearsMark() {
+        SimpleCorrelation<String> correlation = new SimpleCorrelation<>("key", "value");
+        CorrelationInstance correlationInstance = new CorrelationInstance("correlation", "instance", correlation);
+        when(correlations.create(correlation, "instance")).thenReturn(correlationInstance);
+        process.markUncorrelated("instance");
+
+        assertThat(process.createCorrelation(correlation, "instance")).isSameAs(correlationInstance);
+
+        when(correlations.findByCorrelatedId("instance")).thenReturn(Optional.of(correlationInstance));
+        assertThat(process.findCorrelation("instance")).containsSame(correlationInstance);
+        verify(correlations, times(1)).findByCorrelatedId("instance");
+    }
+
+    @Test
+    void testMarksAreEvictedAtMaxSize() {
+        for (int i = 0; i <= AbstractProcess.UNCORRELATED_MAX_SIZE; i++) {
+            process.markUncorrelated("instance-" + i);
+        }
+
+        assertThat(process.findCorrelation("instance-" + AbstractProcess.UNCORRELATED_MAX_SIZE)).isEmpty();
+        verify(correlations, times(0)).findByCorrelatedId(any());
+
+        assertThat(process.findCorrelation("instance-0")).isEmpty();
+        verify(correlations, times(1)).findByCorrelatedId("instance-0");
+    }
+}
@@ -22,6 +22,9 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jbpm.process.instance.InternalProcessRuntime;
 import org.jbpm.process.instance.ProcessInstanceManager;
@@ -34,21 +37,28 @@ import org.junit.jupiter.api.Test;
 import org.kie.api.definition.process.Process;
 import org.kie.kogito.Model;
 import org.kie.kogito.correlation.CorrelationService;
+import org.kie.kogito.event.impl.BaseEventManager;
 import org.kie.kogito.internal.process.runtime.KogitoProcessInstance;
 import org.kie.kogito.internal.process.runtime.KogitoProcessRuntime;
 import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.ProcessInstanceDuplicatedException;
+import org.kie.kogito.process.ReactiveMutableProcessInstances;
+import org.kie.kogito.services.uow.CollectingUnitOfWork;
+import org.kie.kogito.services.uow.PassThroughUnitOfWork;
 import org.kie.kogito.uow.UnitOfWork;
 import org.kie.kogito.uow.UnitOfWorkManager;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class AbstractProcessInstanceTest {
 
@@ -63,9 +73,14 @@ public class AbstractProcessInstanceTest {
     @Mock
     private UnitOfWork unitOfWork;
 
+    @Mock
+    private UnitOfWorkManager unitOfWorkManager;
+
     @Mock
     private MutableProcessInstances instances;
 
+    private AbstractProcess<TestModel> process;
+
     private AbstractProcessInstance<TestModel> processInstance;
 
     @SuppressWarnings("unchecked")
@@ -73,7 +88,7 @@ public class AbstractProcessInstanceTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
 
-        AbstractProcess<TestModel> process = mock(AbstractProcess.class);
+        process = mock(AbstractProcess.class);
         Process piProcess = mock(Process.class);
         when(process.process()).thenReturn(piProcess);
         when(process.instances()).thenReturn(instances);
@@ -81,7 +96,6 @@ public class AbstractProcessInstanceTest {
         InternalProcessRuntime pr = mock(InternalProcessRuntime.class);
         when(pr.createProcessInstance(any(), any(), any())).thenReturn(wpi);
         when(pr.getProcessInstanceManager()).thenReturn(pim);
-        UnitOfWorkManager unitOfWorkManager = mock(UnitOfWorkManager.class);
         when(pr.getUnitOfWorkManager()).thenReturn(unitOfWorkManager);
         KogitoProcessRuntime kogitoProcessRuntime = mock(KogitoProcessRuntime.class);
         when(pr.getKogitoProcessRuntime()).thenReturn(kogitoProcessRuntime);
@@ -135,6 +149,147 @@ public class AbstractProcessInstanceTest {
         return nodeInstance;
     }
 
+    @Test
+    public void shouldReuseStateLoadedByReadOperations() {
+        AtomicInteger loads = givenStoredInstance();
+        processInstance.internalSetReadCacheTtl(60_000);
+
+        processInstance.findNodes(node -> true);
+        processInstance.findNodes(node -> true);
+        assertThat(loads).hasValue(1);
+
+        processInstance.setVersion(2L);
+        processInstance.findNodes(node -> true);
+        assertThat(loads).hasValue(2);
+
+        processInstance.internalLoadProcessInstanceState();
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    public void shouldReloadStateOutsideUnitOfWork() {
+        AtomicInteger loads = givenStoredInstance();
+        processInstance.internalSetReadCacheTtl(60_000);
+
+        when(unitOfWorkManager.currentUnitOfWork()).thenReturn(new PassThroughUnitOfWork());
+        processInstance.findNodes(node -> true);
+        processInstance.findNodes(node -> true);
+        assertThat(loads).hasValue(2);
+
+        when(unitOfWorkManager.currentUnitOfWork()).thenReturn(null);
+        processInstance.findNodes(node -> true);
+        processInstance.findNodes(node -> true);
+        assertThat(loads).hasValue(4);
+
+        when(unitOfWorkManager.currentUnitOfWork()).thenReturn(unitOfWork);
+        processInstance.findNodes(node -> true);
+        when(unitOfWorkManager.currentUnitOfWork()).thenReturn(mock(UnitOfWork.class));
+        processInstance.findNodes(node -> true);
+        assertThat(loads).hasValue(6);
+    }
+
+    @Test
+    public void shouldReloadStateWithoutReadCache() {
+        AtomicInteger loads = givenStoredInstance();
+
+        processInstance.findNodes(node -> true);
+        processInstance.findNodes(node -> true);
+        assertThat(loads).hasValue(2);
+    }
+
+    private AtomicInteger givenStoredInstance() {
+        when(wpi.getState()).thenReturn(KogitoProcessInstance.STATE_ACTIVE);
+        processInstance.internalUnloadProcessInstanceState();
+        AtomicInteger loads = new AtomicInteger();
+        processInstance.internalSetReloadSupplier(pi -> {
+            loads.incrementAndGet();
+            pi.internalSetProcessInstance(wpi);
+        });
+        return loads;
+    }
+
+    @Test
+    public void shouldWriteInstanceOnceWhenUnitOfWorkEnds() {
+        AtomicInteger loads = givenStoredInstance();
+        givenExistingNode(NODE_ID);
+        UnitOfWork collecting = givenWriteBehind();
+
+        processInstance.triggerNode(NODE_ID);
+        processInstance.triggerNode(NODE_ID);
+        verify(instances, never()).update(any(), any());
+        assertThat(processInstance.internalGetProcessInstance()).isSameAs(wpi);
+
+        collecting.end();
+        verify(instances, times(1)).update(processInstance.id(), processInstance);
+        assertThat(loads).hasValue(1);
+        assertThat(processInstance.internalGetProcessInstance()).isNull();
+    }
+
+    @Test
+    public void shouldDiscardPendingWriteWhenUnitOfWorkAborts() {
+        AtomicInteger loads = givenStoredInstance();
+        givenExistingNode(NODE_ID);
+        UnitOfWork collecting = givenWriteBehind();
+
+        processInstance.triggerNode(NODE_ID);
+        collecting.abort();
+        verify(instances, never()).update(any(), any());
+        assertThat(processInstance.internalGetProcessInstance()).isNull();
+
+        processInstance.internalLoadProcessInstanceState();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void shouldWritePendingInstanceBeforeQueries() {
+        givenStoredInstance();
+        givenExistingNode(NODE_ID);
+        UnitOfWork collecting = givenWriteBehind();
+
+        processInstance.triggerNode(NODE_ID);
+        verify(instances, never()).update(any(), any());
+
+        process.instances().waitingForEventType("event");
+        verify(instances, times(1)).update(processInstance.id(), processInstance);
+
+        collecting.end();
+        verify(instances, times(1)).update(processInstance.id(), processInstance);
+    }
+
+    @Test
+    public void shouldFailRightAwayWhenCreatingDuplicatedInstance() {
+        givenWriteBehind();
+        when(instances.exists(processInstance.id())).thenReturn(true);
+
+        assertThatThrownBy(() -> processInstance.start()).isInstanceOf(ProcessInstanceDuplicatedException.class);
+        verify(instances, never()).create(any(), any());
+    }
+
+    private UnitOfWork givenWriteBehind() {
+        UnitOfWork collecting = new CollectingUnitOfWork(new BaseEventManager());
+        collecting.start();
+        WriteBehindProcessInstances<TestModel> writeBehind = new WriteBehindProcessInstances<>(instances, () -> collecting);
+        when(process.instances()).thenReturn(writeBehind);
+        return collecting;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldWriteWithoutWaitingForReactiveStore() {
+        givenStoredInstance();
+        MutableProcessInstances<TestModel> reactiveInstances = mock(MutableProcessInstances.class, withSettings().extraInterfaces(ReactiveMutableProcessInstances.class));
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        when(((ReactiveMutableProcessInstances<TestModel>) reactiveInstances).updateAsync(any(), any())).thenReturn(written);
+        when(process.instances()).thenReturn(reactiveInstances);
+
+        CompletionStage<String> outcome = processInstance.executeInWorkflowProcessInstanceWriteAsync(pi -> "done");
+        assertThat(outcome.toCompletableFuture()).isNotDone();
+        verify(reactiveInstances, never()).update(any(), any());
+
+        written.complete(null);
+        assertThat(outcome.toCompletableFuture()).isCompletedWithValue("done");
+    }
+
     @Test
     public void testVersion() {
         processInstance.setVersion(10L);
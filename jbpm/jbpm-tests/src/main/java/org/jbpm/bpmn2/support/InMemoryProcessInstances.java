@@ -135,6 +135,11 @@ public class InMemoryProcessInstances<T extends Model> implements MutableProcess
         ((AbstractProcessInstance<?>) instance).internalSetReloadSupplier(marshaller.createdReloadFunction(supplier));
     }
 
+    @Override
+    public boolean anyWaitingForEventType(String eventType) {
+        return !eventTypes.getOrDefault(eventType, Collections.emptyList()).isEmpty();
+    }
+
     @Override
     public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
         List<String> processInstanceIds = eventTypes.getOrDefault(eventType, Collections.emptyList());
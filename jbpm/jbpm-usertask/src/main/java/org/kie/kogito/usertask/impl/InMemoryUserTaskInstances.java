@@ -21,12 +21,13 @@ package org.kie.kogito.usertask.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.kie.kogito.auth.IdentityProvider;
@@ -40,18 +41,33 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+/**
+ * User task instances kept in memory, serialized so every lookup returns its own copy.
+ * <p>
+ * Besides the serialized task, the fields used by the queries are kept and indexed by user (actual owner, potential
+ * and admin users), group (potential and admin groups), process instance and status. Queries only read and
+ * deserialize the tasks found through the indexes that match.
+ */
 public class InMemoryUserTaskInstances implements UserTaskInstances {
 
     private static Logger LOG = LoggerFactory.getLogger(InMemoryUserTaskInstances.class);
 
-    private Map<String, byte[]> userTaskInstances;
+    private Map<String, IndexedTask> userTaskInstances;
+    private Map<String, Set<String>> byUser;
+    private Map<String, Set<String>> byGroup;
+    private Map<String, Set<String>> byProcessInstance;
+    private Map<String, Set<String>> byStatus;
     private Function<UserTaskInstance, UserTaskInstance> reconnectUserTaskInstance;
     private Function<UserTaskInstance, UserTaskInstance> disconnectUserTaskInstance;
     private ObjectMapper mapper;
 
     public InMemoryUserTaskInstances() {
         LOG.info("Initializing InMemoryUsertaskInstances");
-        this.userTaskInstances = new HashMap<>();
+        this.userTaskInstances = new ConcurrentHashMap<>();
+        this.byUser = new ConcurrentHashMap<>();
+        this.byGroup = new ConcurrentHashMap<>();
+        this.byProcessInstance = new ConcurrentHashMap<>();
+        this.byStatus = new ConcurrentHashMap<>();
         this.reconnectUserTaskInstance = null;
         this.disconnectUserTaskInstance = null;
         this.mapper = new ObjectMapper();
@@ -71,11 +87,11 @@ public class InMemoryUserTaskInstances implements UserTaskInstances {
     @Override
     public Optional<UserTaskInstance> findById(String userTaskInstanceId) {
         try {
-            if (!userTaskInstances.containsKey(userTaskInstanceId)) {
+            IndexedTask task = userTaskInstances.get(userTaskInstanceId);
+            if (task == null) {
                 return Optional.empty();
             }
-            UserTaskInstance userTaskInstance = mapper.readValue(userTaskInstances.get(userTaskInstanceId), DefaultUserTaskInstance.class);
-            return Optional.ofNullable(reconnectUserTaskInstance.apply(userTaskInstance));
+            return Optional.ofNullable(reconnectUserTaskInstance.apply(read(task)));
         } catch (Exception e) {
             // The replace calls are sanitization of the user input. The userTaskInstanceId has a way to reach here from the user.
             LOG.error("during find by Id {}", userTaskInstanceId.replace('\n', '_').replace('\r', '_'), e);
@@ -85,115 +101,84 @@ public class InMemoryUserTaskInstances implements UserTaskInstances {
 
     @Override
     public List<UserTaskInstance> findByIdentity(IdentityProvider identity) {
+        return findByIdentity(identity, null);
+    }
+
+    @Override
+    public List<UserTaskInstance> findByIdentity(IdentityProvider identity, UserTaskFilter filter) {
         try {
-            String user = identity.getName();
-            Collection<String> roles = identity.getRoles();
-            List<UserTaskInstance> users = new ArrayList<>();
-            for (String id : userTaskInstances.keySet()) {
-                UserTaskInstance userTaskInstance = mapper.readValue(userTaskInstances.get(id), DefaultUserTaskInstance.class);
-                if (checkVisibility(userTaskInstance, user, roles)) {
-                    users.add(reconnectUserTaskInstance.apply(userTaskInstance));
-                }
-            }
-            return users;
+            return read(findIds(identity, filter));
         } catch (Exception e) {
-            LOG.error("during find by Identity {}", identity.getName(), e);
+            LOG.error("during find by Identity and Filter {}", identity.getName(), e);
             return Collections.emptyList();
         }
     }
 
     @Override
-    public List<UserTaskInstance> findByIdentity(IdentityProvider identity, UserTaskFilter filter) {
+    public List<UserTaskInstance> findByIdentity(IdentityProvider identity, UserTaskFilter filter, int offset, int limit) {
         try {
-            // Start with identity-based filtering
-            List<UserTaskInstance> tasks = findByIdentity(identity);
-
-            // If no filter provided, return all tasks for this identity
-            if (filter == null) {
-                return tasks;
-            }
-
-            // Apply business logic filters
-            List<UserTaskInstance> filteredTasks = new ArrayList<>();
-            for (UserTaskInstance task : tasks) {
-                if (matchesFilter(task, filter)) {
-                    filteredTasks.add(task);
-                }
-            }
-            return filteredTasks;
+            List<String> ids = findIds(identity, filter);
+            Collections.sort(ids);
+            int from = Math.min(Math.max(offset, 0), ids.size());
+            int to = Math.min(from + Math.max(limit, 0), ids.size());
+            return read(ids.subList(from, to));
         } catch (Exception e) {
             LOG.error("during find by Identity and Filter {}", identity.getName(), e);
             return Collections.emptyList();
         }
     }
 
-    private boolean matchesFilter(UserTaskInstance task, UserTaskFilter filter) {
-        // Process ID filter (exact match)
-        if (filter.processId() != null) {
-            ProcessInfo info = task.getProcessInfo();
-            if (info == null || !filter.processId().equals(info.getProcessId())) {
-                return false;
+    private List<String> findIds(IdentityProvider identity, UserTaskFilter filter) {
+        String user = identity.getName();
+        Set<String> roles = identity.getRoles() == null ? Collections.emptySet() : new HashSet<>(identity.getRoles());
+        List<String> ids = new ArrayList<>();
+        for (String id : candidates(user, roles, filter)) {
+            IndexedTask task = userTaskInstances.get(id);
+            if (task != null && task.isVisible(user, roles) && task.matches(filter)) {
+                ids.add(id);
             }
         }
+        return ids;
+    }
 
-        // Process Instance ID filter (exact match)
-        if (filter.processInstanceId() != null) {
-            ProcessInfo info = task.getProcessInfo();
-            if (info == null || !filter.processInstanceId().equals(info.getProcessInstanceId())) {
-                return false;
+    /**
+     * Returns the ids of the tasks that may match, taken from the most selective index. They still need to be checked
+     * against the task, since other criteria apply and the indexes might have changed since.
+     */
+    private Set<String> candidates(String user, Set<String> roles, UserTaskFilter filter) {
+        Set<String> candidates = new HashSet<>();
+        addAll(candidates, byUser, user);
+        roles.forEach(role -> addAll(candidates, byGroup, role));
+        if (filter != null && filter.processInstanceId() != null) {
+            Set<String> processInstanceTasks = byProcessInstance.getOrDefault(filter.processInstanceId(), Collections.emptySet());
+            if (processInstanceTasks.size() < candidates.size()) {
+                return new HashSet<>(processInstanceTasks);
             }
         }
-
-        // Status filter (exact match against persisted state name)
-        if (filter.statuses() != null && !filter.statuses().isEmpty()) {
-            boolean statusMatches = filter.statuses().stream()
-                    .anyMatch(status -> status.equals(task.getStatus().getName()));
-            if (!statusMatches) {
-                return false;
+        if (filter != null && filter.statuses() != null && !filter.statuses().isEmpty()) {
+            Set<String> statusTasks = new HashSet<>();
+            filter.statuses().forEach(status -> addAll(statusTasks, byStatus, status));
+            if (statusTasks.size() < candidates.size()) {
+                return statusTasks;
             }
         }
+        return candidates;
+    }
 
-        // Task name filter (exact match)
-        if (filter.taskName() != null) {
-            String taskName = task.getTaskName();
-            if (taskName == null || !taskName.equals(filter.taskName())) {
-                return false;
+    private List<UserTaskInstance> read(Collection<String> ids) throws Exception {
+        List<UserTaskInstance> tasks = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            IndexedTask task = userTaskInstances.get(id);
+            // removed since it was found
+            if (task != null) {
+                tasks.add(reconnectUserTaskInstance.apply(read(task)));
             }
         }
-
-        return true;
+        return tasks;
     }
 
-    private boolean checkVisibility(UserTaskInstance userTaskInstance, String user, Collection<String> roles) {
-        Set<String> adminUsers = userTaskInstance.getAdminUsers();
-        if (adminUsers.contains(user)) {
-            return true;
-        }
-
-        Set<String> userAdminGroups = new HashSet<>(userTaskInstance.getAdminGroups());
-        userAdminGroups.retainAll(roles);
-        if (!userAdminGroups.isEmpty()) {
-            return true;
-        }
-
-        if (userTaskInstance.getActualOwner() != null && userTaskInstance.getActualOwner().equals(user)) {
-            return true;
-        }
-
-        // there is no user
-        Set<String> users = new HashSet<>(userTaskInstance.getPotentialUsers());
-        users.removeAll(userTaskInstance.getExcludedUsers());
-        if (users.contains(user)) {
-            return true;
-        }
-
-        Set<String> userPotGroups = new HashSet<>(userTaskInstance.getPotentialGroups());
-        userPotGroups.retainAll(roles);
-        if (!userPotGroups.isEmpty()) {
-            return true;
-        }
-
-        return false;
+    private UserTaskInstance read(IndexedTask task) throws Exception {
+        return mapper.readValue(task.data, DefaultUserTaskInstance.class);
     }
 
     @Override
@@ -205,8 +190,7 @@ public class InMemoryUserTaskInstances implements UserTaskInstances {
     public UserTaskInstance create(UserTaskInstance userTaskInstance) {
         try {
             LOG.trace("create {}", userTaskInstance);
-            byte[] data = mapper.writeValueAsBytes(userTaskInstance);
-            userTaskInstances.put(userTaskInstance.getId(), data);
+            store(userTaskInstance);
             return reconnectUserTaskInstance.apply(userTaskInstance);
         } catch (Exception e) {
             LOG.error("during create {}", userTaskInstance.getId(), e);
@@ -218,8 +202,7 @@ public class InMemoryUserTaskInstances implements UserTaskInstances {
     public UserTaskInstance update(UserTaskInstance userTaskInstance) {
         try {
             LOG.trace("update {}", userTaskInstance);
-            byte[] data = mapper.writeValueAsBytes(userTaskInstance);
-            userTaskInstances.put(userTaskInstance.getId(), data);
+            store(userTaskInstance);
             return userTaskInstance;
         } catch (Exception e) {
             LOG.error("during udpate {}", userTaskInstance.getId(), e);
@@ -230,11 +213,16 @@ public class InMemoryUserTaskInstances implements UserTaskInstances {
     @Override
     public UserTaskInstance remove(UserTaskInstance userTaskInstance) {
         try {
-            if (!userTaskInstances.containsKey(userTaskInstance.getId())) {
+            IndexedTask[] removed = new IndexedTask[1];
+            userTaskInstances.computeIfPresent(userTaskInstance.getId(), (id, task) -> {
+                unindex(task);
+                removed[0] = task;
+                return null;
+            });
+            if (removed[0] == null) {
                 return null;
             }
             LOG.trace("remove {}", userTaskInstance);
-            userTaskInstances.remove(userTaskInstance.getId());
             return disconnectUserTaskInstance.apply(userTaskInstance);
         } catch (Exception e) {
             LOG.error("during remove {}", userTaskInstance, e);
@@ -242,4 +230,154 @@ public class InMemoryUserTaskInstances implements UserTaskInstances {
         }
     }
 
+    private void store(UserTaskInstance userTaskInstance) throws Exception {
+        IndexedTask task = new IndexedTask(userTaskInstance, mapper.writeValueAsBytes(userTaskInstance));
+        // the previous version is unindexed and the new one indexed while holding the entry, so concurrent writes of the same task do not mix
+        userTaskInstances.compute(task.id, (id, previous) -> {
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(task);
+            return task;
+        });
+    }
+
+    private void index(IndexedTask task) {
+        task.users().forEach(user -> add(byUser, user, task.id));
+        task.groups().forEach(group -> add(byGroup, group, task.id));
+        add(byProcessInstance, task.processInstanceId, task.id);
+        add(byStatus, task.status, task.id);
+    }
+
+    private void unindex(IndexedTask task) {
+        task.users().forEach(user -> remove(byUser, user, task.id));
+        task.groups().forEach(group -> remove(byGroup, group, task.id));
+        remove(byProcessInstance, task.processInstanceId, task.id);
+        remove(byStatus, task.status, task.id);
+    }
+
+    private static void add(Map<String, Set<String>> index, String key, String id) {
+        if (key != null) {
+            index.compute(key, (k, ids) -> {
+                Set<String> result = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                result.add(id);
+                return result;
+            });
+        }
+    }
+
+    private static void remove(Map<String, Set<String>> index, String key, String id) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static void addAll(Set<String> target, Map<String, Set<String>> index, String key) {
+        if (key != null) {
+            Set<String> ids = index.get(key);
+            if (ids != null) {
+                target.addAll(ids);
+            }
+        }
+    }
+
+    /**
+     * Serialized task along with the fields used to find it.
+     */
+    private static class IndexedTask {
+
+        private final String id;
+        private final byte[] data;
+        private final String actualOwner;
+        private final Set<String> potentialUsers;
+        private final Set<String> excludedUsers;
+        private final Set<String> potentialGroups;
+        private final Set<String> adminUsers;
+        private final Set<String> adminGroups;
+        private final String processId;
+        private final String processInstanceId;
+        private final String status;
+        private final String taskName;
+
+        IndexedTask(UserTaskInstance userTaskInstance, byte[] data) {
+            this.id = userTaskInstance.getId();
+            this.data = data;
+            this.actualOwner = userTaskInstance.getActualOwner();
+            this.potentialUsers = copy(userTaskInstance.getPotentialUsers());
+            this.excludedUsers = copy(userTaskInstance.getExcludedUsers());
+            this.potentialGroups = copy(userTaskInstance.getPotentialGroups());
+            this.adminUsers = copy(userTaskInstance.getAdminUsers());
+            this.adminGroups = copy(userTaskInstance.getAdminGroups());
+            ProcessInfo processInfo = userTaskInstance.getProcessInfo();
+            this.processId = processInfo != null ? processInfo.getProcessId() : null;
+            this.processInstanceId = processInfo != null ? processInfo.getProcessInstanceId() : null;
+            this.status = userTaskInstance.getStatus() != null ? userTaskInstance.getStatus().getName() : null;
+            this.taskName = userTaskInstance.getTaskName();
+        }
+
+        private static Set<String> copy(Set<String> values) {
+            return values == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(values));
+        }
+
+        Set<String> users() {
+            Set<String> users = new HashSet<>(potentialUsers);
+            users.addAll(adminUsers);
+            if (actualOwner != null) {
+                users.add(actualOwner);
+            }
+            return users;
+        }
+
+        Set<String> groups() {
+            Set<String> groups = new HashSet<>(potentialGroups);
+            groups.addAll(adminGroups);
+            return groups;
+        }
+
+        boolean isVisible(String user, Set<String> roles) {
+            if (adminUsers.contains(user)) {
+                return true;
+            }
+            if (containsAny(adminGroups, roles)) {
+                return true;
+            }
+            if (actualOwner != null && actualOwner.equals(user)) {
+                return true;
+            }
+            // excluded users only restrict the potential users
+            if (potentialUsers.contains(user) && !excludedUsers.contains(user)) {
+                return true;
+            }
+            return containsAny(potentialGroups, roles);
+        }
+
+        private static boolean containsAny(Set<String> groups, Set<String> roles) {
+            for (String group : groups) {
+                if (roles.contains(group)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matches(UserTaskFilter filter) {
+            if (filter == null) {
+                return true;
+            }
+            if (filter.processId() != null && !filter.processId().equals(processId)) {
+                return false;
+            }
+            if (filter.processInstanceId() != null && !filter.processInstanceId().equals(processInstanceId)) {
+                return false;
+            }
+            // exact match against the persisted state name
+            if (filter.statuses() != null && !filter.statuses().isEmpty() && !filter.statuses().contains(status)) {
+                return false;
+            }
+            return filter.taskName() == null || Objects.equals(filter.taskName(), taskName);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.usertask.impl;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.auth.IdentityProvider;
+import org.kie.kogito.usertask.UserTaskFilter;
+import org.kie.kogito.usertask.UserTaskInstance;
+import org.kie.kogito.usertask.lifecycle.UserTaskState;
+import org.kie.kogito.usertask.model.ProcessInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InMemoryUserTaskInstancesTest {
+
+    private InMemoryUserTaskInstances instances;
+
+    @BeforeEach
+    public void setup() {
+        instances = new InMemoryUserTaskInstances();
+        instances.setReconnectUserTaskInstance(task -> task);
+        instances.setDisconnectUserTaskInstance(task -> task);
+    }
+
+    @Test
+    public void testFindByIdentityThroughGroups() {
+        DefaultUserTaskInstance potential = createTask("task1", "pi1", "Ready");
+        potential.setPotentialGroups(Set.of("managers"));
+        DefaultUserTaskInstance admin = createTask("task2", "pi1", "Ready");
+        admin.setAdminGroups(Set.of("admins"));
+        instances.create(potential);
+        instances.create(admin);
+
+        assertThat(ids(instances.findByIdentity(identity("mary", "managers")))).containsExactly("task1");
+        assertThat(ids(instances.findByIdentity(identity("mary", "admins")))).containsExactly("task2");
+        assertThat(instances.findByIdentity(identity("mary", "others"))).isEmpty();
+    }
+
+    @Test
+    public void testExcludedUserOnlyRestrictsPotentialUsers() {
+        DefaultUserTaskInstance task = createTask("task1", "pi1", "Ready");
+        task.setPotentialUsers(Set.of("john"));
+        task.setExcludedUsers(Set.of("john"));
+        task.setPotentialGroups(Set.of("managers"));
+        instances.create(task);
+
+        assertThat(instances.findByIdentity(identity("john"))).isEmpty();
+        assertThat(ids(instances.findByIdentity(identity("john", "managers")))).containsExactly("task1");
+    }
+
+    @Test
+    public void testUpdateReindexesTask() {
+        DefaultUserTaskInstance task = createTask("task1", "pi1", "Ready");
+        task.setPotentialUsers(Set.of("john"));
+        instances.create(task);
+
+        task.setActualOwner("mary");
+        task.setPotentialUsers(Set.of("mary"));
+        task.setStatus(UserTaskState.of("Reserved"));
+        instances.update(task);
+
+        assertThat(instances.findByIdentity(identity("john"))).isEmpty();
+        assertThat(ids(instances.findByIdentity(identity("mary"), UserTaskFilter.builder().statuses(List.of("Reserved")).build()))).containsExactly("task1");
+        assertThat(instances.findByIdentity(identity("mary"), UserTaskFilter.builder().statuses(List.of("Ready")).build())).isEmpty();
+    }
+
+    @Test
+    public void testRemoveUnindexesTask() {
+        DefaultUserTaskInstance task = createTask("task1", "pi1", "Ready");
+        task.setPotentialUsers(Set.of("john"));
+        instances.create(task);
+
+        assertThat(instances.remove(task)).isNotNull();
+        assertThat(instances.remove(task)).isNull();
+        assertThat(instances.exists("task1")).isFalse();
+        assertThat(instances.findByIdentity(identity("john"))).isEmpty();
+    }
+
+    @Test
+    public void testFindByIdentityPage() {
+        for (int i = 0; i < 10; i++) {
+            DefaultUserTaskInstance task = createTask("task" + i, i % 2 == 0 ? "pi1" : "pi2", "Ready");
+            task.setPotentialUsers(Set.of("john"));
+            instances.create(task);
+        }
+
+        assertThat(ids(instances.findByIdentity(identity("john"), null, 0, 3))).containsExactly("task0", "task1", "task2");
+        assertThat(ids(instances.findByIdentity(identity("john"), null, 8, 3))).containsExactly("task8", "task9");
+        assertThat(ids(instances.findByIdentity(identity("john"), UserTaskFilter.builder().processInstanceId("pi2").build(), 1, 2))).containsExactly("task3", "task5");
+    }
+
+    private static IdentityProvider identity(String user, String... roles) {
+        IdentityProvider identity = mock(IdentityProvider.class);
+        when(identity.getName()).thenReturn(user);
+        when(identity.getRoles()).thenReturn(List.of(roles));
+        return identity;
+    }
+
+    private static List<String> ids(List<UserTaskInstance> tasks) {
+        return tasks.stream().map(UserTaskInstance::getId).sorted().toList();
+    }
+
+    private static DefaultUserTaskInstance createTask(String id, String processInstanceId, String status) {
+        DefaultUserTaskInstance task = new DefaultUserTaskInstance();
+        task.setId(id);
+        task.setTaskName("task");
+        task.setProcessInfo(ProcessInfo.builder()
+                .withProcessId("process")
+                .withProcessInstanceId(processInstanceId)
+                .build());
+        task.setStatus(UserTaskState.of(status));
+        return task;
+    }
+}
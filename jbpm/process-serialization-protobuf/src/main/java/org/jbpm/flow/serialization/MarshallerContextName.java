@@ -28,6 +28,12 @@ public final class MarshallerContextName<T> {
 
     public static final MarshallerContextName<ObjectMarshallerStrategy[]> OBJECT_MARSHALLING_STRATEGIES =
             new MarshallerContextName<>("OBJECT_MARSHALLING_STRATEGIES", () -> new ObjectMarshallerStrategy[0]);
+    public static final MarshallerContextName<ObjectMarshallerStrategyCache> OBJECT_MARSHALLING_STRATEGY_CACHE = new MarshallerContextName<>("OBJECT_MARSHALLING_STRATEGY_CACHE");
+    /**
+     * Whether variables record the class name of their value. It is informational only, never read back, so it may be
+     * disabled to shrink the stored instances.
+     */
+    public static final MarshallerContextName<Boolean> MARSHALLER_VARIABLE_DATA_TYPE = new MarshallerContextName<>("VARIABLE_DATA_TYPE", () -> Boolean.TRUE);
     public static final MarshallerContextName<String> MARSHALLER_FORMAT = new MarshallerContextName<>("FORMAT");
     public static final MarshallerContextName<Process<?>> MARSHALLER_PROCESS = new MarshallerContextName<>("PROCESS");
     public static final MarshallerContextName<RuleFlowProcessInstance> MARSHALLER_PROCESS_INSTANCE = new MarshallerContextName<>("PROCESS_INSTANCE");
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jbpm.flow.serialization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.protobuf.Any;
+
+/**
+ * Remembers which strategy handles each runtime class and each packed type, so marshalling a variable does not probe
+ * every registered strategy. Strategies are expected to decide on the class of the value (or the type of the packed
+ * message) only, which holds for all the strategies shipped with the engine.
+ */
+public final class ObjectMarshallerStrategyCache {
+
+    private final ObjectMarshallerStrategy[] strategies;
+    private final Map<Class<?>, ObjectMarshallerStrategy> marshallers = new ConcurrentHashMap<>();
+    private final Map<String, ObjectMarshallerStrategy> unmarshallers = new ConcurrentHashMap<>();
+
+    public ObjectMarshallerStrategyCache(ObjectMarshallerStrategy[] strategies) {
+        this.strategies = strategies;
+    }
+
+    public ObjectMarshallerStrategy[] strategies() {
+        return strategies;
+    }
+
+    /**
+     * @return the first strategy accepting the value, <code>null</code> if there is none
+     */
+    public ObjectMarshallerStrategy findForMarshalling(Object value) {
+        ObjectMarshallerStrategy strategy = marshallers.get(value.getClass());
+        if (strategy == null) {
+            for (ObjectMarshallerStrategy current : strategies) {
+                if (current.acceptForMarshalling(value)) {
+                    marshallers.put(value.getClass(), current);
+                    return current;
+                }
+            }
+        }
+        return strategy;
+    }
+
+    /**
+     * @return the first strategy accepting the packed value, <code>null</code> if there is none
+     */
+    public ObjectMarshallerStrategy findForUnmarshalling(Any value) {
+        ObjectMarshallerStrategy strategy = unmarshallers.get(value.getTypeUrl());
+        if (strategy == null) {
+            for (ObjectMarshallerStrategy current : strategies) {
+                if (current.acceptForUnmarshalling(value)) {
+                    unmarshallers.put(value.getTypeUrl(), current);
+                    return current;
+                }
+            }
+        }
+        return strategy;
+    }
+}
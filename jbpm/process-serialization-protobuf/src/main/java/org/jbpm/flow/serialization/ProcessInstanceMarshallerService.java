@@ -20,6 +20,9 @@ package org.jbpm.flow.serialization;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +34,8 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.jbpm.flow.serialization.impl.ProtobufProcessInstanceMarshallerFactory;
+import org.jbpm.flow.serialization.impl.ProtobufProcessInstancePatch;
+import org.jbpm.flow.serialization.protobuf.KogitoProcessInstanceProtobuf;
 import org.jbpm.util.JbpmClassLoaderUtil;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
@@ -39,11 +44,19 @@ import org.kie.kogito.process.impl.AbstractProcessInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.protobuf.InvalidProtocolBufferException;
+
 public class ProcessInstanceMarshallerService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProcessInstanceMarshallerService.class);
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    // buffers grown beyond this size by an unusually large instance are not kept around
+    private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ReusableOutputStream> BUFFERS = new ThreadLocal<>();
 
     private List<ObjectMarshallerStrategy> strats;
 
+    private ObjectMarshallerStrategyCache strategyCache;
+
     private List<ProcessInstanceMarshallerListener> listeners;
 
     private Map<MarshallerContextName<Object>, Object> contextEntries;
@@ -125,6 +138,8 @@ public class ProcessInstanceMarshallerService {
             Collections.sort(ProcessInstanceMarshallerService.this.strats);
             Collections.sort(ProcessInstanceMarshallerService.this.readers);
             Collections.sort(ProcessInstanceMarshallerService.this.writers);
+            ProcessInstanceMarshallerService.this.strategyCache =
+                    new ObjectMarshallerStrategyCache(ProcessInstanceMarshallerService.this.strats.toArray(ObjectMarshallerStrategy[]::new));
             return ProcessInstanceMarshallerService.this;
         }
 
@@ -143,31 +158,81 @@ public class ProcessInstanceMarshallerService {
     }
 
     protected void setupEnvironment(MarshallerContext env) {
-        env.set(MarshallerContextName.OBJECT_MARSHALLING_STRATEGIES, strats.toArray(new ObjectMarshallerStrategy[strats.size()]));
+        if (strategyCache != null) {
+            env.set(MarshallerContextName.OBJECT_MARSHALLING_STRATEGIES, strategyCache.strategies());
+            env.set(MarshallerContextName.OBJECT_MARSHALLING_STRATEGY_CACHE, strategyCache);
+        } else {
+            env.set(MarshallerContextName.OBJECT_MARSHALLING_STRATEGIES, strats.toArray(new ObjectMarshallerStrategy[strats.size()]));
+        }
 
         for (Map.Entry<MarshallerContextName<Object>, Object> entry : contextEntries.entrySet()) {
             env.set(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Marshalls the process instance into a buffer reused by the calling thread, the returned array is the only copy made.
+     */
     public byte[] marshallProcessInstance(ProcessInstance<?> processInstance) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            MarshallerWriterContext context = processInstanceMarshallerFactory.newWriterContext(baos);
+        ReusableOutputStream buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new ReusableOutputStream();
+        } else {
+            // a marshalling nested in this one gets its own buffer
+            BUFFERS.remove();
+        }
+        try {
+            marshallProcessInstance(processInstance, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.reset();
+            if (buffer.capacity() <= MAX_REUSED_BUFFER_SIZE) {
+                BUFFERS.set(buffer);
+            }
+        }
+    }
+
+    /**
+     * Marshalls the process instance straight into the given stream, which is neither flushed nor closed.
+     */
+    public void marshallProcessInstance(ProcessInstance<?> processInstance, OutputStream output) {
+        try {
+            MarshallerWriterContext context = processInstanceMarshallerFactory.newWriterContext(output);
             context.set(MarshallerContextName.MARSHALLER_PROCESS, processInstance.process());
             context.set(MarshallerContextName.MARSHALLER_INSTANCE_LISTENER, listeners.toArray(ProcessInstanceMarshallerListener[]::new));
             context.set(MarshallerContextName.MARSHALLER_NODE_INSTANCE_WRITER, this.writers.toArray(NodeInstanceWriter[]::new));
             setupEnvironment(context);
             org.jbpm.flow.serialization.ProcessInstanceMarshaller marshaller = processInstanceMarshallerFactory.newKogitoProcessInstanceMarshaller();
             marshaller.writeProcessInstance(context, processInstance);
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new ProcessInstanceMarshallerException("Error while marshalling process instance", e);
         }
     }
 
     public ProcessInstance<?> unmarshallProcessInstance(byte[] data, Process<?> process, boolean readOnly) {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(data)) {
-            MarshallerReaderContext context = processInstanceMarshallerFactory.newReaderContext(bais);
+        return unmarshallProcessInstance(new ByteArrayInputStream(data), process, readOnly);
+    }
+
+    /**
+     * Unmarshalls the process instance reading the remaining bytes of the buffer, without copying them.
+     * The position of the given buffer is left untouched.
+     */
+    public ProcessInstance<?> unmarshallProcessInstance(ByteBuffer data, Process<?> process, ProcessInstanceReadMode mode) {
+        InputStream input = data.hasArray() ? new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(), data.remaining())
+                : new ByteBufferInputStream(data.duplicate());
+        return unmarshallProcessInstance(input, process, mode.isReadOnly());
+    }
+
+    /**
+     * Unmarshalls the process instance reading it straight from the given stream, which is not closed.
+     */
+    public ProcessInstance<?> unmarshallProcessInstance(InputStream data, Process<?> process, ProcessInstanceReadMode mode) {
+        return unmarshallProcessInstance(data, process, mode.isReadOnly());
+    }
+
+    private ProcessInstance<?> unmarshallProcessInstance(InputStream data, Process<?> process, boolean readOnly) {
+        try {
+            MarshallerReaderContext context = processInstanceMarshallerFactory.newReaderContext(data);
             context.set(MarshallerContextName.MARSHALLER_PROCESS, process);
             context.set(MarshallerContextName.MARSHALLER_INSTANCE_READ_ONLY, readOnly);
             context.set(MarshallerContextName.MARSHALLER_INSTANCE_LISTENER, listeners.toArray(ProcessInstanceMarshallerListener[]::new));
@@ -217,4 +282,79 @@ public class ProcessInstanceMarshallerService {
     public ProcessInstance<?> unmarshallProcessInstance(byte[] data, Process<?> process, ProcessInstanceReadMode mode) {
         return unmarshallProcessInstance(data, process, mode.isReadOnly());
     }
+
+    /**
+     * Computes the patch turning a previously marshalled base into the given snapshot of the same instance, so stores
+     * can write only what changed since the base. Returns <code>null</code> when the snapshot should be written as the
+     * new base instead: instances are marshalled as json, the change cannot be expressed as a patch or the patch has
+     * grown to half the size of the snapshot.
+     */
+    public byte[] createProcessInstancePatch(byte[] base, byte[] snapshot) {
+        if (MarshallerContextName.MARSHALLER_FORMAT_JSON.equals(contextEntries.get(MarshallerContextName.MARSHALLER_FORMAT))) {
+            return null;
+        }
+        try {
+            KogitoProcessInstanceProtobuf.ProcessInstance patch = ProtobufProcessInstancePatch.diff(KogitoProcessInstanceProtobuf.ProcessInstance.parseFrom(base),
+                    KogitoProcessInstanceProtobuf.ProcessInstance.parseFrom(snapshot));
+            return patch == null || patch.getSerializedSize() * 2 > snapshot.length ? null : patch.toByteArray();
+        } catch (InvalidProtocolBufferException e) {
+            throw new ProcessInstanceMarshallerException("Error while computing process instance patch", e);
+        }
+    }
+
+    /**
+     * Applies a patch created by {@link #createProcessInstancePatch(byte[], byte[])} to its base, returning the
+     * marshalled instance it describes.
+     */
+    public byte[] applyProcessInstancePatch(byte[] base, byte[] patch) {
+        try {
+            return ProtobufProcessInstancePatch.apply(KogitoProcessInstanceProtobuf.ProcessInstance.parseFrom(base),
+                    KogitoProcessInstanceProtobuf.ProcessInstance.parseFrom(patch)).toByteArray();
+        } catch (InvalidProtocolBufferException e) {
+            throw new ProcessInstanceMarshallerException("Error while applying process instance patch", e);
+        }
+    }
+
+    private static class ReusableOutputStream extends ByteArrayOutputStream {
+
+        ReusableOutputStream() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
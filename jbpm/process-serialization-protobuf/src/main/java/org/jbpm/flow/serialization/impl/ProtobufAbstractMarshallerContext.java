@@ -25,6 +25,7 @@ import java.util.function.BiPredicate;
 import org.jbpm.flow.serialization.MarshallerContext;
 import org.jbpm.flow.serialization.MarshallerContextName;
 import org.jbpm.flow.serialization.ObjectMarshallerStrategy;
+import org.jbpm.flow.serialization.ObjectMarshallerStrategyCache;
 import org.jbpm.flow.serialization.ProcessInstanceMarshallerException;
 
 import com.google.protobuf.Any;
@@ -51,12 +52,29 @@ public abstract class ProtobufAbstractMarshallerContext implements MarshallerCon
 
     @Override
     public ObjectMarshallerStrategy findObjectMarshallerStrategyFor(Object value) {
-        return findMarshaller(value, (s, v) -> s.acceptForMarshalling(v));
+        ObjectMarshallerStrategyCache cache = strategyCache();
+        return cache != null ? found(cache.findForMarshalling(value), value) : findMarshaller(value, (s, v) -> s.acceptForMarshalling(v));
     }
 
     @Override
     public ObjectMarshallerStrategy findObjectUnmarshallerStrategyFor(Any value) {
-        return findMarshaller(value, (s, v) -> s.acceptForUnmarshalling((Any) v));
+        ObjectMarshallerStrategyCache cache = strategyCache();
+        return cache != null ? found(cache.findForUnmarshalling(value), value) : findMarshaller(value, (s, v) -> s.acceptForUnmarshalling((Any) v));
+    }
+
+    /**
+     * The cache is only used when it was built for the strategies of this context.
+     */
+    private ObjectMarshallerStrategyCache strategyCache() {
+        ObjectMarshallerStrategyCache cache = get(MarshallerContextName.OBJECT_MARSHALLING_STRATEGY_CACHE);
+        return cache != null && cache.strategies() == get(MarshallerContextName.OBJECT_MARSHALLING_STRATEGIES) ? cache : null;
+    }
+
+    private static ObjectMarshallerStrategy found(ObjectMarshallerStrategy strategy, Object value) {
+        if (strategy == null) {
+            throw new ProcessInstanceMarshallerException("No marshaller found for class " + value.getClass().getName());
+        }
+        return strategy;
     }
 
     private ObjectMarshallerStrategy findMarshaller(Object value, BiPredicate<ObjectMarshallerStrategy, Object> type) {
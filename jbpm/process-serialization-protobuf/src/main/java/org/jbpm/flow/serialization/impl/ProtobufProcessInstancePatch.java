@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jbpm.flow.serialization.impl;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpm.flow.serialization.ProcessInstanceMarshallerException;
+import org.jbpm.flow.serialization.protobuf.KogitoProcessInstanceProtobuf.ProcessInstance;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.NodeInstance;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.Variable;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.WorkflowContext;
+
+/**
+ * Computes and applies patches between a base process instance and a later state of the same instance.
+ * <p>
+ * A patch is itself a process instance message: it carries the current header fields, only the variables and top level
+ * node instances that differ from the base and the node ids completed since the base was written. Node instances left
+ * untouched are kept as stubs holding just their id, so the patch also records their order and which ones are gone.
+ * Patches are always computed against the base, never against a previous patch, so applying one needs the base only.
+ */
+public final class ProtobufProcessInstancePatch {
+
+    private ProtobufProcessInstancePatch() {
+    }
+
+    /**
+     * @return the patch turning base into current, <code>null</code> when the change cannot be expressed as a patch
+     *         and current has to be written as a new base
+     */
+    public static ProcessInstance diff(ProcessInstance base, ProcessInstance current) {
+        if (!base.getId().equals(current.getId()) || base.hasContext() != current.hasContext()) {
+            return null;
+        }
+        List<String> baseCompleted = base.getCompletedNodeIdsList();
+        List<String> currentCompleted = current.getCompletedNodeIdsList();
+        if (currentCompleted.size() < baseCompleted.size() || !currentCompleted.subList(0, baseCompleted.size()).equals(baseCompleted)) {
+            return null;
+        }
+        ProcessInstance.Builder patch = current.toBuilder()
+                .clearCompletedNodeIds()
+                .addAllCompletedNodeIds(currentCompleted.subList(baseCompleted.size(), currentCompleted.size()));
+        if (current.hasContext()) {
+            WorkflowContext context = diff(base.getContext(), current.getContext());
+            if (context == null) {
+                return null;
+            }
+            patch.setContext(context);
+        }
+        return patch.build();
+    }
+
+    private static WorkflowContext diff(WorkflowContext base, WorkflowContext current) {
+        Map<String, Variable> baseVariables = new HashMap<>();
+        for (Variable variable : base.getVariableList()) {
+            baseVariables.put(variable.getName(), variable);
+        }
+        WorkflowContext.Builder patch = current.toBuilder().clearVariable().clearNodeInstance();
+        for (Variable variable : current.getVariableList()) {
+            if (!variable.equals(baseVariables.remove(variable.getName()))) {
+                patch.addVariable(variable);
+            }
+        }
+        if (!baseVariables.isEmpty()) {
+            // a variable missing from the patch is an unchanged one, removals need a new base
+            return null;
+        }
+        Map<String, NodeInstance> baseNodeInstances = nodeInstancesById(base);
+        for (NodeInstance nodeInstance : current.getNodeInstanceList()) {
+            if (isStub(nodeInstance)) {
+                return null;
+            }
+            patch.addNodeInstance(nodeInstance.equals(baseNodeInstances.get(nodeInstance.getId())) ? stub(nodeInstance) : nodeInstance);
+        }
+        return patch.build();
+    }
+
+    /**
+     * @return the state described by the patch, as if it had been written in full
+     */
+    public static ProcessInstance apply(ProcessInstance base, ProcessInstance patch) {
+        if (!base.getId().equals(patch.getId())) {
+            throw new ProcessInstanceMarshallerException("Patch of process instance " + patch.getId() + " cannot be applied to process instance " + base.getId());
+        }
+        ProcessInstance.Builder result = patch.toBuilder()
+                .clearCompletedNodeIds()
+                .addAllCompletedNodeIds(base.getCompletedNodeIdsList())
+                .addAllCompletedNodeIds(patch.getCompletedNodeIdsList());
+        if (patch.hasContext()) {
+            result.setContext(apply(patch.getId(), base.getContext(), patch.getContext()));
+        }
+        return result.build();
+    }
+
+    private static WorkflowContext apply(String id, WorkflowContext base, WorkflowContext patch) {
+        Map<String, Variable> changedVariables = new LinkedHashMap<>();
+        for (Variable variable : patch.getVariableList()) {
+            changedVariables.put(variable.getName(), variable);
+        }
+        WorkflowContext.Builder result = patch.toBuilder().clearVariable().clearNodeInstance();
+        for (Variable variable : base.getVariableList()) {
+            Variable changed = changedVariables.remove(variable.getName());
+            result.addVariable(changed != null ? changed : variable);
+        }
+        result.addAllVariable(changedVariables.values());
+
+        Map<String, NodeInstance> baseNodeInstances = nodeInstancesById(base);
+        for (NodeInstance nodeInstance : patch.getNodeInstanceList()) {
+            if (isStub(nodeInstance)) {
+                NodeInstance unchanged = baseNodeInstances.get(nodeInstance.getId());
+                if (unchanged == null) {
+                    throw new ProcessInstanceMarshallerException("Node instance " + nodeInstance.getId() + " of process instance " + id + " is missing from the base");
+                }
+                result.addNodeInstance(unchanged);
+            } else {
+                result.addNodeInstance(nodeInstance);
+            }
+        }
+        return result.build();
+    }
+
+    private static Map<String, NodeInstance> nodeInstancesById(WorkflowContext context) {
+        Map<String, NodeInstance> nodeInstances = new HashMap<>();
+        for (NodeInstance nodeInstance : context.getNodeInstanceList()) {
+            nodeInstances.put(nodeInstance.getId(), nodeInstance);
+        }
+        return nodeInstances;
+    }
+
+    private static NodeInstance stub(NodeInstance nodeInstance) {
+        return NodeInstance.newBuilder().setId(nodeInstance.getId()).build();
+    }
+
+    // every node instance written in full refers to its node, stubs do not
+    private static boolean isStub(NodeInstance nodeInstance) {
+        return nodeInstance.getNodeId().isEmpty();
+    }
+}
@@ -19,11 +19,10 @@
 package org.jbpm.flow.serialization.impl;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
+import org.jbpm.flow.serialization.MarshallerContextName;
 import org.jbpm.flow.serialization.MarshallerWriterContext;
 import org.jbpm.flow.serialization.ObjectMarshallerStrategy;
 import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf;
@@ -41,17 +40,20 @@ public class ProtobufVariableWriter {
     }
 
     public List<KogitoTypesProtobuf.Variable> buildVariables(List<Map.Entry<String, Object>> variables) {
-        Comparator<Map.Entry<String, Object>> comparator = (o1, o2) -> o1.getKey().compareTo(o2.getKey());
-        Collections.sort(variables, comparator);
+        variables.sort(Map.Entry.comparingByKey());
+        boolean includeDataType = context.get(MarshallerContextName.MARSHALLER_VARIABLE_DATA_TYPE);
 
-        List<KogitoTypesProtobuf.Variable> variablesProtobuf = new ArrayList<>();
+        List<KogitoTypesProtobuf.Variable> variablesProtobuf = new ArrayList<>(variables.size());
         for (Map.Entry<String, Object> entry : variables) {
             KogitoTypesProtobuf.Variable.Builder variableBuilder = KogitoTypesProtobuf.Variable.newBuilder();
             variableBuilder.setName(entry.getKey());
             if (entry.getValue() != null) {
                 Object value = entry.getValue();
                 ObjectMarshallerStrategy strategy = context.findObjectMarshallerStrategyFor(value);
-                variableBuilder.setDataType(entry.getValue().getClass().getName()).setValue(strategy.marshall(value));
+                if (includeDataType) {
+                    variableBuilder.setDataType(value.getClass().getName());
+                }
+                variableBuilder.setValue(strategy.marshall(value));
             } else {
                 variableBuilder.setValue(Any.pack(BytesValue.of(ByteString.EMPTY)));
             }
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jbpm.flow.serialization;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.StringValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ObjectMarshallerStrategyCacheTest {
+
+    @Test
+    void testStrategyIsResolvedOncePerClass() {
+        ObjectMarshallerStrategy integers = mock(ObjectMarshallerStrategy.class);
+        ObjectMarshallerStrategy strings = mock(ObjectMarshallerStrategy.class);
+        when(integers.acceptForMarshalling(any())).thenAnswer(i -> i.getArgument(0) instanceof Integer);
+        when(strings.acceptForMarshalling(any())).thenAnswer(i -> i.getArgument(0) instanceof String);
+        ObjectMarshallerStrategyCache cache = new ObjectMarshallerStrategyCache(new ObjectMarshallerStrategy[] { integers, strings });
+
+        assertThat(cache.findForMarshalling("one")).isSameAs(strings);
+        assertThat(cache.findForMarshalling("two")).isSameAs(strings);
+        assertThat(cache.findForMarshalling(3)).isSameAs(integers);
+        assertThat(cache.findForMarshalling(4L)).isNull();
+
+        verify(strings, times(1)).acceptForMarshalling("one");
+        verify(strings, never()).acceptForMarshalling("two");
+        verify(integers, never()).acceptForMarshalling("two");
+    }
+
+    @Test
+    void testStrategyIsResolvedOncePerPackedType() {
+        ObjectMarshallerStrategy strings = mock(ObjectMarshallerStrategy.class);
+        when(strings.acceptForUnmarshalling(any())).thenAnswer(i -> ((Any) i.getArgument(0)).is(StringValue.class));
+        ObjectMarshallerStrategyCache cache = new ObjectMarshallerStrategyCache(new ObjectMarshallerStrategy[] { strings });
+
+        Any one = Any.pack(StringValue.of("one"));
+        Any two = Any.pack(StringValue.of("two"));
+        assertThat(cache.findForUnmarshalling(one)).isSameAs(strings);
+        assertThat(cache.findForUnmarshalling(two)).isSameAs(strings);
+
+        verify(strings, times(1)).acceptForUnmarshalling(any());
+    }
+}
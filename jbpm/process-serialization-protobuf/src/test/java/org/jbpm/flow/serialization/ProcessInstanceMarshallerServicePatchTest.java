@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jbpm.flow.serialization;
+
+import org.jbpm.flow.serialization.protobuf.KogitoProcessInstanceProtobuf.ProcessInstance;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.Variable;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.WorkflowContext;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.StringValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProcessInstanceMarshallerServicePatchTest {
+
+    private static final String LARGE = "x".repeat(1024);
+
+    private final ProcessInstanceMarshallerService marshaller = ProcessInstanceMarshallerService.newBuilder().build();
+
+    @Test
+    void testPatchIsAppliedBackToSnapshot() throws Exception {
+        byte[] base = instance(variable("a", LARGE), variable("b", "one"));
+        byte[] snapshot = instance(variable("a", LARGE), variable("b", "two"));
+
+        byte[] patch = marshaller.createProcessInstancePatch(base, snapshot);
+
+        assertThat(patch).isNotNull().hasSizeLessThan(snapshot.length / 2);
+        assertThat(ProcessInstance.parseFrom(marshaller.applyProcessInstancePatch(base, patch))).isEqualTo(ProcessInstance.parseFrom(snapshot));
+    }
+
+    @Test
+    void testNoPatchWhenHalfTheSnapshot() {
+        byte[] base = instance(variable("a", "one"));
+        byte[] snapshot = instance(variable("a", LARGE));
+
+        assertThat(marshaller.createProcessInstancePatch(base, snapshot)).isNull();
+    }
+
+    @Test
+    void testNoPatchWhenChangeNeedsNewBase() {
+        byte[] base = instance(variable("a", LARGE), variable("b", "one"));
+        byte[] snapshot = instance(variable("a", LARGE));
+
+        assertThat(marshaller.createProcessInstancePatch(base, snapshot)).isNull();
+    }
+
+    @Test
+    void testNoPatchForJsonFormat() {
+        ProcessInstanceMarshallerService jsonMarshaller = ProcessInstanceMarshallerService.newBuilder()
+                .withContextEntry(MarshallerContextName.MARSHALLER_FORMAT, MarshallerContextName.MARSHALLER_FORMAT_JSON).build();
+
+        assertThat(jsonMarshaller.createProcessInstancePatch(instance(variable("a", LARGE), variable("b", "one")),
+                instance(variable("a", LARGE), variable("b", "two")))).isNull();
+    }
+
+    @Test
+    void testInvalidPayload() {
+        byte[] base = instance(variable("a", LARGE));
+        byte[] invalid = { (byte) 0xff, (byte) 0xff };
+
+        assertThatThrownBy(() -> marshaller.createProcessInstancePatch(base, invalid)).isInstanceOf(ProcessInstanceMarshallerException.class);
+        assertThatThrownBy(() -> marshaller.applyProcessInstancePatch(base, invalid)).isInstanceOf(ProcessInstanceMarshallerException.class);
+    }
+
+    private static byte[] instance(Variable... variables) {
+        WorkflowContext.Builder context = WorkflowContext.newBuilder();
+        for (Variable variable : variables) {
+            context.addVariable(variable);
+        }
+        return ProcessInstance.newBuilder()
+                .setId("instance")
+                .setProcessId("process")
+                .setState(1)
+                .setContext(context)
+                .build()
+                .toByteArray();
+    }
+
+    private static Variable variable(String name, String value) {
+        return Variable.newBuilder().setName(name).setValue(Any.pack(StringValue.of(value))).build();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jbpm.flow.serialization.impl;
+
+import org.jbpm.flow.serialization.protobuf.KogitoProcessInstanceProtobuf.ProcessInstance;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.NodeInstance;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.Variable;
+import org.jbpm.flow.serialization.protobuf.KogitoTypesProtobuf.WorkflowContext;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.StringValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProtobufProcessInstancePatchTest {
+
+    @Test
+    void testPatchHoldsOnlyChanges() {
+        ProcessInstance base = instance(1, context(variable("a", "large"), variable("b", "one")).addNodeInstance(nodeInstance("n1", "first")), "s");
+        ProcessInstance current = instance(1, context(variable("a", "large"), variable("b", "two"), variable("c", "new"))
+                .addNodeInstance(nodeInstance("n1", "first"))
+                .addNodeInstance(nodeInstance("n2", "second")), "s", "t");
+
+        ProcessInstance patch = ProtobufProcessInstancePatch.diff(base, current);
+
+        assertThat(patch).isNotNull();
+        assertThat(patch.getCompletedNodeIdsList()).containsExactly("t");
+        assertThat(patch.getContext().getVariableList()).extracting(Variable::getName).containsExactly("b", "c");
+        assertThat(patch.getContext().getNodeInstance(0)).isEqualTo(NodeInstance.newBuilder().setId("n1").build());
+        assertThat(patch.getContext().getNodeInstance(1)).isEqualTo(current.getContext().getNodeInstance(1));
+        assertThat(ProtobufProcessInstancePatch.apply(base, patch)).isEqualTo(current);
+    }
+
+    @Test
+    void testRemovedNodeInstance() {
+        ProcessInstance base = instance(1, context().addNodeInstance(nodeInstance("n1", "first")).addNodeInstance(nodeInstance("n2", "second")));
+        ProcessInstance current = instance(2, context().addNodeInstance(nodeInstance("n2", "second")), "n1");
+
+        ProcessInstance patch = ProtobufProcessInstancePatch.diff(base, current);
+
+        assertThat(patch.getState()).isEqualTo(2);
+        assertThat(ProtobufProcessInstancePatch.apply(base, patch)).isEqualTo(current);
+    }
+
+    @Test
+    void testChangesNeedingNewBase() {
+        ProcessInstance base = instance(1, context(variable("a", "one"), variable("b", "two")), "s");
+
+        assertThat(ProtobufProcessInstancePatch.diff(base, instance(1, context(variable("a", "one")), "s"))).isNull();
+        assertThat(ProtobufProcessInstancePatch.diff(base, instance(1, context(variable("a", "one"), variable("b", "two"))))).isNull();
+        assertThat(ProtobufProcessInstancePatch.diff(base, instance(1, context(variable("a", "one"), variable("b", "two")), "t"))).isNull();
+    }
+
+    private static ProcessInstance instance(int state, WorkflowContext.Builder context, String... completedNodeIds) {
+        ProcessInstance.Builder builder = ProcessInstance.newBuilder()
+                .setId("instance")
+                .setProcessId("process")
+                .setState(state)
+                .setContext(context);
+        for (String completedNodeId : completedNodeIds) {
+            builder.addCompletedNodeIds(completedNodeId);
+        }
+        return builder.build();
+    }
+
+    private static WorkflowContext.Builder context(Variable... variables) {
+        WorkflowContext.Builder builder = WorkflowContext.newBuilder();
+        for (Variable variable : variables) {
+            builder.addVariable(variable);
+        }
+        return builder;
+    }
+
+    private static Variable variable(String name, String value) {
+        return Variable.newBuilder().setName(name).setValue(Any.pack(StringValue.of(value))).build();
+    }
+
+    private static NodeInstance nodeInstance(String id, String content) {
+        return NodeInstance.newBuilder().setId(id).setNodeId("node-" + id).setContent(Any.pack(StringValue.of(content))).build();
+    }
+}
@@ -73,7 +73,7 @@ public class CallbackJobsServiceResource {
             return Response.status(Status.BAD_REQUEST).entity("Process id and Process instance id must be given").build();
         }
 
-        Optional<Process<? extends Model>> process = processes.get().processByProcessInstanceId(processInstanceId);
+        Optional<Process<? extends Model>> process = processes.get().processByProcessInstanceId(processId, processInstanceId);
         if (process.isEmpty()) {
             return Response.status(Status.NOT_FOUND).entity("Process instance with id " + processInstanceId + " not found").build();
         }
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.persistence.quarkus;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.sql.DataSource;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.jobs.JobsService;
+import org.kie.kogito.persistence.jdbc.jobs.JDBCJobsService;
+import org.kie.kogito.process.Processes;
+import org.kie.kogito.services.jobs.impl.InMemoryJobContext;
+import org.kie.kogito.services.jobs.impl.InMemoryProcessJobExecutorFactory;
+import org.kie.kogito.uow.UnitOfWorkManager;
+import org.kie.kogito.usertask.UserTasks;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+
+@IfBuildProperty(name = "kogito.persistence.jdbc.jobs.enabled", stringValue = "true")
+public class JDBCJobsServiceProducer {
+
+    @Produces
+    @ApplicationScoped
+    public JobsService jdbcJobsService(DataSource dataSource,
+            Instance<Processes> processes,
+            Instance<UserTasks> userTasks,
+            UnitOfWorkManager uowm,
+            ScheduledExecutorService executor,
+            @ConfigProperty(name = "kogito.persistence.jdbc.jobs.poll-interval", defaultValue = "1000") long pollInterval,
+            @ConfigProperty(name = "kogito.persistence.jdbc.jobs.batch-size", defaultValue = "100") int batchSize,
+            @ConfigProperty(name = "kogito.persistence.jdbc.jobs.lease", defaultValue = "60000") long lease) {
+        InMemoryJobContext context = new InMemoryJobContext(null, uowm, processes.isResolvable() ? processes.get() : null, userTasks.isResolvable() ? userTasks.get() : null);
+        JDBCJobsService jobsService = new JDBCJobsService(dataSource, executor, pollInterval, batchSize, lease);
+        jobsService.registerJobExecutorFactory(new InMemoryProcessJobExecutorFactory(context));
+        return jobsService;
+    }
+}
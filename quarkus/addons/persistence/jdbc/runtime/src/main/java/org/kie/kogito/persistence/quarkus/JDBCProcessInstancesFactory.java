@@ -35,10 +35,13 @@ public class JDBCProcessInstancesFactory extends AbstractProcessInstancesFactory
 
     @Inject
     public JDBCProcessInstancesFactory(DataSource dataSource,
+            JDBCTransactionManager transactionManager,
             @ConfigProperty(name = "kogito.persistence.optimistic.lock", defaultValue = "false") Boolean lock,
             @ConfigProperty(name = "kogito.persistence.headers.enabled", defaultValue = "false") boolean headersEnabled,
-            @ConfigProperty(name = "kogito.persistence.headers.excluded") Optional<List<String>> headersExcluded) {
-        super(dataSource, lock, HeadersPersistentConfig.of(headersEnabled, headersExcluded));
+            @ConfigProperty(name = "kogito.persistence.headers.excluded") Optional<List<String>> headersExcluded,
+            @ConfigProperty(name = "kogito.persistence.query.fetch.size", defaultValue = "0") int fetchSize,
+            @ConfigProperty(name = "kogito.persistence.delta.enabled", defaultValue = "false") boolean delta) {
+        super(dataSource, lock, HeadersPersistentConfig.of(headersEnabled, headersExcluded), fetchSize, transactionManager, delta);
     }
 
     public JDBCProcessInstancesFactory() {
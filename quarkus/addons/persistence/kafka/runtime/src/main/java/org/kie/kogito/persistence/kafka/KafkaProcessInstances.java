@@ -216,24 +216,29 @@ public class KafkaProcessInstances<T extends Model> implements MutableProcessIns
     }
 
     @Override
-    public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
-
-        KeyValueIterator<String, byte[]> iterator = getStore().prefixScan("events-" + getProcess().id(), Serdes.String().serializer());
-        if (!iterator.hasNext()) {
-            return Collections.<ProcessInstance<T>> emptyList().stream();
-        }
-        KeyValue<String, byte[]> entry = iterator.next();
+    public boolean anyWaitingForEventType(String eventType) {
+        return !waitingProcessInstanceIds(eventType).isEmpty();
+    }
 
-        byte[] eventData = entry.value;
-        if (eventData == null) {
-            return Collections.<ProcessInstance<T>> emptyList().stream();
+    private List<String> waitingProcessInstanceIds(String eventType) {
+        try (KeyValueIterator<String, byte[]> iterator = getStore().prefixScan("events-" + getProcess().id(), Serdes.String().serializer())) {
+            if (!iterator.hasNext()) {
+                return Collections.emptyList();
+            }
+            byte[] eventData = iterator.next().value;
+            if (eventData == null) {
+                return Collections.emptyList();
+            }
+            return Stream.of(new String(eventData).split(","))
+                    .filter(e -> e.startsWith(eventType + EVENT_SEPARATOR))
+                    .map(e -> e.substring(e.indexOf(EVENT_SEPARATOR) + EVENT_SEPARATOR.length()))
+                    .toList();
         }
-        String list = new String(eventData);
-        List<String> processInstancesId = Stream.of(list.split(","))
-                .filter(e -> e.startsWith(eventType + EVENT_SEPARATOR))
-                .map(e -> e.substring(e.indexOf(EVENT_SEPARATOR) + EVENT_SEPARATOR.length()))
-                .toList();
+    }
 
+    @Override
+    public Stream<ProcessInstance<T>> waitingForEventType(String eventType, ProcessInstanceReadMode mode) {
+        List<String> processInstancesId = waitingProcessInstanceIds(eventType);
         List<ProcessInstance<T>> waitingInstances = new ArrayList<>();
         for (String processInstanceId : processInstancesId) {
             byte[] data = getStore().get(getKeyForProcessInstance(processInstanceId));
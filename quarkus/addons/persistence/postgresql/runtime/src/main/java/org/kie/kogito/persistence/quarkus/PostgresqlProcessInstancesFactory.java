@@ -38,8 +38,11 @@ public class PostgresqlProcessInstancesFactory extends AbstractProcessInstancesF
             @ConfigProperty(name = "kogito.persistence.query.timeout.millis", defaultValue = "10000") Long queryTimeout,
             @ConfigProperty(name = "kogito.persistence.optimistic.lock", defaultValue = "false") Boolean lock,
             @ConfigProperty(name = "kogito.persistence.headers.enabled", defaultValue = "false") boolean headersEnabled,
-            @ConfigProperty(name = "kogito.persistence.headers.excluded") Optional<List<String>> headersExcluded) {
-        super(client, queryTimeout, lock, HeadersPersistentConfig.of(headersEnabled, headersExcluded));
+            @ConfigProperty(name = "kogito.persistence.headers.excluded") Optional<List<String>> headersExcluded,
+            @ConfigProperty(name = "kogito.persistence.postgresql.batch.writes", defaultValue = "false") boolean batchWrites,
+            @ConfigProperty(name = "kogito.persistence.query.fetch.size", defaultValue = "0") int fetchSize,
+            @ConfigProperty(name = "kogito.persistence.delta.enabled", defaultValue = "false") boolean delta) {
+        super(client, queryTimeout, lock, HeadersPersistentConfig.of(headersEnabled, headersExcluded), batchWrites, fetchSize, delta);
     }
 
     protected PostgresqlProcessInstancesFactory() {
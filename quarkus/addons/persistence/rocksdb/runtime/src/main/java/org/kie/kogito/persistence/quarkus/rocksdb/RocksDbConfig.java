@@ -18,6 +18,10 @@
  */
 package org.kie.kogito.persistence.quarkus.rocksdb;
 
+import java.util.Optional;
+
+import org.rocksdb.CompressionType;
+
 import io.quarkus.runtime.annotations.ConfigPhase;
 import io.quarkus.runtime.annotations.ConfigRoot;
 import io.quarkus.runtime.annotations.StaticInitSafe;
@@ -43,4 +47,22 @@ public interface RocksDbConfig {
     @WithName("clean")
     @WithDefault("false")
     boolean destroyDB();
+
+    /**
+     * Size in bytes of the block cache shared by all processes, enables bloom filters for point lookups
+     */
+    @WithName("block.cache.size")
+    Optional<Long> blockCacheSize();
+
+    /**
+     * Compression of the stored data, one of the RocksDB compression types (e.g. LZ4_COMPRESSION)
+     */
+    @WithName("compression")
+    Optional<CompressionType> compression();
+
+    /**
+     * Size in bytes of the memtable of each process
+     */
+    @WithName("write.buffer.size")
+    Optional<Long> writeBufferSize();
 }
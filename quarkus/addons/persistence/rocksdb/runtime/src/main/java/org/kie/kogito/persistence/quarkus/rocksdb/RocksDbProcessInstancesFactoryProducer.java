@@ -58,7 +58,8 @@ public class RocksDbProcessInstancesFactoryProducer {
         String dataDir = config.dataDir();
         logger.info("Opening rocksdb in directory {}", dataDir);
         processInstancesFactory = new RocksDBProcessInstancesFactory(options, dataDir,
-                HeadersPersistentConfig.of(headersEnabled, headersExcluded));
+                HeadersPersistentConfig.of(headersEnabled, headersExcluded), config.blockCacheSize().orElse(0L),
+                config.compression().orElse(null), config.writeBufferSize().orElse(0L));
     }
 
     @Produces
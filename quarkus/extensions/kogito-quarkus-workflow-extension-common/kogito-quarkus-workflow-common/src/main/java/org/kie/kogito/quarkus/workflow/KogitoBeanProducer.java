@@ -20,6 +20,7 @@ package org.kie.kogito.quarkus.workflow;
 
 import java.util.concurrent.ScheduledExecutorService;
 
+import org.eclipse.microprofile.context.ThreadContext;
 import org.kie.api.annotations.KieProperty;
 import org.kie.kogito.config.ConfigBean;
 import org.kie.kogito.correlation.CorrelationService;
@@ -28,6 +29,7 @@ import org.kie.kogito.jobs.JobsService;
 import org.kie.kogito.process.ProcessVersionResolver;
 import org.kie.kogito.process.Processes;
 import org.kie.kogito.process.version.ProjectVersionProcessVersionResolver;
+import org.kie.kogito.quarkus.workflow.jobs.QuarkusTimingWheelScheduler;
 import org.kie.kogito.services.jobs.impl.InMemoryJobContext;
 import org.kie.kogito.services.jobs.impl.InMemoryJobService;
 import org.kie.kogito.services.jobs.impl.InMemoryProcessJobExecutorFactory;
@@ -65,13 +67,17 @@ public class KogitoBeanProducer {
 
     @DefaultBean
     @Produces
-    JobsService jobsService(Instance<Processes> processes, Instance<UserTasks> userTasks, UnitOfWorkManager uowm, ScheduledExecutorService executor) {
+    JobsService jobsService(Instance<Processes> processes, Instance<UserTasks> userTasks, UnitOfWorkManager uowm, ScheduledExecutorService executor, ThreadContext threadContext) {
         InMemoryJobContext context = new InMemoryJobContext(null, uowm, processes.isResolvable() ? processes.get() : null, userTasks.isResolvable() ? userTasks.get() : null);
-        InMemoryJobService inMemoryJobService = new InMemoryJobService(executor);
+        InMemoryJobService inMemoryJobService = new InMemoryJobService(jobsScheduler(executor, threadContext));
         inMemoryJobService.registerJobExecutorFactory(new InMemoryProcessJobExecutorFactory(context));
         return inMemoryJobService;
     }
 
+    ScheduledExecutorService jobsScheduler(ScheduledExecutorService executor, ThreadContext threadContext) {
+        return Boolean.getBoolean(InMemoryJobService.IN_MEMORY_JOB_SERVICE_TIMING_WHEEL_PROPERTY) ? new QuarkusTimingWheelScheduler(threadContext) : executor;
+    }
+
     @Produces
     @IfBuildProperty(name = "kogito.workflow.version-strategy", stringValue = "project")
     ProcessVersionResolver projectVersionResolver(ConfigBean configBean) {
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.quarkus.workflow.jobs;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.context.ThreadContext;
+import org.kie.kogito.services.jobs.impl.InMemoryJobService;
+import org.kie.kogito.services.jobs.impl.TimingWheelScheduler;
+
+/**
+ * Timing wheel used by the in memory job service when {@link InMemoryJobService#IN_MEMORY_JOB_SERVICE_TIMING_WHEEL_PROPERTY}
+ * is enabled, propagating the context of the scheduling thread as {@link QuarkusScheduledExecutorService} does.
+ */
+public class QuarkusTimingWheelScheduler extends TimingWheelScheduler {
+
+    private final ThreadContext context;
+
+    public QuarkusTimingWheelScheduler(ThreadContext context) {
+        super(newExecutor(Integer.parseInt(System.getProperty(InMemoryJobService.IN_MEMORY_JOB_SERVICE_POOL_SIZE_PROPERTY, "10")),
+                Boolean.getBoolean(InMemoryJobService.IN_MEMORY_JOB_SERVICE_VIRTUAL_THREADS_PROPERTY)));
+        this.context = context;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return super.scheduleAtFixedRate(context.contextualRunnable(command), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return super.schedule(context.contextualRunnable(command), delay, unit);
+    }
+}
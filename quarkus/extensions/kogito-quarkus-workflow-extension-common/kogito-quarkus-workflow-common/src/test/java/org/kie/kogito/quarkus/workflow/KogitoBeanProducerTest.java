@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.quarkus.workflow;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.context.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kie.kogito.quarkus.workflow.jobs.QuarkusTimingWheelScheduler;
+import org.kie.kogito.services.jobs.impl.InMemoryJobService;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KogitoBeanProducerTest {
+
+    @Mock
+    ScheduledExecutorService executor;
+
+    @Mock
+    ThreadContext threadContext;
+
+    @AfterEach
+    void clearProperty() {
+        System.clearProperty(InMemoryJobService.IN_MEMORY_JOB_SERVICE_TIMING_WHEEL_PROPERTY);
+    }
+
+    @Test
+    void testInjectedExecutorByDefault() {
+        assertThat(new KogitoBeanProducer().jobsScheduler(executor, threadContext)).isSameAs(executor);
+    }
+
+    @Test
+    void testTimingWheelWhenEnabled() throws InterruptedException {
+        System.setProperty(InMemoryJobService.IN_MEMORY_JOB_SERVICE_TIMING_WHEEL_PROPERTY, "true");
+        when(threadContext.contextualRunnable(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ScheduledExecutorService scheduler = new KogitoBeanProducer().jobsScheduler(executor, threadContext);
+        try {
+            assertThat(scheduler).isInstanceOf(QuarkusTimingWheelScheduler.class);
+            CountDownLatch fired = new CountDownLatch(1);
+            Runnable job = fired::countDown;
+            scheduler.schedule(job, 10, TimeUnit.MILLISECONDS);
+
+            assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+            verify(threadContext).contextualRunnable(job);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.kogito.persistence.springboot;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.kie.kogito.jobs.JobsService;
+import org.kie.kogito.persistence.jdbc.jobs.JDBCJobsService;
+import org.kie.kogito.process.Processes;
+import org.kie.kogito.services.jobs.impl.InMemoryJobContext;
+import org.kie.kogito.services.jobs.impl.InMemoryProcessJobExecutorFactory;
+import org.kie.kogito.uow.UnitOfWorkManager;
+import org.kie.kogito.usertask.UserTasks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+
+@Configuration
+@ConditionalOnProperty(value = "kogito.persistence.jdbc.jobs.enabled", havingValue = "true")
+public class JDBCJobsServiceProducer {
+
+    @Bean
+    @Primary
+    JobsService jdbcJobsService(DataSource dataSource,
+            List<Processes> processes,
+            List<UserTasks> userTasks,
+            UnitOfWorkManager uowm,
+            @Value("${kogito.persistence.jdbc.jobs.poll-interval:1000}") long pollInterval,
+            @Value("${kogito.persistence.jdbc.jobs.batch-size:100}") int batchSize,
+            @Value("${kogito.persistence.jdbc.jobs.lease:60000}") long lease) {
+        InMemoryJobContext context = new InMemoryJobContext(null, uowm, !processes.isEmpty() ? processes.get(0) : null, !userTasks.isEmpty() ? userTasks.get(0) : null);
+        // Wrap the original DataSource so jobs are scheduled within the transaction of the process instance
+        JDBCJobsService jobsService = new JDBCJobsService(new TransactionAwareDataSourceProxy(dataSource), pollInterval, batchSize, lease);
+        jobsService.registerJobExecutorFactory(new InMemoryProcessJobExecutorFactory(context));
+        return jobsService;
+    }
+}
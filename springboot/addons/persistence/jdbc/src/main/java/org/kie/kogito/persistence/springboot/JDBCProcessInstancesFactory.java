@@ -34,12 +34,15 @@ public class JDBCProcessInstancesFactory extends AbstractProcessInstancesFactory
 
     @Autowired
     public JDBCProcessInstancesFactory(DataSource dataSource,
+            JDBCTransactionManager transactionManager,
             @Value("${kogito.persistence.optimistic.lock:false}") Boolean lock,
             @Value("${kogito.persistence.headers.enabled:false}") Boolean headersEnabled,
-            @Value("${kogito.persistence.headers.excluded:}") List<String> headersExcluded) {
+            @Value("${kogito.persistence.headers.excluded:}") List<String> headersExcluded,
+            @Value("${kogito.persistence.query.fetch.size:0}") Integer fetchSize,
+            @Value("${kogito.persistence.delta.enabled:false}") Boolean delta) {
 
         // Wrap the original DataSource so operations use the transactional Connection
-        super(new TransactionAwareDataSourceProxy(dataSource), lock, new HeadersPersistentConfig(headersEnabled, headersExcluded));
+        super(new TransactionAwareDataSourceProxy(dataSource), lock, new HeadersPersistentConfig(headersEnabled, headersExcluded), fetchSize, transactionManager, delta);
     }
 
 }
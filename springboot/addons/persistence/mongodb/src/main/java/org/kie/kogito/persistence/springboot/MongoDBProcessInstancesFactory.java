@@ -38,8 +38,9 @@ public class MongoDBProcessInstancesFactory extends AbstractProcessInstancesFact
             @Value("${kogito.persistence.optimistic.lock:false}") Boolean lock,
             @Value("${spring.data.mongodb.database:kogito}") String dbName,
             @Value("${kogito.persistence.headers.enabled:false}") Boolean headersEnabled,
-            @Value("${kogito.persistence.headers.excluded:}") List<String> headersExcluded) {
-        super(mongoClient, dbName, lock, transactionManager, new HeadersPersistentConfig(headersEnabled, headersExcluded));
+            @Value("${kogito.persistence.headers.excluded:}") List<String> headersExcluded,
+            @Value("${kogito.persistence.mongodb.binary.payload:false}") Boolean binaryPayload) {
+        super(mongoClient, dbName, lock, transactionManager, new HeadersPersistentConfig(headersEnabled, headersExcluded), binaryPayload);
     }
 
 }
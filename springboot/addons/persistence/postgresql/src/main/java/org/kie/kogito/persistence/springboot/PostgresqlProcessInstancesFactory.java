@@ -37,8 +37,11 @@ public class PostgresqlProcessInstancesFactory extends AbstractProcessInstancesF
             @Value("${kogito.persistence.query.timeout.millis:10000}") Long queryTimeout,
             @Value("${kogito.persistence.optimistic.lock:false}") Boolean lock,
             @Value("${kogito.persistence.headers.enabled:false}") Boolean headersEnabled,
-            @Value("${kogito.persistence.headers.excluded:}") List<String> headersExcluded) {
-        super(client, queryTimeout, lock, new HeadersPersistentConfig(headersEnabled, headersExcluded));
+            @Value("${kogito.persistence.headers.excluded:}") List<String> headersExcluded,
+            @Value("${kogito.persistence.postgresql.batch.writes:false}") Boolean batchWrites,
+            @Value("${kogito.persistence.query.fetch.size:0}") Integer fetchSize,
+            @Value("${kogito.persistence.delta.enabled:false}") Boolean delta) {
+        super(client, queryTimeout, lock, new HeadersPersistentConfig(headersEnabled, headersExcluded), batchWrites, fetchSize, delta);
     }
 
     protected PostgresqlProcessInstancesFactory() {